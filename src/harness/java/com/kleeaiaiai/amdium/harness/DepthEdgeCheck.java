@@ -0,0 +1,145 @@
+package com.kleeaiaiai.amdium.harness;
+
+import com.kleeaiaiai.amdium.config.AMDiumConfig;
+import com.kleeaiaiai.amdium.fsr.FSRProcessor;
+import com.kleeaiaiai.amdium.fsr.FSRType;
+import com.kleeaiaiai.amdium.fsr.LwjglGpuBackend;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.system.Configuration;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Checks that depth-guided edges see real geometry. The harness frame has a
+ * horizon where terrain meets sky; after the depth capture the processor's
+ * copy must give a non-zero edge term there. A frame whose depth was already
+ * cleared, as the main framebuffer's is by the time the game's render returns,
+ * must give none, so the check would catch the capture moving back there.
+ *
+ * The edge term is evaluated on the CPU with the formula from fsr1.frag's
+ * LoadLinearDepth and DetectDepthEdge, on the depth and range the shader gets.
+ *
+ * Arguments: --context glfw|egl (default glfw). Exits with 1 on failure.
+ */
+public final class DepthEdgeCheck {
+    private static final int WIDTH = 1920;
+    private static final int HEIGHT = 1080;
+    private static final float FAR_PLANE = 1024.0f;
+    
+    // From fsr1.frag
+    private static final float DEPTH_EDGE_THRESHOLD = 0.02f;
+    private static final float DEPTH_EDGE_FULL = 0.1f;
+    
+    // Fewest render-resolution pixels that must sit on a silhouette: at least the horizon row
+    private static final int MIN_EDGE_PIXELS = 100;
+    
+    private DepthEdgeCheck() {
+    }
+    
+    public static void main(String[] args) {
+        String contextApi = args.length == 2 && args[0].equals("--context") ? args[1] : "glfw";
+        
+        // The EGL path loads GL entry points through EGL instead of libGL
+        Configuration.OPENGL_EXPLICIT_INIT.set(true);
+        
+        boolean failed = false;
+        try (HeadlessContext context = HeadlessContext.create(contextApi, WIDTH, HEIGHT)) {
+            int captured = edgePixels(false);
+            System.out.println("Depth edge pixels after the world pass: " + captured);
+            if (captured < MIN_EDGE_PIXELS) {
+                System.err.println("The captured depth has no silhouettes, expected at least " + MIN_EDGE_PIXELS);
+                failed = true;
+            }
+            
+            int cleared = edgePixels(true);
+            System.out.println("Depth edge pixels after the depth clear: " + cleared);
+            if (cleared != 0) {
+                System.err.println("Cleared depth should have no silhouettes");
+                failed = true;
+            }
+        }
+        
+        if (failed) {
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Capture the harness frame's depth like the world pass hook does and count
+     * the render-resolution pixels with a non-zero edge term
+     * @param clearFirst Clear the source depth to the far plane before capturing
+     */
+    private static int edgePixels(boolean clearFirst) {
+        AMDiumConfig config = new AMDiumConfig();
+        config.setEnabled(true);
+        config.setFsrType(FSRType.FSR_1);
+        config.setDepthGuidedEdges(true);
+        
+        FSRProcessor processor = new FSRProcessor(config, LwjglGpuBackend.INSTANCE);
+        processor.setErrorHandler(() -> {
+            throw new IllegalStateException("FSR processing failed");
+        });
+        FloatBuffer depth = null;
+        try (FrameSource source = FrameSource.synthetic(WIDTH, HEIGHT)) {
+            processor.initialize(WIDTH, HEIGHT);
+            processor.resizeBuffers(WIDTH, HEIGHT);
+            
+            if (clearFirst) {
+                GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, source.getFramebuffer());
+                GL11.glClearDepth(1.0);
+                GL11.glClear(GL11.GL_DEPTH_BUFFER_BIT);
+            }
+            processor.captureSceneDepth(source.getFramebuffer(), FAR_PLANE);
+            
+            int width = processor.getRenderWidth();
+            int height = processor.getRenderHeight();
+            depth = MemoryUtil.memAllocFloat(width * height);
+            GL30.glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, processor.getInputFramebuffer());
+            GL11.glReadPixels(0, 0, width, height, GL11.GL_DEPTH_COMPONENT, GL11.GL_FLOAT, depth);
+            
+            // Runs the depth-guided variant on the copy, so a broken binding shows up as an error too
+            processor.processFrame(source.getFramebuffer(), 0);
+            
+            float near = processor.getDepthNear();
+            float far = processor.getDepthFar();
+            int count = 0;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    float center = linearDepth(depth.get(y * width + x), near, far);
+                    float strongest = 0.0f;
+                    for (int dy = -1; dy <= 1; dy++) {
+                        for (int dx = -1; dx <= 1; dx++) {
+                            int sx = Math.max(0, Math.min(width - 1, x + dx));
+                            int sy = Math.max(0, Math.min(height - 1, y + dy));
+                            float neighbor = linearDepth(depth.get(sy * width + sx), near, far);
+                            strongest = Math.max(strongest, depthEdge(center, neighbor));
+                        }
+                    }
+                    if (strongest > 0.0f) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        } finally {
+            if (depth != null) {
+                MemoryUtil.memFree(depth);
+            }
+            processor.cleanup();
+            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+        }
+    }
+    
+    private static float linearDepth(float depth, float near, float far) {
+        float z = depth * 2.0f - 1.0f;
+        return (2.0f * near * far) / (far + near - z * (far - near));
+    }
+    
+    private static float depthEdge(float center, float neighbor) {
+        float relativeJump = Math.abs(center - neighbor) / Math.max(Math.min(center, neighbor), 0.0001f);
+        float t = Math.max(0.0f, Math.min(1.0f, (relativeJump - DEPTH_EDGE_THRESHOLD) / (DEPTH_EDGE_FULL - DEPTH_EDGE_THRESHOLD)));
+        return t * t * (3.0f - 2.0f * t);
+    }
+}
@@ -0,0 +1,236 @@
+package com.kleeaiaiai.amdium.harness;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.kleeaiaiai.amdium.config.AMDiumConfig;
+import com.kleeaiaiai.amdium.fsr.FSRProcessor;
+import com.kleeaiaiai.amdium.fsr.FSRQualityMode;
+import com.kleeaiaiai.amdium.fsr.FSRType;
+import com.kleeaiaiai.amdium.fsr.LwjglGpuBackend;
+import org.lwjgl.system.Configuration;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL33;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs FSRProcessor on an offscreen context without Minecraft and reports GPU
+ * and CPU time per frame for every resolution, quality mode and FSR type.
+ *
+ * Arguments (all optional):
+ *   --context glfw|egl   context API, default glfw
+ *   --frames N           measured frames per configuration, default 200
+ *   --warmup N           unmeasured frames per configuration, default 30
+ *   --captures DIR       also run every PNG in DIR as a captured frame
+ *   --output FILE        JSON report, default harness-report.json
+ */
+public final class FSRHarness {
+    private static final int[][] RESOLUTIONS = {
+        {1920, 1080},
+        {2560, 1440},
+        {3840, 2160}
+    };
+    
+    // Far plane at a 16 chunk render distance
+    private static final float FAR_PLANE = 1024.0f;
+    
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    
+    private FSRHarness() {
+    }
+    
+    public static void main(String[] args) throws IOException {
+        String contextApi = "glfw";
+        int frames = 200;
+        int warmup = 30;
+        File capturesDir = null;
+        File output = new File("harness-report.json");
+        
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--context": contextApi = value; i++; break;
+                case "--frames": frames = Integer.parseInt(value); i++; break;
+                case "--warmup": warmup = Integer.parseInt(value); i++; break;
+                case "--captures": capturesDir = new File(value); i++; break;
+                case "--output": output = new File(value); i++; break;
+                default: throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        
+        // The EGL path loads GL entry points through EGL instead of libGL
+        Configuration.OPENGL_EXPLICIT_INIT.set(true);
+        
+        int maxWidth = 0;
+        int maxHeight = 0;
+        for (int[] resolution : RESOLUTIONS) {
+            maxWidth = Math.max(maxWidth, resolution[0]);
+            maxHeight = Math.max(maxHeight, resolution[1]);
+        }
+        
+        Report report = new Report();
+        try (HeadlessContext context = HeadlessContext.create(contextApi, maxWidth, maxHeight)) {
+            report.context = context.getApi();
+            report.renderer = GL11.glGetString(GL11.GL_RENDERER);
+            report.vendor = GL11.glGetString(GL11.GL_VENDOR);
+            report.version = GL11.glGetString(GL11.GL_VERSION);
+            report.frames = frames;
+            report.warmupFrames = warmup;
+            System.out.println("Harness running on " + report.renderer + " (" + report.version + ") via " + report.context);
+            
+            List<File> captures = listCaptures(capturesDir);
+            for (int[] resolution : RESOLUTIONS) {
+                int width = resolution[0];
+                int height = resolution[1];
+                
+                List<FrameSource> sources = new ArrayList<>();
+                try {
+                    sources.add(FrameSource.synthetic(width, height));
+                    for (File capture : captures) {
+                        sources.add(FrameSource.captured(capture, width, height));
+                    }
+                    
+                    for (FrameSource source : sources) {
+                        for (FSRType fsrType : FSRType.values()) {
+                            for (FSRQualityMode qualityMode : FSRQualityMode.values()) {
+                                Result result = measure(source, width, height, fsrType, qualityMode, warmup, frames);
+                                report.results.add(result);
+                                System.out.printf("%-12s %4dx%-4d %-6s %-18s gpu %7.3f ms  p95 %7.3f ms  cpu %7.3f ms%n",
+                                                  result.source, width, height, result.fsrType, result.qualityMode,
+                                                  result.gpuMsPerFrame, result.gpuMsP95, result.cpuMsPerFrame);
+                            }
+                        }
+                    }
+                } finally {
+                    for (FrameSource source : sources) {
+                        source.close();
+                    }
+                }
+            }
+        }
+        
+        File parent = output.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (Writer writer = new FileWriter(output)) {
+            GSON.toJson(report, writer);
+        }
+        System.out.println("Wrote " + report.results.size() + " results to " + output);
+    }
+    
+    private static List<File> listCaptures(File capturesDir) {
+        List<File> captures = new ArrayList<>();
+        if (capturesDir == null) {
+            return captures;
+        }
+        File[] files = capturesDir.listFiles((dir, name) -> name.toLowerCase().endsWith(".png"));
+        if (files == null) {
+            throw new IllegalArgumentException("Not a directory: " + capturesDir);
+        }
+        Arrays.sort(files);
+        captures.addAll(Arrays.asList(files));
+        return captures;
+    }
+    
+    private static Result measure(FrameSource source, int width, int height, FSRType fsrType,
+                                  FSRQualityMode qualityMode, int warmup, int frames) {
+        AMDiumConfig config = new AMDiumConfig();
+        config.setEnabled(true);
+        config.setFsrType(fsrType);
+        config.setQualityMode(qualityMode);
+        
+        FSRProcessor processor = new FSRProcessor(config, LwjglGpuBackend.INSTANCE);
+        processor.setErrorHandler(() -> {
+            throw new IllegalStateException("FSR processing failed at " + width + "x" + height + " " + qualityMode);
+        });
+        int[] queries = new int[frames];
+        try {
+            processor.initialize(width, height);
+            processor.resizeBuffers(width, height);
+            
+            for (int i = 0; i < warmup; i++) {
+                processor.captureSceneDepth(source.getFramebuffer(), FAR_PLANE);
+                processor.processFrame(source.getFramebuffer(), i);
+            }
+            GL11.glFinish();
+            
+            GL15.glGenQueries(queries);
+            long cpuStart = System.nanoTime();
+            for (int i = 0; i < frames; i++) {
+                GL15.glBeginQuery(GL33.GL_TIME_ELAPSED, queries[i]);
+                // In game the depth copy happens after the world pass; it's part of the frame's cost
+                processor.captureSceneDepth(source.getFramebuffer(), FAR_PLANE);
+                processor.processFrame(source.getFramebuffer(), i);
+                GL15.glEndQuery(GL33.GL_TIME_ELAPSED);
+            }
+            GL11.glFinish();
+            long cpuNanos = System.nanoTime() - cpuStart;
+            
+            // Results are all available after glFinish, so reading them doesn't stall
+            double[] gpuMs = new double[frames];
+            double gpuTotal = 0.0;
+            for (int i = 0; i < frames; i++) {
+                gpuMs[i] = GL33.glGetQueryObjectui64(queries[i], GL15.GL_QUERY_RESULT) / 1_000_000.0;
+                gpuTotal += gpuMs[i];
+            }
+            Arrays.sort(gpuMs);
+            
+            Result result = new Result();
+            result.source = source.getName();
+            result.width = width;
+            result.height = height;
+            result.renderWidth = processor.getRenderWidth();
+            result.renderHeight = processor.getRenderHeight();
+            result.fsrType = fsrType.name();
+            result.qualityMode = qualityMode.name();
+            result.gpuMsPerFrame = gpuTotal / frames;
+            result.gpuMsP95 = gpuMs[Math.min(frames - 1, (int) Math.ceil(frames * 0.95) - 1)];
+            result.cpuMsPerFrame = cpuNanos / 1_000_000.0 / frames;
+            return result;
+        } finally {
+            if (queries[0] != 0) {
+                GL15.glDeleteQueries(queries);
+            }
+            processor.cleanup();
+            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+        }
+    }
+    
+    /**
+     * Top level of the JSON report
+     */
+    static final class Report {
+        String context;
+        String renderer;
+        String vendor;
+        String version;
+        int frames;
+        int warmupFrames;
+        List<Result> results = new ArrayList<>();
+    }
+    
+    /**
+     * One source / resolution / FSR type / quality mode combination
+     */
+    static final class Result {
+        String source;
+        int width;
+        int height;
+        int renderWidth;
+        int renderHeight;
+        String fsrType;
+        String qualityMode;
+        double gpuMsPerFrame;
+        double gpuMsP95;
+        double cpuMsPerFrame;
+    }
+}
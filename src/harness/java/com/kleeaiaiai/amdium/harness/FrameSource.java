@@ -0,0 +1,160 @@
+package com.kleeaiaiai.amdium.harness;
+
+import com.kleeaiaiai.amdium.AMDium;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.system.MemoryUtil;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * A full-size framebuffer standing in for Minecraft's main framebuffer, filled
+ * with either a synthetic test pattern or a captured screenshot. Depth marks the
+ * upper part of the frame as sky so the sky mask pass has work to do.
+ */
+final class FrameSource implements AutoCloseable {
+    // Fraction of the frame (from the top) treated as sky
+    private static final float SKY_FRACTION = 0.35f;
+    
+    private final String name;
+    private final int framebuffer;
+    private final int colorTexture;
+    private final int depthTexture;
+    
+    private FrameSource(String name, int width, int height, ByteBuffer rgba) {
+        this.name = name;
+        
+        colorTexture = GL11.glGenTextures();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, colorTexture);
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA8, width, height, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, rgba);
+        setNearestClamp();
+        
+        // Same unsized depth format as Minecraft and FSRProcessor, so the depth blit is legal
+        FloatBuffer depth = createDepth(width, height);
+        depthTexture = GL11.glGenTextures();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, depthTexture);
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_DEPTH_COMPONENT, width, height, 0, GL11.GL_DEPTH_COMPONENT, GL11.GL_FLOAT, depth);
+        MemoryUtil.memFree(depth);
+        setNearestClamp();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        
+        framebuffer = GL30.glGenFramebuffers();
+        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, framebuffer);
+        GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, GL11.GL_TEXTURE_2D, colorTexture, 0);
+        GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_DEPTH_ATTACHMENT, GL11.GL_TEXTURE_2D, depthTexture, 0);
+        int status = GL30.glCheckFramebufferStatus(GL30.GL_FRAMEBUFFER);
+        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+        if (status != GL30.GL_FRAMEBUFFER_COMPLETE) {
+            close();
+            throw new IllegalStateException("Source framebuffer incomplete: 0x" + Integer.toHexString(status));
+        }
+    }
+    
+    /**
+     * A procedural frame with the content FSR cares about: hard edges at several
+     * frequencies, thin diagonals and smooth gradients
+     */
+    static FrameSource synthetic(int width, int height) {
+        ByteBuffer rgba = MemoryUtil.memAlloc(width * height * 4);
+        try {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int band = x * 4 / width;
+                    int cell = 4 << band;
+                    boolean checker = ((x / cell) + (y / cell)) % 2 == 0;
+                    boolean diagonal = (x + y) % 23 == 0 || (x - y + height) % 37 == 0;
+                    int gradient = y * 255 / Math.max(1, height - 1);
+                    
+                    int r = checker ? 220 : 40;
+                    int g = diagonal ? 255 : gradient;
+                    int b = (x * 255 / Math.max(1, width - 1) + gradient) / 2;
+                    rgba.put((byte) r).put((byte) g).put((byte) b).put((byte) 255);
+                }
+            }
+            rgba.flip();
+            return new FrameSource("synthetic", width, height, rgba);
+        } finally {
+            MemoryUtil.memFree(rgba);
+        }
+    }
+    
+    /**
+     * A captured frame (e.g. a Minecraft screenshot), scaled to the tested resolution
+     */
+    static FrameSource captured(File file, int width, int height) throws IOException {
+        BufferedImage image = ImageIO.read(file);
+        if (image == null) {
+            throw new IOException("Not a readable image: " + file);
+        }
+        
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, width, height, null);
+        graphics.dispose();
+        
+        ByteBuffer rgba = MemoryUtil.memAlloc(width * height * 4);
+        try {
+            int[] row = new int[width];
+            // GL rows go bottom-up
+            for (int y = height - 1; y >= 0; y--) {
+                scaled.getRGB(0, y, width, 1, row, 0, width);
+                for (int argb : row) {
+                    rgba.put((byte) (argb >> 16)).put((byte) (argb >> 8)).put((byte) argb).put((byte) 255);
+                }
+            }
+            rgba.flip();
+            return new FrameSource(file.getName(), width, height, rgba);
+        } finally {
+            MemoryUtil.memFree(rgba);
+        }
+    }
+    
+    private static FloatBuffer createDepth(int width, int height) {
+        FloatBuffer depth = MemoryUtil.memAllocFloat(width * height);
+        int skyStart = Math.round(height * (1.0f - SKY_FRACTION));
+        for (int y = 0; y < height; y++) {
+            // Terrain gets closer towards the bottom of the screen
+            float value = y >= skyStart ? 1.0f : 0.9f + 0.099f * y / Math.max(1, skyStart);
+            for (int x = 0; x < width; x++) {
+                depth.put(value);
+            }
+        }
+        depth.flip();
+        return depth;
+    }
+    
+    private static void setNearestClamp() {
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+    }
+    
+    String getName() {
+        return name;
+    }
+    
+    int getFramebuffer() {
+        return framebuffer;
+    }
+    
+    @Override
+    public void close() {
+        try {
+            GL30.glDeleteFramebuffers(framebuffer);
+            GL11.glDeleteTextures(colorTexture);
+            GL11.glDeleteTextures(depthTexture);
+        } catch (Exception e) {
+            AMDium.LOGGER.error("Failed to delete harness source framebuffer", e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.kleeaiaiai.amdium.harness;
+
+import com.kleeaiaiai.amdium.batch.BatchUpscaler;
+import com.kleeaiaiai.amdium.batch.FrameUpscaler;
+import com.kleeaiaiai.amdium.config.AMDiumConfig;
+import com.kleeaiaiai.amdium.fsr.FSRProcessor;
+import com.kleeaiaiai.amdium.fsr.FSRQualityMode;
+import com.kleeaiaiai.amdium.fsr.FSRType;
+import com.kleeaiaiai.amdium.fsr.LwjglGpuBackend;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.system.Configuration;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Batch upscaling through FSRProcessor on an offscreen context, so captured
+ * frames get exactly what the game would show. Each frame is uploaded to the
+ * lower-left corner of a display-sized framebuffer, where the game leaves its
+ * render-resolution image, and the result is read back from the default
+ * framebuffer. Depth is cleared to the near plane, so nothing counts as sky.
+ *
+ * Same arguments as BatchUpscaler, plus --context glfw|egl (default glfw).
+ */
+final class GpuFrameUpscaler implements FrameUpscaler {
+    private final HeadlessContext context;
+    private final FSRProcessor processor;
+    private final int colorTexture;
+    private final int depthTexture;
+    private final int framebuffer;
+    private long frameIndex = 0;
+    
+    GpuFrameUpscaler(String contextApi, FSRType fsrType, FSRQualityMode qualityMode, float sharpness, int displayWidth, int displayHeight) {
+        context = HeadlessContext.create(contextApi, displayWidth, displayHeight);
+        
+        colorTexture = GL11.glGenTextures();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, colorTexture);
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA8, displayWidth, displayHeight, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, (ByteBuffer) null);
+        setNearestClamp();
+        depthTexture = GL11.glGenTextures();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, depthTexture);
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_DEPTH_COMPONENT, displayWidth, displayHeight, 0, GL11.GL_DEPTH_COMPONENT, GL11.GL_FLOAT, (ByteBuffer) null);
+        setNearestClamp();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        
+        framebuffer = GL30.glGenFramebuffers();
+        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, framebuffer);
+        GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, GL11.GL_TEXTURE_2D, colorTexture, 0);
+        GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_DEPTH_ATTACHMENT, GL11.GL_TEXTURE_2D, depthTexture, 0);
+        GL11.glClearDepth(0.0);
+        GL11.glClear(GL11.GL_DEPTH_BUFFER_BIT);
+        GL11.glClearDepth(1.0);
+        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+        
+        AMDiumConfig config = new AMDiumConfig();
+        config.setEnabled(true);
+        config.setFsrType(fsrType);
+        config.setQualityMode(qualityMode);
+        config.setSharpness(sharpness);
+        processor = new FSRProcessor(config, LwjglGpuBackend.INSTANCE);
+        processor.setErrorHandler(() -> {
+            throw new IllegalStateException("FSR processing failed");
+        });
+        processor.initialize(displayWidth, displayHeight);
+        processor.resizeBuffers(displayWidth, displayHeight);
+    }
+    
+    public static void main(String[] args) {
+        // The EGL path loads GL entry points through EGL instead of libGL
+        Configuration.OPENGL_EXPLICIT_INIT.set(true);
+        
+        String contextApi = "glfw";
+        String[] batchArgs = new String[args.length];
+        int count = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--context") && i + 1 < args.length) {
+                contextApi = args[++i];
+            } else {
+                batchArgs[count++] = args[i];
+            }
+        }
+        
+        String api = contextApi;
+        System.exit(BatchUpscaler.run(Arrays.copyOf(batchArgs, count),
+            (qualityMode, sharpness, displayWidth, displayHeight) ->
+                new GpuFrameUpscaler(api, FSRType.FSR_1, qualityMode, sharpness, displayWidth, displayHeight)));
+    }
+    
+    @Override
+    public void upscale(ByteBuffer source, int sourceWidth, int sourceHeight,
+                        ByteBuffer target, int targetWidth, int targetHeight) {
+        if (sourceWidth != processor.getRenderWidth() || sourceHeight != processor.getRenderHeight()) {
+            throw new IllegalArgumentException("Frame is " + sourceWidth + "x" + sourceHeight + ", the processor renders at " +
+                                               processor.getRenderWidth() + "x" + processor.getRenderHeight());
+        }
+        
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, colorTexture);
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+        GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, 0, 0, sourceWidth, sourceHeight, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, source);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        
+        processor.processFrame(framebuffer, frameIndex++);
+        
+        GL30.glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, 0);
+        GL11.glPixelStorei(GL11.GL_PACK_ALIGNMENT, 1);
+        GL11.glReadPixels(0, 0, targetWidth, targetHeight, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, target);
+    }
+    
+    @Override
+    public void close() {
+        processor.cleanup();
+        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+        GL30.glDeleteFramebuffers(framebuffer);
+        GL11.glDeleteTextures(colorTexture);
+        GL11.glDeleteTextures(depthTexture);
+        context.close();
+    }
+    
+    private static void setNearestClamp() {
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+    }
+}
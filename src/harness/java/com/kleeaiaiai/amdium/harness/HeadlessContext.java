@@ -0,0 +1,166 @@
+package com.kleeaiaiai.amdium.harness;
+
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.egl.EGL;
+import org.lwjgl.egl.EGL10;
+import org.lwjgl.egl.EGL12;
+import org.lwjgl.egl.EGL14;
+import org.lwjgl.egl.EGL15;
+import org.lwjgl.glfw.GLFW;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.system.MemoryStack;
+
+import java.nio.IntBuffer;
+
+/**
+ * An offscreen OpenGL 3.3 core context, either a hidden GLFW window (needs an X
+ * server or Xvfb) or an EGL pbuffer (works without one, e.g. Mesa llvmpipe with
+ * EGL_PLATFORM=surfaceless)
+ */
+abstract class HeadlessContext implements AutoCloseable {
+    /**
+     * Create a context and make it current on this thread
+     * @param api "glfw" or "egl"
+     * @param width Default framebuffer width, should fit the largest tested resolution
+     * @param height Default framebuffer height
+     */
+    static HeadlessContext create(String api, int width, int height) {
+        switch (api) {
+            case "glfw": return new Glfw(width, height);
+            case "egl": return new Egl(width, height);
+            default: throw new IllegalArgumentException("Unknown context API: " + api + " (expected glfw or egl)");
+        }
+    }
+    
+    /**
+     * Name of the context API, for the report
+     */
+    abstract String getApi();
+    
+    @Override
+    public abstract void close();
+    
+    private static final class Glfw extends HeadlessContext {
+        private final long window;
+        
+        Glfw(int width, int height) {
+            if (!GLFW.glfwInit()) {
+                throw new IllegalStateException("Failed to initialize GLFW");
+            }
+            GLFW.glfwDefaultWindowHints();
+            GLFW.glfwWindowHint(GLFW.GLFW_VISIBLE, GLFW.GLFW_FALSE);
+            GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_VERSION_MAJOR, 3);
+            GLFW.glfwWindowHint(GLFW.GLFW_CONTEXT_VERSION_MINOR, 3);
+            GLFW.glfwWindowHint(GLFW.GLFW_OPENGL_PROFILE, GLFW.GLFW_OPENGL_CORE_PROFILE);
+            GLFW.glfwWindowHint(GLFW.GLFW_OPENGL_FORWARD_COMPAT, GLFW.GLFW_TRUE);
+            
+            window = GLFW.glfwCreateWindow(width, height, "AMDium FSR harness", 0L, 0L);
+            if (window == 0L) {
+                GLFW.glfwTerminate();
+                throw new IllegalStateException("Failed to create a hidden GLFW window with a 3.3 core context");
+            }
+            GLFW.glfwMakeContextCurrent(window);
+            GLFW.glfwSwapInterval(0);
+            
+            GL.create();
+            GL.createCapabilities();
+        }
+        
+        @Override
+        String getApi() {
+            return "glfw";
+        }
+        
+        @Override
+        public void close() {
+            GL.setCapabilities(null);
+            GLFW.glfwDestroyWindow(window);
+            GLFW.glfwTerminate();
+        }
+    }
+    
+    private static final class Egl extends HeadlessContext {
+        private final long display;
+        private final long surface;
+        private final long context;
+        
+        Egl(int width, int height) {
+            display = EGL10.eglGetDisplay(EGL14.EGL_DEFAULT_DISPLAY);
+            if (display == EGL10.EGL_NO_DISPLAY) {
+                throw new IllegalStateException("No EGL display available");
+            }
+            
+            try (MemoryStack stack = MemoryStack.stackPush()) {
+                IntBuffer major = stack.mallocInt(1);
+                IntBuffer minor = stack.mallocInt(1);
+                if (!EGL10.eglInitialize(display, major, minor)) {
+                    throw new IllegalStateException("Failed to initialize EGL");
+                }
+                EGL.createDisplayCapabilities(display, major.get(0), minor.get(0));
+                
+                IntBuffer configAttribs = stack.ints(
+                    EGL10.EGL_SURFACE_TYPE, EGL10.EGL_PBUFFER_BIT,
+                    EGL12.EGL_RENDERABLE_TYPE, EGL14.EGL_OPENGL_BIT,
+                    EGL10.EGL_RED_SIZE, 8,
+                    EGL10.EGL_GREEN_SIZE, 8,
+                    EGL10.EGL_BLUE_SIZE, 8,
+                    EGL10.EGL_ALPHA_SIZE, 8,
+                    EGL10.EGL_DEPTH_SIZE, 24,
+                    EGL10.EGL_STENCIL_SIZE, 8,
+                    EGL10.EGL_NONE
+                );
+                PointerBuffer configs = stack.mallocPointer(1);
+                IntBuffer configCount = stack.mallocInt(1);
+                if (!EGL10.eglChooseConfig(display, configAttribs, configs, configCount) || configCount.get(0) == 0) {
+                    EGL10.eglTerminate(display);
+                    throw new IllegalStateException("No EGL config with pbuffer and desktop OpenGL support");
+                }
+                long config = configs.get(0);
+                
+                if (!EGL12.eglBindAPI(EGL14.EGL_OPENGL_API)) {
+                    EGL10.eglTerminate(display);
+                    throw new IllegalStateException("EGL implementation doesn't support desktop OpenGL");
+                }
+                
+                surface = EGL10.eglCreatePbufferSurface(display, config,
+                    stack.ints(EGL10.EGL_WIDTH, width, EGL10.EGL_HEIGHT, height, EGL10.EGL_NONE));
+                if (surface == EGL10.EGL_NO_SURFACE) {
+                    EGL10.eglTerminate(display);
+                    throw new IllegalStateException("Failed to create a " + width + "x" + height + " EGL pbuffer");
+                }
+                
+                context = EGL10.eglCreateContext(display, config, EGL10.EGL_NO_CONTEXT, stack.ints(
+                    EGL15.EGL_CONTEXT_MAJOR_VERSION, 3,
+                    EGL15.EGL_CONTEXT_MINOR_VERSION, 3,
+                    EGL15.EGL_CONTEXT_OPENGL_PROFILE_MASK, EGL15.EGL_CONTEXT_OPENGL_CORE_PROFILE_BIT,
+                    EGL10.EGL_NONE
+                ));
+                if (context == EGL10.EGL_NO_CONTEXT) {
+                    EGL10.eglDestroySurface(display, surface);
+                    EGL10.eglTerminate(display);
+                    throw new IllegalStateException("Failed to create an OpenGL 3.3 core EGL context");
+                }
+            }
+            
+            EGL10.eglMakeCurrent(display, surface, surface, context);
+            
+            // GL entry points have to come from eglGetProcAddress, not libGL
+            GL.create(EGL.getFunctionProvider());
+            GL.createCapabilities();
+        }
+        
+        @Override
+        String getApi() {
+            return "egl";
+        }
+        
+        @Override
+        public void close() {
+            GL.setCapabilities(null);
+            EGL10.eglMakeCurrent(display, EGL10.EGL_NO_SURFACE, EGL10.EGL_NO_SURFACE, EGL10.EGL_NO_CONTEXT);
+            EGL10.eglDestroyContext(display, context);
+            EGL10.eglDestroySurface(display, surface);
+            EGL10.eglTerminate(display);
+        }
+    }
+}
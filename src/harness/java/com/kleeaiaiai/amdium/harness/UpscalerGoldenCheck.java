@@ -0,0 +1,185 @@
+package com.kleeaiaiai.amdium.harness;
+
+import com.kleeaiaiai.amdium.fsr.FSRQualityMode;
+import com.kleeaiaiai.amdium.fsr.FSRType;
+import com.kleeaiaiai.amdium.fsr.FrameFiles;
+import com.kleeaiaiai.amdium.fsr.ImageQuality;
+import com.kleeaiaiai.amdium.fsr.ResolutionPlanner;
+import com.kleeaiaiai.amdium.fsr.SoftwareUpscaler;
+import org.lwjgl.system.Configuration;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Runs one fixed frame through SoftwareUpscaler and through FSRProcessor's
+ * two-pass EASU + RCAS path, which SoftwareUpscaler follows, and compares both
+ * against a committed golden image. The CPU path has to match it to within
+ * rounding; the GPU path within a few steps per channel, since its sampling
+ * and transcendentals are only as precise as the driver makes them.
+ *
+ * The golden is the CPU path's output, so on its own the CPU half only
+ * catches SoftwareUpscaler drifting from what it produced when the golden was
+ * stored. The GPU half is what ties the shaders to it; it has not been run
+ * against the committed golden yet, and its bounds are estimates until it has.
+ * --cpu-only skips it, for machines without a GL context. After an intended
+ * change to the upscaler, regenerate the golden with --update and commit it
+ * with the change.
+ *
+ * Arguments: --golden FILE [--context glfw|egl] [--cpu-only] [--update]. Exits with 1 on failure.
+ */
+public final class UpscalerGoldenCheck {
+    private static final int DISPLAY_WIDTH = 128;
+    private static final int DISPLAY_HEIGHT = 72;
+    private static final FSRQualityMode QUALITY_MODE = FSRQualityMode.QUALITY;
+    private static final float SHARPNESS = 0.7f;
+    
+    // Same code on the same JVM; allows for Math's intrinsics differing by an ulp
+    private static final int CPU_MAX_ERROR = 1;
+    // Largest per-channel difference and lowest PSNR the GPU path may show; not yet measured on a GPU
+    private static final int GPU_MAX_ERROR = 12;
+    private static final double GPU_MIN_PSNR = 40.0;
+    
+    private UpscalerGoldenCheck() {
+    }
+    
+    public static void main(String[] args) throws IOException {
+        String contextApi = "glfw";
+        Path golden = null;
+        boolean update = false;
+        boolean cpuOnly = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--context") && i + 1 < args.length) {
+                contextApi = args[++i];
+            } else if (args[i].equals("--golden") && i + 1 < args.length) {
+                golden = Paths.get(args[++i]);
+            } else if (args[i].equals("--update")) {
+                update = true;
+            } else if (args[i].equals("--cpu-only")) {
+                cpuOnly = true;
+            }
+        }
+        if (golden == null) {
+            System.err.println("Usage: UpscalerGoldenCheck --golden FILE [--context glfw|egl] [--cpu-only] [--update]");
+            System.exit(2);
+        }
+        
+        int renderWidth = ResolutionPlanner.renderWidth(DISPLAY_WIDTH, QUALITY_MODE);
+        int renderHeight = ResolutionPlanner.renderHeight(DISPLAY_HEIGHT, QUALITY_MODE);
+        ByteBuffer input = createFrame(renderWidth, renderHeight);
+        
+        ByteBuffer cpu = ByteBuffer.allocateDirect(DISPLAY_WIDTH * DISPLAY_HEIGHT * 4);
+        new SoftwareUpscaler().upscale(input, renderWidth, renderHeight, cpu, DISPLAY_WIDTH, DISPLAY_HEIGHT, SHARPNESS);
+        
+        if (update) {
+            Files.createDirectories(golden.toAbsolutePath().getParent());
+            FrameFiles.writePng(golden, cpu, DISPLAY_WIDTH, DISPLAY_HEIGHT);
+            System.out.println("Stored the CPU output of " + renderWidth + "x" + renderHeight + " -> " +
+                               DISPLAY_WIDTH + "x" + DISPLAY_HEIGHT + " as the new golden in " + golden);
+            return;
+        }
+        
+        ByteBuffer expected = ByteBuffer.allocateDirect(DISPLAY_WIDTH * DISPLAY_HEIGHT * 4);
+        FrameFiles.readPng(golden, expected, DISPLAY_WIDTH, DISPLAY_HEIGHT);
+        
+        boolean failed = !check("CPU", expected, cpu, CPU_MAX_ERROR, Double.POSITIVE_INFINITY);
+        
+        if (cpuOnly) {
+            System.out.println("GPU: skipped, the shaders are not checked against the golden");
+        } else {
+            // The EGL path loads GL entry points through EGL instead of libGL
+            Configuration.OPENGL_EXPLICIT_INIT.set(true);
+            
+            ByteBuffer gpu = ByteBuffer.allocateDirect(DISPLAY_WIDTH * DISPLAY_HEIGHT * 4);
+            try (GpuFrameUpscaler upscaler = new GpuFrameUpscaler(contextApi, FSRType.EASU_RCAS, QUALITY_MODE, SHARPNESS,
+                                                                  DISPLAY_WIDTH, DISPLAY_HEIGHT)) {
+                upscaler.upscale(input, renderWidth, renderHeight, gpu, DISPLAY_WIDTH, DISPLAY_HEIGHT);
+            }
+            failed |= !check("GPU", expected, gpu, GPU_MAX_ERROR, GPU_MIN_PSNR);
+        }
+        
+        if (failed) {
+            System.err.println("Upscaled output drifted from " + golden + "; if the change is intended, rerun with --update");
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * @param minPsnr Infinite to skip the PSNR bound, which max error already covers
+     */
+    private static boolean check(String path, ByteBuffer expected, ByteBuffer actual, int maxError, double minPsnr) {
+        int worst = maxError(expected, actual);
+        ImageQuality.Score score = ImageQuality.compare(expected, actual, DISPLAY_WIDTH, DISPLAY_HEIGHT);
+        System.out.printf("%s: max error %d, %s%n", path, worst, score);
+        
+        boolean ok = true;
+        if (worst > maxError) {
+            System.err.printf("%s: max error %d, allowed %d%n", path, worst, maxError);
+            ok = false;
+        }
+        if (!Double.isInfinite(minPsnr) && score.getPsnr() < minPsnr) {
+            System.err.printf("%s: PSNR %.2f dB, needs %.2f dB%n", path, score.getPsnr(), minPsnr);
+            ok = false;
+        }
+        return ok;
+    }
+    
+    /**
+     * @return Largest difference in any color channel; alpha is left out, the default framebuffer may not have it
+     */
+    private static int maxError(ByteBuffer expected, ByteBuffer actual) {
+        int worst = 0;
+        for (int i = 0; i < DISPLAY_WIDTH * DISPLAY_HEIGHT * 4; i += 4) {
+            for (int c = 0; c < 3; c++) {
+                worst = Math.max(worst, Math.abs((expected.get(i + c) & 0xFF) - (actual.get(i + c) & 0xFF)));
+            }
+        }
+        return worst;
+    }
+    
+    /**
+     * Something for every branch of EASU and RCAS: a smooth gradient, a hard
+     * diagonal edge, one-pixel lines, a checkerboard of Minecraft-sized blocks
+     * and a flat patch. Built from integers only, so it is the same everywhere.
+     */
+    private static ByteBuffer createFrame(int width, int height) {
+        ByteBuffer pixels = ByteBuffer.allocateDirect(width * height * 4);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int r;
+                int g;
+                int b;
+                if (x < width / 2 && y < height / 2) {
+                    r = x * 255 / (width / 2);
+                    g = y * 255 / (height / 2);
+                    b = 96;
+                } else if (x >= width / 2 && y < height / 2) {
+                    boolean above = (x - width / 2) * 2 > y * 3;
+                    r = above ? 230 : 30;
+                    g = above ? 200 : 60;
+                    b = above ? 40 : 160;
+                } else if (x < width / 2) {
+                    boolean line = x % 7 == 0 || y % 5 == 0;
+                    r = line ? 250 : 20;
+                    g = line ? 250 : 20;
+                    b = line ? 250 : 20;
+                } else {
+                    boolean flat = x >= width * 3 / 4 && y >= height * 3 / 4;
+                    boolean dark = ((x / 4) + (y / 4)) % 2 == 0;
+                    r = flat ? 128 : dark ? 70 : 140;
+                    g = flat ? 128 : dark ? 110 : 200;
+                    b = flat ? 128 : dark ? 40 : 90;
+                }
+                int i = (y * width + x) * 4;
+                pixels.put(i, (byte) r);
+                pixels.put(i + 1, (byte) g);
+                pixels.put(i + 2, (byte) b);
+                pixels.put(i + 3, (byte) 255);
+            }
+        }
+        return pixels;
+    }
+}
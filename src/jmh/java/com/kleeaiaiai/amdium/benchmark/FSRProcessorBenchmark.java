@@ -0,0 +1,73 @@
+package com.kleeaiaiai.amdium.benchmark;
+
+import com.kleeaiaiai.amdium.config.AMDiumConfig;
+import com.kleeaiaiai.amdium.fsr.FSRProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * CPU cost of the FSR processor per frame, with the GPU taken out of the picture
+ */
+@State(Scope.Thread)
+public class FSRProcessorBenchmark {
+    // Any non-zero name works as the source, the backends don't check it
+    private static final int SOURCE_FRAMEBUFFER = 1;
+    
+    @Param({"noop", "recording"})
+    public String backend;
+    
+    @Param({"1920x1080", "3840x2160"})
+    public String display;
+    
+    private FSRProcessor processor;
+    private int displayWidth;
+    private int displayHeight;
+    private boolean resizeToggle = false;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        String[] size = display.split("x");
+        displayWidth = Integer.parseInt(size[0]);
+        displayHeight = Integer.parseInt(size[1]);
+        
+        processor = new FSRProcessor(new AMDiumConfig(), GpuBackends.create(backend));
+        processor.initialize(displayWidth, displayHeight);
+        processor.resizeBuffers(displayWidth, displayHeight);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        processor.cleanup();
+    }
+    
+    @Benchmark
+    public void processFrame() {
+        processor.processFrame(SOURCE_FRAMEBUFFER, 0L);
+    }
+    
+    /**
+     * The common case: called every frame, nothing changed
+     */
+    @Benchmark
+    public void resizeBuffersUnchanged() {
+        processor.resizeBuffers(displayWidth, displayHeight);
+    }
+    
+    /**
+     * A real resize every call, alternating between two window sizes
+     */
+    @Benchmark
+    public void resizeBuffersChanged() {
+        resizeToggle = !resizeToggle;
+        if (resizeToggle) {
+            processor.resizeBuffers(displayWidth / 2, displayHeight / 2);
+        } else {
+            processor.resizeBuffers(displayWidth, displayHeight);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.kleeaiaiai.amdium.benchmark;
+
+import com.kleeaiaiai.amdium.config.AMDiumConfig;
+import com.kleeaiaiai.amdium.fsr.FSRFrameHooks;
+import com.kleeaiaiai.amdium.fsr.FSRProcessor;
+import com.kleeaiaiai.amdium.fsr.FSRQualityMode;
+import com.kleeaiaiai.amdium.fsr.FSRType;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Runs thousands of simulated frames through the same hooks GameRendererMixin
+ * calls and fails if the steady-state frame allocates anything. Run with
+ * ./gradlew checkFrameAllocations.
+ */
+public final class FrameAllocationCheck {
+    private static final int SOURCE_FRAMEBUFFER = 1;
+    private static final int DISPLAY_WIDTH = 1920;
+    private static final int DISPLAY_HEIGHT = 1080;
+    private static final float FAR_PLANE = 1024.0f;
+    private static final int WARMUP_FRAMES = 20000;
+    private static final int MEASURED_FRAMES = 10000;
+    // Best of several rounds, so a one-off recompilation after the backend switch isn't counted
+    private static final int ROUNDS = 3;
+    
+    private FrameAllocationCheck() {
+    }
+    
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.err.println("Thread allocation accounting isn't supported by this JVM");
+            System.exit(2);
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        
+        boolean failed = false;
+        for (String backend : new String[] {"noop", "recording"}) {
+            for (FSRType fsrType : FSRType.values()) {
+                long bytes = measure(threads, backend, fsrType);
+                System.out.printf("%-10s %-13s %d bytes over %d frames (%.3f bytes/frame)%n",
+                                  backend, fsrType.name(), bytes, MEASURED_FRAMES, (double) bytes / MEASURED_FRAMES);
+                if (bytes > 0) {
+                    failed = true;
+                }
+            }
+        }
+        
+        if (failed) {
+            System.err.println("The per-frame path allocates");
+            System.exit(1);
+        }
+    }
+    
+    private static long measure(com.sun.management.ThreadMXBean threads, String backend, FSRType fsrType) {
+        AMDiumConfig config = new AMDiumConfig();
+        config.setFsrType(fsrType);
+        // Both off by default, but their per-frame paths have to stay allocation-free too
+        config.setSkyEarlyOut(true);
+        config.setDepthGuidedEdges(true);
+        FSRQualityMode qualityMode = config.getQualityMode();
+        FSRProcessor processor = new FSRProcessor(config, GpuBackends.create(backend));
+        processor.initialize(DISPLAY_WIDTH, DISPLAY_HEIGHT);
+        FSRFrameHooks frameHooks = new FSRFrameHooks();
+        
+        try {
+            long frameTime = 1000L;
+            
+            // Settle the initial resize and let the JIT compile the frame path
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                frameTime += 16;
+                frameHooks.beginFrame(processor, qualityMode, DISPLAY_WIDTH, DISPLAY_HEIGHT, frameTime);
+                processor.captureSceneDepth(SOURCE_FRAMEBUFFER, FAR_PLANE);
+                frameHooks.endFrame(processor, SOURCE_FRAMEBUFFER, frameTime);
+            }
+            
+            long threadId = Thread.currentThread().getId();
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long before = threads.getThreadAllocatedBytes(threadId);
+                for (int i = 0; i < MEASURED_FRAMES; i++) {
+                    frameTime += 16;
+                    frameHooks.beginFrame(processor, qualityMode, DISPLAY_WIDTH, DISPLAY_HEIGHT, frameTime);
+                    processor.captureSceneDepth(SOURCE_FRAMEBUFFER, FAR_PLANE);
+                    frameHooks.endFrame(processor, SOURCE_FRAMEBUFFER, frameTime);
+                }
+                long after = threads.getThreadAllocatedBytes(threadId);
+                
+                // Subtract what the measurement call itself allocates
+                long overhead = threads.getThreadAllocatedBytes(threadId) - after;
+                best = Math.min(best, Math.max(0, after - before - overhead));
+            }
+            return best;
+        } finally {
+            processor.cleanup();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.kleeaiaiai.amdium.benchmark;
+
+import com.kleeaiaiai.amdium.config.AMDiumConfig;
+import com.kleeaiaiai.amdium.fsr.FSRFrameHooks;
+import com.kleeaiaiai.amdium.fsr.FSRProcessor;
+import com.kleeaiaiai.amdium.fsr.FSRQualityMode;
+import com.kleeaiaiai.amdium.fsr.FSRType;
+import com.kleeaiaiai.amdium.fsr.NoOpGpuBackend;
+import com.kleeaiaiai.amdium.fsr.RecordingGpuBackend;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Drives the same hooks GameRendererMixin calls through a RecordingGpuBackend
+ * and checks the recorded command stream: a steady frame never waits for the
+ * GPU, and a resize frees and reallocates every target exactly once, without
+ * touching anything else. Run with ./gradlew checkFrameCommands.
+ */
+public final class FrameCommandCheck {
+    private static final int SOURCE_FRAMEBUFFER = 1;
+    private static final int DISPLAY_WIDTH = 1920;
+    private static final int DISPLAY_HEIGHT = 1080;
+    private static final int RESIZED_WIDTH = 2560;
+    private static final int RESIZED_HEIGHT = 1440;
+    private static final float FAR_PLANE = 1024.0f;
+    // Past FSRFrameHooks' resize throttle
+    private static final long FRAME_INTERVAL_MS = 1000;
+    
+    private FrameCommandCheck() {
+    }
+    
+    public static void main(String[] args) {
+        boolean failed = false;
+        for (FSRType fsrType : FSRType.values()) {
+            failed |= !check(fsrType);
+        }
+        
+        if (failed) {
+            System.err.println("The recorded command stream changed");
+            System.exit(1);
+        }
+    }
+    
+    private static boolean check(FSRType fsrType) {
+        AMDiumConfig config = new AMDiumConfig();
+        config.setFsrType(fsrType);
+        config.setSkyEarlyOut(true);
+        config.setDepthGuidedEdges(true);
+        FSRQualityMode qualityMode = config.getQualityMode();
+        
+        TrackingGpuBackend objects = new TrackingGpuBackend();
+        RecordingGpuBackend gpu = new RecordingGpuBackend(objects);
+        FSRProcessor processor = new FSRProcessor(config, gpu);
+        processor.initialize(DISPLAY_WIDTH, DISPLAY_HEIGHT);
+        FSRFrameHooks frameHooks = new FSRFrameHooks();
+        
+        boolean ok = true;
+        try {
+            long frameTime = 1000L;
+            
+            // Steady frames: nothing waits for the GPU or touches a resource
+            for (int i = 0; i < 3; i++) {
+                frameTime += FRAME_INTERVAL_MS;
+                frame(frameHooks, processor, qualityMode, DISPLAY_WIDTH, DISPLAY_HEIGHT, frameTime);
+            }
+            ok &= expect(fsrType, "steady frame waits for the GPU", gpu.getLastFrameCount(RecordingGpuBackend.Category.SYNC), 0);
+            ok &= expect(fsrType, "steady frame finishes", count(gpu, "finish"), 0);
+            ok &= expect(fsrType, "steady frame resource commands", gpu.getLastFrameCount(RecordingGpuBackend.Category.RESOURCE), 0);
+            
+            // Resize out and back; both directions must look the same
+            int livingObjects = objects.livingObjects();
+            int[] previous = null;
+            int[][] sizes = {{RESIZED_WIDTH, RESIZED_HEIGHT}, {DISPLAY_WIDTH, DISPLAY_HEIGHT}};
+            for (int[] size : sizes) {
+                String label = "resize to " + size[0] + "x" + size[1];
+                frameHooks.onResized(size[0], size[1]);
+                frameTime += FRAME_INTERVAL_MS;
+                frame(frameHooks, processor, qualityMode, size[0], size[1], frameTime);
+                
+                int[] resize = {
+                    count(gpu, "genTexture"), count(gpu, "deleteTexture"), count(gpu, "texImage2D"),
+                    count(gpu, "genFramebuffer"), count(gpu, "deleteFramebuffer"),
+                    count(gpu, "genRenderbuffer"), count(gpu, "deleteRenderbuffer"), count(gpu, "renderbufferStorage")
+                };
+                System.out.printf("%-13s %s: %d textures, %d framebuffers, %d renderbuffers reallocated%n",
+                                  fsrType.name(), label, resize[0], resize[3], resize[5]);
+                
+                ok &= expectPositive(fsrType, label + " texture allocations", resize[0]);
+                ok &= expect(fsrType, label + " textures freed", resize[1], resize[0]);
+                ok &= expect(fsrType, label + " texture storage allocations", resize[2], resize[0]);
+                ok &= expectPositive(fsrType, label + " framebuffer allocations", resize[3]);
+                ok &= expect(fsrType, label + " framebuffers freed", resize[4], resize[3]);
+                ok &= expect(fsrType, label + " renderbuffers freed", resize[6], resize[5]);
+                ok &= expect(fsrType, label + " renderbuffer storage allocations", resize[7], resize[5]);
+                ok &= expect(fsrType, label + " finishes", count(gpu, "finish"), 0);
+                ok &= expect(fsrType, label + " live GL objects", objects.livingObjects(), livingObjects);
+                ok &= expect(fsrType, label + " deletes of unknown objects", objects.takeStrayDeletes(), 0);
+                if (previous != null) {
+                    for (int i = 0; i < resize.length; i++) {
+                        ok &= expect(fsrType, label + " commands matching the first resize", resize[i], previous[i]);
+                    }
+                }
+                previous = resize;
+                
+                // The frame after a resize is a steady frame again
+                frameTime += FRAME_INTERVAL_MS;
+                frame(frameHooks, processor, qualityMode, size[0], size[1], frameTime);
+                ok &= expect(fsrType, "frame after the " + label + " resource commands",
+                             gpu.getLastFrameCount(RecordingGpuBackend.Category.RESOURCE), 0);
+            }
+        } finally {
+            processor.cleanup();
+        }
+        
+        if (ok) {
+            System.out.printf("%-13s ok%n", fsrType.name());
+        }
+        return ok;
+    }
+    
+    private static void frame(FSRFrameHooks frameHooks, FSRProcessor processor, FSRQualityMode qualityMode,
+                              int width, int height, long frameTime) {
+        frameHooks.beginFrame(processor, qualityMode, width, height, frameTime);
+        processor.captureSceneDepth(SOURCE_FRAMEBUFFER, FAR_PLANE);
+        frameHooks.endFrame(processor, SOURCE_FRAMEBUFFER, frameTime);
+    }
+    
+    private static int count(RecordingGpuBackend gpu, String command) {
+        int count = 0;
+        for (String recorded : gpu.getLastFrameCommands()) {
+            if (recorded.equals(command)) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private static boolean expect(FSRType fsrType, String what, int actual, int expected) {
+        if (actual == expected) return true;
+        System.err.printf("%-13s %s: %d, expected %d%n", fsrType.name(), what, actual, expected);
+        return false;
+    }
+    
+    private static boolean expectPositive(FSRType fsrType, String what, int actual) {
+        if (actual > 0) return true;
+        System.err.printf("%-13s %s: none%n", fsrType.name(), what);
+        return false;
+    }
+    
+    /**
+     * Hands out names per object kind the way GL does, so a texture and a
+     * framebuffer can share a number, and keeps track of which are alive.
+     * Starts with a few framebuffers of the game's, which nothing may delete.
+     */
+    private static final class TrackingGpuBackend extends NoOpGpuBackend {
+        private static final int GAME_FRAMEBUFFERS = 16;
+        
+        private final Set<Integer> textures = new HashSet<>();
+        private final Set<Integer> framebuffers = new HashSet<>();
+        private final Set<Integer> renderbuffers = new HashSet<>();
+        private int nextTexture = 1;
+        private int nextFramebuffer = 1;
+        private int nextRenderbuffer = 1;
+        private int strayDeletes = 0;
+        
+        TrackingGpuBackend() {
+            for (int i = 0; i < GAME_FRAMEBUFFERS; i++) {
+                genFramebuffer();
+            }
+        }
+        
+        int livingObjects() {
+            return textures.size() + framebuffers.size() + renderbuffers.size();
+        }
+        
+        /**
+         * @return Deletes of names that weren't alive since the last call
+         */
+        int takeStrayDeletes() {
+            int stray = strayDeletes;
+            strayDeletes = 0;
+            return stray;
+        }
+        
+        @Override
+        public int genTexture() {
+            textures.add(nextTexture);
+            return nextTexture++;
+        }
+        
+        @Override
+        public void deleteTexture(int texture) {
+            if (!textures.remove(texture)) {
+                strayDeletes++;
+            }
+        }
+        
+        @Override
+        public boolean isTexture(int texture) {
+            return textures.contains(texture);
+        }
+        
+        @Override
+        public int genFramebuffer() {
+            framebuffers.add(nextFramebuffer);
+            return nextFramebuffer++;
+        }
+        
+        @Override
+        public void deleteFramebuffer(int framebuffer) {
+            if (!framebuffers.remove(framebuffer)) {
+                strayDeletes++;
+            }
+        }
+        
+        @Override
+        public boolean isFramebuffer(int framebuffer) {
+            return framebuffers.contains(framebuffer);
+        }
+        
+        @Override
+        public int genRenderbuffer() {
+            renderbuffers.add(nextRenderbuffer);
+            return nextRenderbuffer++;
+        }
+        
+        @Override
+        public void deleteRenderbuffer(int renderbuffer) {
+            if (!renderbuffers.remove(renderbuffer)) {
+                strayDeletes++;
+            }
+        }
+        
+        @Override
+        public boolean isRenderbuffer(int renderbuffer) {
+            return renderbuffers.contains(renderbuffer);
+        }
+    }
+}
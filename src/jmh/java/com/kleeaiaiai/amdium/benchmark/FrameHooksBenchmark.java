@@ -0,0 +1,63 @@
+package com.kleeaiaiai.amdium.benchmark;
+
+import com.kleeaiaiai.amdium.config.AMDiumConfig;
+import com.kleeaiaiai.amdium.fsr.FSRFrameHooks;
+import com.kleeaiaiai.amdium.fsr.FSRProcessor;
+import com.kleeaiaiai.amdium.fsr.FSRQualityMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * One full frame as the mixins drive it: the render HEAD hook, the depth capture
+ * after the world pass and the RETURN hook
+ */
+@State(Scope.Thread)
+public class FrameHooksBenchmark {
+    private static final int SOURCE_FRAMEBUFFER = 1;
+    private static final int DISPLAY_WIDTH = 1920;
+    private static final int DISPLAY_HEIGHT = 1080;
+    private static final float FAR_PLANE = 1024.0f;
+    
+    @Param({"noop", "recording"})
+    public String backend;
+    
+    private FSRProcessor processor;
+    private FSRFrameHooks frameHooks;
+    private FSRQualityMode qualityMode;
+    private long frameTime = 0;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        AMDiumConfig config = new AMDiumConfig();
+        config.setSkyEarlyOut(true);
+        qualityMode = config.getQualityMode();
+        
+        processor = new FSRProcessor(config, GpuBackends.create(backend));
+        processor.initialize(DISPLAY_WIDTH, DISPLAY_HEIGHT);
+        frameHooks = new FSRFrameHooks();
+        
+        // Settle the initial resize so the measured frames are steady-state
+        frameHooks.beginFrame(processor, qualityMode, DISPLAY_WIDTH, DISPLAY_HEIGHT, 1000L);
+        processor.captureSceneDepth(SOURCE_FRAMEBUFFER, FAR_PLANE);
+        frameHooks.endFrame(processor, SOURCE_FRAMEBUFFER, 1000L);
+        frameTime = 1000L;
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        processor.cleanup();
+    }
+    
+    @Benchmark
+    public void frame() {
+        frameTime += 16;
+        frameHooks.beginFrame(processor, qualityMode, DISPLAY_WIDTH, DISPLAY_HEIGHT, frameTime);
+        processor.captureSceneDepth(SOURCE_FRAMEBUFFER, FAR_PLANE);
+        frameHooks.endFrame(processor, SOURCE_FRAMEBUFFER, frameTime);
+    }
+}
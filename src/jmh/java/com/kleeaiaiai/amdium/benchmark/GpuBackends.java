@@ -0,0 +1,21 @@
+package com.kleeaiaiai.amdium.benchmark;
+
+import com.kleeaiaiai.amdium.fsr.GpuBackend;
+import com.kleeaiaiai.amdium.fsr.NoOpGpuBackend;
+import com.kleeaiaiai.amdium.fsr.RecordingGpuBackend;
+
+/**
+ * Maps the "backend" benchmark parameter to a GPU-less backend
+ */
+final class GpuBackends {
+    private GpuBackends() {
+    }
+    
+    static GpuBackend create(String name) {
+        switch (name) {
+            case "noop": return new NoOpGpuBackend();
+            case "recording": return new RecordingGpuBackend();
+            default: throw new IllegalArgumentException("Unknown backend: " + name);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.kleeaiaiai.amdium.benchmark;
+
+import com.kleeaiaiai.amdium.fsr.FSRQualityMode;
+import com.kleeaiaiai.amdium.fsr.SoftwareUpscaler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Time for one EASU + RCAS frame on the CPU, with the common pool's full parallelism
+ */
+@State(Scope.Thread)
+public class SoftwareUpscalerBenchmark {
+    @Param({"1920x1080", "3840x2160"})
+    public String display;
+    
+    @Param({"QUALITY", "PERFORMANCE"})
+    public String qualityMode;
+    
+    private final SoftwareUpscaler upscaler = new SoftwareUpscaler();
+    private ByteBuffer source;
+    private ByteBuffer target;
+    private int renderWidth;
+    private int renderHeight;
+    private int displayWidth;
+    private int displayHeight;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        String[] size = display.split("x");
+        displayWidth = Integer.parseInt(size[0]);
+        displayHeight = Integer.parseInt(size[1]);
+        FSRQualityMode mode = FSRQualityMode.valueOf(qualityMode);
+        renderWidth = mode.calculateRenderWidth(displayWidth);
+        renderHeight = mode.calculateRenderHeight(displayHeight);
+        
+        // Blocks with hard edges and a gradient, roughly what EASU sees in game
+        source = ByteBuffer.allocateDirect(renderWidth * renderHeight * 4).order(ByteOrder.nativeOrder());
+        for (int y = 0; y < renderHeight; y++) {
+            for (int x = 0; x < renderWidth; x++) {
+                boolean checker = ((x / 16) + (y / 16)) % 2 == 0;
+                source.put((byte) (checker ? 200 : 50)).put((byte) (y * 255 / renderHeight))
+                      .put((byte) (x * 255 / renderWidth)).put((byte) 255);
+            }
+        }
+        source.flip();
+        target = ByteBuffer.allocateDirect(displayWidth * displayHeight * 4).order(ByteOrder.nativeOrder());
+    }
+    
+    @Benchmark
+    public ByteBuffer upscale() {
+        upscaler.upscale(source, renderWidth, renderHeight, target, displayWidth, displayHeight, 0.5f);
+        return target;
+    }
+}
@@ -2,28 +2,40 @@ package com.kleeaiaiai.amdium;
 
 import com.kleeaiaiai.amdium.config.AMDiumConfig;
 import com.kleeaiaiai.amdium.config.AMDiumOptionsScreen;
+import com.kleeaiaiai.amdium.fsr.FSRAutoTuner;
+import com.kleeaiaiai.amdium.fsr.FSRDiagnostics;
 import com.kleeaiaiai.amdium.fsr.FSRProcessor;
-import com.kleeaiaiai.amdium.fsr.FSRType;
+import com.kleeaiaiai.amdium.fsr.GLDebugMonitor;
+import com.kleeaiaiai.amdium.fsr.GpuBackend;
+import com.kleeaiaiai.amdium.fsr.LwjglGpuBackend;
+import com.kleeaiaiai.amdium.fsr.QualityReport;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
+import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.option.KeyBinding;
 import net.minecraft.client.util.InputUtil;
+import net.minecraft.client.util.ScreenshotRecorder;
 import org.lwjgl.glfw.GLFW;
-import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL20;
 import org.lwjgl.opengl.GL30;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
 public class AMDium implements ClientModInitializer {
     public static final String MOD_ID = "amdium";
     public static final Logger LOGGER = LoggerFactory.getLogger(MOD_ID);
     
     private static AMDium INSTANCE;
+    private final GpuBackend gpu = LwjglGpuBackend.INSTANCE;
     private FSRProcessor fsrProcessor;
+    private GLDebugMonitor debugMonitor;
+    private FSRAutoTuner autoTuner;
     private AMDiumConfig config;
     private KeyBinding toggleFSRKey;
     private KeyBinding openOptionsKey;
@@ -35,6 +47,14 @@ public class AMDium implements ClientModInitializer {
     private boolean hasError = false;
     private int errorCount = 0;
     private static final int MAX_ERROR_COUNT = 3; 
+    private static final String DIAGNOSTICS_FILE = "amdium-diagnostics.log";
+    private static final String TUNING_FILE = "amdium-tuning.json";
+    private static final String TIMELAPSE_DIRECTORY = "timelapse";
+    private static final DateTimeFormatter TIMELAPSE_NAME = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH.mm.ss");
+    // Where the current time-lapse goes, null while none is running
+    private Path timelapseDirectory;
+    private int timelapseFrame = 0;
+    private long nextTimelapseCapture = 0;
     
     @Override
     public void onInitializeClient() {
@@ -43,16 +63,18 @@ public class AMDium implements ClientModInitializer {
         
         config = new AMDiumConfig();
         config.load();
+        autoTuner = new FSRAutoTuner(FabricLoader.getInstance().getConfigDir().resolve(TUNING_FILE));
         
-        config.setFsrType(FSRType.FSR_1);
         if (!config.isEnabled()) {
             config.setEnabled(true);
             config.save();
-            LOGGER.info("Auto-activated FSR 1.0 at startup");
+            LOGGER.info("Auto-activated FSR at startup");
         }
         
         registerKeybindings();
         
+        ClientTickEvents.END_CLIENT_TICK.register(this::captureTimelapse);
+        
         ClientLifecycleEvents.CLIENT_STARTED.register(client -> {
             client.execute(() -> {
                 try {
@@ -65,6 +87,13 @@ public class AMDium implements ClientModInitializer {
         
         ClientLifecycleEvents.CLIENT_STOPPING.register(client -> {
             cleanupFSR();
+            if (debugMonitor != null) {
+                debugMonitor.close();
+                debugMonitor = null;
+            }
+            
+            // Saves are written in the background; don't lose the last one on exit
+            AMDiumConfig.flush();
         });
     }
     
@@ -80,10 +109,16 @@ public class AMDium implements ClientModInitializer {
                 cleanupFSR();
                 
                 // Wait for any pending OpenGL operations
-                GL11.glFinish();
+                gpu.finish();
+                
+                installDebugMonitor();
                 
                 // Create and initialize the FSR processor
-                fsrProcessor = new FSRProcessor();
+                fsrProcessor = new FSRProcessor(config, gpu);
+                fsrProcessor.setErrorHandler(this::reportError);
+                fsrProcessor.setDebugMonitor(debugMonitor);
+                fsrProcessor.setAutoTuner(autoTuner);
+                fsrProcessor.setQualityReportHandler(this::showQualityReport);
                 fsrProcessor.initialize();
                 
                 // Test with current framebuffer
@@ -100,6 +135,15 @@ public class AMDium implements ClientModInitializer {
         }
     }
     
+    /**
+     * Hook the driver's debug output once per context. With Minecraft's own GL
+     * debug logging (glDebugVerbosity) on, the monitor chains to its callback.
+     */
+    private void installDebugMonitor() {
+        if (debugMonitor != null) return;
+        debugMonitor = GLDebugMonitor.install(config.isGlDebugSync());
+    }
+    
     private void testFSRProcessor() {
         MinecraftClient client = MinecraftClient.getInstance();
         if (client == null || client.getFramebuffer() == null || client.getFramebuffer().fbo <= 0) {
@@ -108,13 +152,13 @@ public class AMDium implements ClientModInitializer {
         
         try {
             // Wait for any pending operations
-            GL11.glFinish();
+            gpu.finish();
             
             // Process a test frame
             fsrProcessor.processFrame(client.getFramebuffer().fbo, System.currentTimeMillis());
             
             // Ensure it completes
-            GL11.glFinish();
+            gpu.finish();
             
             LOGGER.info("FSR test frame processed successfully");
         } catch (Exception e) {
@@ -122,7 +166,7 @@ public class AMDium implements ClientModInitializer {
             throw e;
         } finally {
             // Always reset to default framebuffer
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
         }
     }
     
@@ -136,7 +180,7 @@ public class AMDium implements ClientModInitializer {
             
             if (fsrProcessor != null) {
                 // Wait for pending operations
-                GL11.glFinish();
+                gpu.finish();
                 
                 // Cleanup processor
                 fsrProcessor.cleanup();
@@ -146,30 +190,30 @@ public class AMDium implements ClientModInitializer {
                 LOGGER.info("FSR processor cleaned up");
             }
             
-            // Clean up static resources
-            FSRProcessor.cleanupQuad();
-            
             // Reset OpenGL state
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
-            GL20.glUseProgram(0);
-            GL11.glFinish();
+            gpu.bindTexture(0);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+            gpu.useProgram(0);
+            gpu.finish();
             
         } catch (Exception e) {
             LOGGER.error("Error cleaning up FSR processor", e);
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
         }
     }
     
     private void handleError() {
         errorCount++;
         
+        if (fsrProcessor != null) {
+            fsrProcessor.getDiagnostics().flush(System.currentTimeMillis());
+        }
+        
         try {
-            // Reset OpenGL state
-            GL11.glFinish();
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
-            GL20.glUseProgram(0);
+            // Reset OpenGL state; errors come from the debug callback, so there's nothing to flush
+            gpu.bindTexture(0);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+            gpu.useProgram(0);
             
             if (errorCount >= MAX_ERROR_COUNT) {
                 hasError = true;
@@ -177,6 +221,12 @@ public class AMDium implements ClientModInitializer {
                 config.save();
                 
                 LOGGER.error("Disabling FSR due to too many errors");
+                
+                // Keep a record of what led up to this before the processor goes away
+                if (fsrProcessor != null) {
+                    FSRDiagnostics diagnostics = fsrProcessor.getDiagnostics();
+                    diagnostics.dump(FabricLoader.getInstance().getGameDir().resolve("logs").resolve(DIAGNOSTICS_FILE).toFile());
+                }
                 cleanupFSR();
                 
                 MinecraftClient client = MinecraftClient.getInstance();
@@ -190,10 +240,61 @@ public class AMDium implements ClientModInitializer {
             LOGGER.error("Error in error handler", e);
         } finally {
             // Always ensure we're back to default framebuffer
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
         }
     }
     
+    /**
+     * Tell the player which quality mode the calibration picked
+     */
+    private void showQualityReport(QualityReport report) {
+        MinecraftClient client = MinecraftClient.getInstance();
+        if (client == null || client.inGameHud == null) return;
+        
+        QualityReport.Entry recommended = report.recommend(config.getQualityThreshold());
+        String message;
+        if (recommended == null) {
+            message = String.format("§e[AMDium] No quality mode reaches SSIM %.2f here; keeping %s.",
+                                    config.getQualityThreshold(), config.getQualityMode().getDisplayName());
+        } else if (config.isAutoSelectQuality()) {
+            message = "§a[AMDium] Using " + recommended.getMode().getDisplayName() + " (" + recommended.getScore() + ").";
+        } else {
+            message = "§a[AMDium] Recommended quality mode: " + recommended.getMode().getDisplayName() +
+                      " (" + recommended.getScore() + ").";
+        }
+        client.inGameHud.getChatHud().addMessage(net.minecraft.text.Text.literal(message));
+    }
+    
+    /**
+     * Take a time-lapse frame every configured interval while in a world. Each
+     * session gets its own directory; leaving the world or turning it off ends it.
+     */
+    private void captureTimelapse(MinecraftClient client) {
+        int interval = config.getTimelapseInterval();
+        if (interval <= 0 || client.world == null || fsrProcessor == null || !isFSREnabled()) {
+            timelapseDirectory = null;
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        if (timelapseDirectory == null) {
+            timelapseDirectory = client.runDirectory.toPath().resolve(ScreenshotRecorder.SCREENSHOTS_DIRECTORY)
+                .resolve(TIMELAPSE_DIRECTORY).resolve(LocalDateTime.now().format(TIMELAPSE_NAME));
+            timelapseFrame = 0;
+            nextTimelapseCapture = now;
+            LOGGER.info("Recording a time-lapse to " + timelapseDirectory);
+        }
+        if (now < nextTimelapseCapture) return;
+        
+        nextTimelapseCapture = now + interval * 1000L;
+        Path file = timelapseDirectory.resolve(String.format("frame_%05d.png", timelapseFrame++));
+        fsrProcessor.requestCapture(file, (path, error) -> {
+            if (error != null) {
+                LOGGER.warn("Failed to save time-lapse frame " + path, error);
+            }
+        });
+    }
+    
     private void registerKeybindings() {
         toggleFSRKey = KeyBindingHelper.registerKeyBinding(new KeyBinding(
                 "key.amdium.toggle",
@@ -214,6 +315,10 @@ public class AMDium implements ClientModInitializer {
         return INSTANCE;
     }
     
+    public GpuBackend getGpuBackend() {
+        return gpu;
+    }
+    
     public FSRProcessor getFSRProcessor() {
         return fsrProcessor;
     }
@@ -243,6 +348,39 @@ public class AMDium implements ClientModInitializer {
         }
     }
     
+    /**
+     * Apply changed settings from the options screens. A running processor only
+     * redoes what changed; a full restart is left for when there's nothing to update.
+     */
+    public void applySettings() {
+        if (!MinecraftClient.getInstance().isOnThread()) {
+            LOGGER.warn("Attempting to apply FSR settings from non-main thread, deferring");
+            return;
+        }
+        
+        // The debug output mode is fixed when the callback is installed
+        if (debugMonitor != null && debugMonitor.isSynchronous() != config.isGlDebugSync()) {
+            debugMonitor.close();
+            debugMonitor = null;
+            installDebugMonitor();
+            if (fsrProcessor != null) {
+                fsrProcessor.setDebugMonitor(debugMonitor);
+            }
+        }
+        
+        if (fsrProcessor == null || hasError) {
+            restartFSRProcessor();
+            return;
+        }
+        
+        try {
+            fsrProcessor.applyConfigChanges();
+        } catch (Exception e) {
+            LOGGER.error("Failed to apply FSR settings", e);
+            handleError();
+        }
+    }
+    
     public void restartFSRProcessor() {
         try {
             if (!MinecraftClient.getInstance().isOnThread()) {
@@ -256,12 +394,12 @@ public class AMDium implements ClientModInitializer {
             cleanupFSR();
             
             // Wait for OpenGL to finish
-            GL11.glFinish();
+            gpu.finish();
             
             // Reset OpenGL state
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
-            GL20.glUseProgram(0);
+            gpu.bindTexture(0);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+            gpu.useProgram(0);
             
             // Initialize new processor
             initializeFSR();
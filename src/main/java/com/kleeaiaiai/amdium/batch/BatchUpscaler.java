@@ -0,0 +1,171 @@
+package com.kleeaiaiai.amdium.batch;
+
+import com.kleeaiaiai.amdium.fsr.FSRQualityMode;
+import com.kleeaiaiai.amdium.fsr.FrameFiles;
+import com.kleeaiaiai.amdium.fsr.ResolutionPlanner;
+import com.kleeaiaiai.amdium.fsr.SoftwareUpscaler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Upscales a directory of captured frames with the mod's EASU + RCAS, outside
+ * the game: java -jar amdium.jar --input DIR --output DIR
+ *
+ * Frames are PNGs, or raw RGBA8 (.rgba, bottom row first, as glReadPixels
+ * returns them) when --raw-size is given. The output size is the display size
+ * the quality mode would render the input at in game. This entry point only
+ * needs the JDK and runs on the CPU; the harness source set runs the same
+ * pipeline through FSRProcessor on an offscreen context (./gradlew upscaleFrames).
+ *
+ * Arguments:
+ *   --input DIR          frames to upscale, processed in file name order
+ *   --output DIR         where the upscaled frames go, same file names
+ *   --quality MODE       FSRQualityMode name, default QUALITY
+ *   --sharpness S        0 to 1, default 0.7 (the config default)
+ *   --raw-size WxH       read .rgba frames of this size instead of PNGs
+ *   --format png|raw     output format, default the input's
+ *   --threads N          decode/encode threads, default one per core
+ *   --in-flight N        frames held in memory at once, default twice the threads
+ */
+public final class BatchUpscaler {
+    private static final float DEFAULT_SHARPNESS = 0.7f;
+    
+    /**
+     * What a run was asked to do, once the first frame's size is known
+     */
+    static final class Settings {
+        FSRQualityMode qualityMode = FSRQualityMode.QUALITY;
+        float sharpness = DEFAULT_SHARPNESS;
+        int sourceWidth;
+        int sourceHeight;
+        int targetWidth;
+        int targetHeight;
+    }
+    
+    private BatchUpscaler() {
+    }
+    
+    public static void main(String[] args) {
+        System.exit(run(args, (qualityMode, sharpness, displayWidth, displayHeight) -> {
+            SoftwareUpscaler software = new SoftwareUpscaler();
+            return (source, sourceWidth, sourceHeight, target, targetWidth, targetHeight) ->
+                software.upscale(source, sourceWidth, sourceHeight, target, targetWidth, targetHeight, sharpness);
+        }));
+    }
+    
+    /**
+     * Parse the arguments and upscale every frame with upscalers from the factory
+     * @return Process exit code
+     */
+    public static int run(String[] args, FrameUpscaler.Factory factory) {
+        Path inputDir = null;
+        Path outputDir = null;
+        Settings settings = new Settings();
+        int[] rawSize = null;
+        String format = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int inFlight = -1;
+        
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String value = i + 1 < args.length ? args[i + 1] : null;
+                switch (args[i]) {
+                    case "--input": inputDir = Paths.get(value); i++; break;
+                    case "--output": outputDir = Paths.get(value); i++; break;
+                    case "--quality": settings.qualityMode = FSRQualityMode.valueOf(value.toUpperCase()); i++; break;
+                    case "--sharpness": settings.sharpness = Math.max(0.0f, Math.min(1.0f, Float.parseFloat(value))); i++; break;
+                    case "--raw-size": rawSize = parseSize(value); i++; break;
+                    case "--format": format = value; i++; break;
+                    case "--threads": threads = Math.max(1, Integer.parseInt(value)); i++; break;
+                    case "--in-flight": inFlight = Math.max(1, Integer.parseInt(value)); i++; break;
+                    default: throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                }
+            }
+            if (inputDir == null || outputDir == null) {
+                throw new IllegalArgumentException("--input and --output are required");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: --input DIR --output DIR [--quality MODE] [--sharpness S] [--raw-size WxH]" +
+                               " [--format png|raw] [--threads N] [--in-flight N]");
+            return 2;
+        }
+        
+        boolean rawInput = rawSize != null;
+        boolean rawOutput = format != null ? format.equals("raw") : rawInput;
+        if (inFlight < 0) {
+            inFlight = threads * 2;
+        }
+        
+        try {
+            List<Path> inputs = listFrames(inputDir, rawInput ? FrameFiles.RAW_EXTENSION : FrameFiles.PNG_EXTENSION);
+            if (inputs.isEmpty()) {
+                System.err.println("No frames in " + inputDir);
+                return 1;
+            }
+            int[] sourceSize = rawInput ? rawSize : FrameFiles.pngSize(inputs.get(0));
+            settings.sourceWidth = sourceSize[0];
+            settings.sourceHeight = sourceSize[1];
+            // The display size the game would have upscaled these frames to
+            float scale = settings.qualityMode.getScaleFactor();
+            settings.targetWidth = ResolutionPlanner.displaySize(settings.sourceWidth, scale);
+            settings.targetHeight = ResolutionPlanner.displaySize(settings.sourceHeight, scale);
+            
+            Files.createDirectories(outputDir);
+            String outputExtension = rawOutput ? FrameFiles.RAW_EXTENSION : FrameFiles.PNG_EXTENSION;
+            List<Path> outputs = new ArrayList<>(inputs.size());
+            for (Path input : inputs) {
+                String name = input.getFileName().toString();
+                outputs.add(outputDir.resolve(name.substring(0, name.lastIndexOf('.')) + outputExtension));
+            }
+            
+            int width = settings.sourceWidth;
+            int height = settings.sourceHeight;
+            FramePipeline.Decoder decoder = rawInput
+                ? (input, buffer) -> FrameFiles.mapRaw(input, width, height)
+                : (input, buffer) -> FrameFiles.readPng(input, buffer, width, height);
+            FramePipeline.Encoder encoder = rawOutput
+                ? (pixels, output) -> FrameFiles.writeRaw(output, pixels, settings.targetWidth, settings.targetHeight)
+                : (pixels, output) -> FrameFiles.writePng(output, pixels, settings.targetWidth, settings.targetHeight);
+            
+            System.out.println("Upscaling " + inputs.size() + " frames " + width + "x" + height + " -> " +
+                               settings.targetWidth + "x" + settings.targetHeight + " (" +
+                               settings.qualityMode.getDisplayName() + ")");
+            long start = System.nanoTime();
+            int written = new FramePipeline(threads, inFlight, !rawInput).run(inputs, outputs, decoder, factory, settings, encoder);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            System.out.printf("Wrote %d frames to %s in %.1f s (%.2f frames/s)%n", written, outputDir, seconds, written / seconds);
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Batch upscale failed: " + e.getMessage());
+            return 1;
+        } catch (Exception e) {
+            System.err.println("Batch upscale failed: " + e);
+            e.printStackTrace();
+            return 1;
+        }
+    }
+    
+    private static int[] parseSize(String value) {
+        String[] parts = value.toLowerCase().split("x");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Expected a size like 1280x720, got " + value);
+        }
+        return new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+    }
+    
+    private static List<Path> listFrames(Path dir, String extension) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().toLowerCase().endsWith(extension))
+                        .sorted()
+                        .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.kleeaiaiai.amdium.batch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Decode, upscale and encode with a fixed number of frames in flight. Decoding
+ * and encoding run on a pool of worker threads; upscaling runs on one thread
+ * that owns the upscaler (and any GL context it has). Once the limit of frames
+ * in flight is reached, the next frame waits until an earlier one has been
+ * written, and pixels live in buffers from a pool of that size, so memory use
+ * doesn't grow with the sequence length.
+ */
+final class FramePipeline {
+    /**
+     * Fill the given buffer with a frame, or return another buffer holding it
+     * (e.g. a mapping); the buffer is null when the pipeline has no source pool
+     */
+    interface Decoder {
+        ByteBuffer decode(Path input, ByteBuffer buffer) throws IOException;
+    }
+    
+    interface Encoder {
+        void encode(ByteBuffer pixels, Path output) throws IOException;
+    }
+    
+    private final int threads;
+    private final int inFlight;
+    private final boolean pooledSources;
+    
+    /**
+     * @param pooledSources False when the decoder brings its own buffers, so no source pool is allocated
+     */
+    FramePipeline(int threads, int inFlight, boolean pooledSources) {
+        this.threads = threads;
+        this.inFlight = inFlight;
+        this.pooledSources = pooledSources;
+    }
+    
+    /**
+     * Run every frame through the pipeline, stopping at the first failure
+     * @return Number of frames written
+     */
+    int run(List<Path> inputs, List<Path> outputs, Decoder decoder, FrameUpscaler.Factory factory,
+            BatchUpscaler.Settings settings, Encoder encoder) throws Exception {
+        int sourceBytes = settings.sourceWidth * settings.sourceHeight * 4;
+        int targetBytes = settings.targetWidth * settings.targetHeight * 4;
+        BlockingQueue<ByteBuffer> sourceBuffers = new ArrayBlockingQueue<>(inFlight);
+        BlockingQueue<ByteBuffer> targetBuffers = new ArrayBlockingQueue<>(inFlight);
+        for (int i = 0; i < inFlight; i++) {
+            if (pooledSources) {
+                sourceBuffers.add(ByteBuffer.allocateDirect(sourceBytes));
+            }
+            targetBuffers.add(ByteBuffer.allocateDirect(targetBytes));
+        }
+        
+        Semaphore slots = new Semaphore(inFlight);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger written = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, daemon("amdium-batch-io"));
+        ExecutorService upscaleThread = Executors.newSingleThreadExecutor(daemon("amdium-batch-upscale"));
+        FrameUpscaler upscaler = null;
+        try {
+            upscaler = upscaleThread.submit(() -> factory.create(settings.qualityMode, settings.sharpness,
+                                                                 settings.targetWidth, settings.targetHeight)).get();
+            FrameUpscaler active = upscaler;
+            
+            for (int i = 0; i < inputs.size() && failure.get() == null; i++) {
+                // Backpressure: wait for a frame to finish before decoding another
+                slots.acquire();
+                if (failure.get() != null) {
+                    slots.release();
+                    break;
+                }
+                Path input = inputs.get(i);
+                Path output = outputs.get(i);
+                ByteBuffer sourceBuffer = sourceBuffers.poll();
+                ByteBuffer targetBuffer = targetBuffers.poll();
+                
+                CompletableFuture
+                    .supplyAsync(() -> {
+                        try {
+                            return decoder.decode(input, sourceBuffer);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, workers)
+                    .thenApplyAsync(pixels -> {
+                        try {
+                            active.upscale(pixels, settings.sourceWidth, settings.sourceHeight,
+                                           targetBuffer, settings.targetWidth, settings.targetHeight);
+                        } catch (Exception e) {
+                            throw new IllegalStateException("Failed to upscale " + input, e);
+                        }
+                        return targetBuffer;
+                    }, upscaleThread)
+                    .thenAcceptAsync(pixels -> {
+                        try {
+                            encoder.encode(pixels, output);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, workers)
+                    .whenComplete((result, error) -> {
+                        if (sourceBuffer != null) {
+                            sourceBuffers.add(sourceBuffer);
+                        }
+                        targetBuffers.add(targetBuffer);
+                        if (error != null) {
+                            // Unwrap the CompletionException, and the UncheckedIOException around I/O failures
+                            Throwable cause = error.getCause() != null ? error.getCause() : error;
+                            if (cause instanceof UncheckedIOException) {
+                                cause = cause.getCause();
+                            }
+                            failure.compareAndSet(null, cause);
+                        } else {
+                            int count = written.incrementAndGet();
+                            if (count % 100 == 0) {
+                                System.out.println("Upscaled " + count + " / " + inputs.size() + " frames");
+                            }
+                        }
+                        slots.release();
+                    });
+            }
+            
+            // Every slot free again means every submitted frame is done
+            slots.acquire(inFlight);
+            slots.release(inFlight);
+        } finally {
+            if (upscaler != null) {
+                FrameUpscaler toClose = upscaler;
+                try {
+                    upscaleThread.submit(() -> {
+                        toClose.close();
+                        return null;
+                    }).get();
+                } catch (ExecutionException e) {
+                    System.err.println("Failed to release the upscaler: " + e.getCause());
+                }
+            }
+            workers.shutdown();
+            upscaleThread.shutdown();
+        }
+        
+        Throwable error = failure.get();
+        if (error instanceof Exception) {
+            throw (Exception) error;
+        } else if (error != null) {
+            throw new IllegalStateException(error);
+        }
+        return written.get();
+    }
+    
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.kleeaiaiai.amdium.batch;
+
+import com.kleeaiaiai.amdium.fsr.FSRQualityMode;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One upscaling backend for the batch upscaler. Frames are RGBA8 in GL row
+ * order (bottom row first). Every call, including close, comes from the same
+ * thread, the one the upscaler was created on, so a GL context can live there.
+ */
+public interface FrameUpscaler extends AutoCloseable {
+    void upscale(ByteBuffer source, int sourceWidth, int sourceHeight,
+                 ByteBuffer target, int targetWidth, int targetHeight) throws Exception;
+    
+    @Override
+    default void close() throws Exception {
+    }
+    
+    /**
+     * Creates the upscaler on the pipeline's upscale thread
+     */
+    interface Factory {
+        FrameUpscaler create(FSRQualityMode qualityMode, float sharpness, int displayWidth, int displayHeight) throws Exception;
+    }
+}
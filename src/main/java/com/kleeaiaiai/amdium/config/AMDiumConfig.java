@@ -9,29 +9,96 @@ import net.fabricmc.loader.api.FabricLoader;
 
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class AMDiumConfig {
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
-    private static final File CONFIG_FILE = FabricLoader.getInstance().getConfigDir().resolve("amdium.json").toFile();
+    
+    // Saves within this window are written once, with the latest values
+    private static final long SAVE_DELAY_MS = 250;
+    
+    // Single daemon writer, so saves never block the caller and never race each other
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AMDium config writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Copy of the config waiting to be written, null once the writer has picked it up
+    private static final AtomicReference<AMDiumConfig> PENDING_SAVE = new AtomicReference<>();
     
     private boolean enabled = true;
     private boolean autoEnable = false;
     private FSRQualityMode qualityMode = FSRQualityMode.BALANCED;
     private FSRType fsrType = FSRType.FSR_1;
+    // ID of a registered upscaler to use instead of the one fsrType selects, empty for none
+    private String upscaler = "";
     private float sharpness = 0.7f;
+    // Experimental; off until its speedup and the seam at the sky edge have been checked in game
+    private boolean skyEarlyOut = false;
+    private boolean depthGuidedEdges = false;
+    // Quality modes that run EASU on luma only with bilinear chroma; cheaper, and the
+    // loss is hardest to see where the render resolution is lowest
+    private List<FSRQualityMode> lumaEasuModes = defaultLumaEasuModes();
+    // Compile the shaders with fp16 math where the driver supports it
+    private boolean halfPrecision = true;
+    // Let the per-GPU calibration pick the fastest FSR 1.0 variant
+    private boolean autoTune = true;
+    // Lowest mean SSIM against native a quality mode needs to be recommended
+    private float qualityThreshold = 0.9f;
+    // Switch to the recommended quality mode after a quality calibration instead of only suggesting it
+    private boolean autoSelectQuality = false;
+    // Seconds between time-lapse screenshots while in a world, 0 = off
+    private int timelapseInterval = 0;
+    // Report GL errors synchronously with a stack trace; slow, for debugging only
+    private boolean glDebugSync = false;
+    // Shader development: load shaders from this directory and reload them on edit, empty to use the bundled ones
+    private String shaderDevDirectory = "";
+    
+    /**
+     * Resolved on first use, so the config class can be loaded without a running Fabric loader
+     */
+    private static File getConfigFile() {
+        return FabricLoader.getInstance().getConfigDir().resolve("amdium.json").toFile();
+    }
     
     public void load() {
+        File configFile = getConfigFile();
         try {
-            if (CONFIG_FILE.exists()) {
-                try (FileReader reader = new FileReader(CONFIG_FILE)) {
+            if (configFile.exists()) {
+                try (FileReader reader = new FileReader(configFile)) {
                     AMDiumConfig loaded = GSON.fromJson(reader, AMDiumConfig.class);
                     this.enabled = loaded.enabled;
                     this.autoEnable = loaded.autoEnable;
                     this.qualityMode = loaded.qualityMode;
                     this.fsrType = loaded.fsrType != null ? loaded.fsrType : FSRType.FSR_1;
+                    this.upscaler = loaded.upscaler != null ? loaded.upscaler : "";
                     this.sharpness = loaded.sharpness;
+                    this.skyEarlyOut = loaded.skyEarlyOut;
+                    this.depthGuidedEdges = loaded.depthGuidedEdges;
+                    this.lumaEasuModes = loaded.lumaEasuModes != null ? new ArrayList<>(loaded.lumaEasuModes) : defaultLumaEasuModes();
+                    this.lumaEasuModes.removeIf(mode -> mode == null);
+                    this.halfPrecision = loaded.halfPrecision;
+                    this.autoTune = loaded.autoTune;
+                    this.qualityThreshold = Math.max(0.0f, Math.min(1.0f, loaded.qualityThreshold));
+                    this.autoSelectQuality = loaded.autoSelectQuality;
+                    this.timelapseInterval = Math.max(0, loaded.timelapseInterval);
+                    this.glDebugSync = loaded.glDebugSync;
+                    this.shaderDevDirectory = loaded.shaderDevDirectory != null ? loaded.shaderDevDirectory : "";
                 }
                 AMDium.LOGGER.info("Loaded AMDium configuration");
             } else {
@@ -43,15 +110,72 @@ public class AMDiumConfig {
         }
     }
     
+    /**
+     * Queue the current values for writing. Returns immediately; the file is
+     * written on a background thread once saves stop arriving for a moment.
+     */
     public void save() {
+        // Only the first save of a burst schedules a write, later ones just replace the snapshot
+        if (PENDING_SAVE.getAndSet(snapshot()) == null) {
+            WRITER.schedule(AMDiumConfig::writePending, SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Write any queued save now and wait for it, e.g. while the client shuts down
+     */
+    public static void flush() {
         try {
-            if (!CONFIG_FILE.exists()) {
-                CONFIG_FILE.getParentFile().mkdirs();
-                CONFIG_FILE.createNewFile();
+            WRITER.submit(AMDiumConfig::writePending).get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            AMDium.LOGGER.error("Failed to flush AMDium configuration", e);
+        }
+    }
+    
+    /**
+     * @return A copy of this config that later changes don't affect
+     */
+    private AMDiumConfig snapshot() {
+        AMDiumConfig copy = new AMDiumConfig();
+        copy.enabled = enabled;
+        copy.autoEnable = autoEnable;
+        copy.qualityMode = qualityMode;
+        copy.fsrType = fsrType;
+        copy.upscaler = upscaler;
+        copy.sharpness = sharpness;
+        copy.skyEarlyOut = skyEarlyOut;
+        copy.depthGuidedEdges = depthGuidedEdges;
+        copy.lumaEasuModes = new ArrayList<>(lumaEasuModes);
+        copy.halfPrecision = halfPrecision;
+        copy.autoTune = autoTune;
+        copy.qualityThreshold = qualityThreshold;
+        copy.autoSelectQuality = autoSelectQuality;
+        copy.timelapseInterval = timelapseInterval;
+        copy.glDebugSync = glDebugSync;
+        copy.shaderDevDirectory = shaderDevDirectory;
+        return copy;
+    }
+    
+    /**
+     * Runs on the writer thread. Writes to a temporary file and moves it over the
+     * config, so a crash mid-write never leaves a truncated amdium.json behind.
+     */
+    private static void writePending() {
+        AMDiumConfig snapshot = PENDING_SAVE.getAndSet(null);
+        if (snapshot == null) return;
+        
+        Path configPath = getConfigFile().toPath();
+        Path tempPath = configPath.resolveSibling(configPath.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(configPath.getParent());
+            try (Writer writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8)) {
+                GSON.toJson(snapshot, writer);
             }
             
-            try (FileWriter writer = new FileWriter(CONFIG_FILE)) {
-                GSON.toJson(this, writer);
+            try {
+                Files.move(tempPath, configPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, configPath, StandardCopyOption.REPLACE_EXISTING);
             }
         } catch (IOException e) {
             AMDium.LOGGER.error("Failed to save AMDium configuration", e);
@@ -90,6 +214,17 @@ public class AMDiumConfig {
         this.fsrType = fsrType;
     }
     
+    /**
+     * @return The upscaler ID overriding the FSR type, or an empty string
+     */
+    public String getUpscaler() {
+        return upscaler;
+    }
+    
+    public void setUpscaler(String upscaler) {
+        this.upscaler = upscaler != null ? upscaler : "";
+    }
+    
     public float getSharpness() {
         return sharpness;
     }
@@ -98,11 +233,96 @@ public class AMDiumConfig {
         this.sharpness = Math.max(0.0f, Math.min(1.0f, sharpness));
     }
     
+    public boolean isSkyEarlyOut() {
+        return skyEarlyOut;
+    }
+    
+    public void setSkyEarlyOut(boolean skyEarlyOut) {
+        this.skyEarlyOut = skyEarlyOut;
+    }
+    
+    public boolean isDepthGuidedEdges() {
+        return depthGuidedEdges;
+    }
+    
+    public void setDepthGuidedEdges(boolean depthGuidedEdges) {
+        this.depthGuidedEdges = depthGuidedEdges;
+    }
+    
+    private static List<FSRQualityMode> defaultLumaEasuModes() {
+        return new ArrayList<>(Arrays.asList(FSRQualityMode.PERFORMANCE, FSRQualityMode.ULTRA_PERFORMANCE));
+    }
+    
+    /**
+     * @return True if the given quality mode uses luma-only EASU
+     */
+    public boolean isLumaEasu(FSRQualityMode mode) {
+        return lumaEasuModes.contains(mode);
+    }
+    
+    public void setLumaEasu(FSRQualityMode mode, boolean lumaEasu) {
+        lumaEasuModes.remove(mode);
+        if (lumaEasu) {
+            lumaEasuModes.add(mode);
+        }
+    }
+    
+    public boolean isHalfPrecision() {
+        return halfPrecision;
+    }
+    
+    public void setHalfPrecision(boolean halfPrecision) {
+        this.halfPrecision = halfPrecision;
+    }
+    
+    public boolean isAutoTune() {
+        return autoTune;
+    }
+    
+    public void setAutoTune(boolean autoTune) {
+        this.autoTune = autoTune;
+    }
+    
+    public float getQualityThreshold() {
+        return qualityThreshold;
+    }
+    
+    public void setQualityThreshold(float qualityThreshold) {
+        this.qualityThreshold = Math.max(0.0f, Math.min(1.0f, qualityThreshold));
+    }
+    
+    public boolean isAutoSelectQuality() {
+        return autoSelectQuality;
+    }
+    
+    public void setAutoSelectQuality(boolean autoSelectQuality) {
+        this.autoSelectQuality = autoSelectQuality;
+    }
+    
+    public int getTimelapseInterval() {
+        return timelapseInterval;
+    }
+    
+    public void setTimelapseInterval(int timelapseInterval) {
+        this.timelapseInterval = Math.max(0, timelapseInterval);
+    }
+    
+    public boolean isGlDebugSync() {
+        return glDebugSync;
+    }
+    
+    public void setGlDebugSync(boolean glDebugSync) {
+        this.glDebugSync = glDebugSync;
+    }
+    
     /**
-     * Gets the scaling factor for rendering (inverse of the quality mode's scale factor)
-     * @return The scaling factor (e.g., 0.5 for 50% resolution)
+     * @return The shader development directory, or null if shaders come from the jar
      */
-    public float getScalingFactor() {
-        return 1.0f / qualityMode.getScaleFactor();
+    public Path getShaderDirectory() {
+        return shaderDevDirectory.isEmpty() ? null : Paths.get(shaderDevDirectory);
+    }
+    
+    public void setShaderDevDirectory(String shaderDevDirectory) {
+        this.shaderDevDirectory = shaderDevDirectory != null ? shaderDevDirectory : "";
     }
 } 
\ No newline at end of file
@@ -69,7 +69,7 @@ public class AMDiumModMenuIntegration {
                         if (settingsChanged) {
                             config.save();
                             try {
-                                AMDium.getInstance().restartFSRProcessor();
+                                AMDium.getInstance().applySettings();
                             } catch (Exception e) {
                                 AMDium.LOGGER.error("Error applying FSR changes", e);
                             }
@@ -17,11 +17,14 @@ public class AMDiumOptionsScreen extends Screen {
     private final Screen parent;
     private final AMDiumConfig config;
     private boolean settingsChanged = false;
+    private CyclingButtonWidget<Boolean> lumaEasuButton;
     
-    // Button positions
-    private static final int BUTTON_WIDTH = 200;
+    // Button positions (two columns, Done centered below)
+    private static final int BUTTON_WIDTH = 150;
     private static final int BUTTON_HEIGHT = 20;
     private static final int BUTTON_SPACING = 24;
+    private static final int COLUMN_SPACING = 10;
+    private static final int DONE_BUTTON_WIDTH = 200;
     private static final int TITLE_COLOR = 0xFFFFFF;
     
     public AMDiumOptionsScreen(Screen parent) {
@@ -34,11 +37,13 @@ public class AMDiumOptionsScreen extends Screen {
     protected void init() {
         int centerX = this.width / 2;
         int startY = this.height / 6;
+        int leftX = centerX - BUTTON_WIDTH - COLUMN_SPACING / 2;
+        int rightX = centerX + COLUMN_SPACING / 2;
         
         // FSR Enable/Disable button
         CyclingButtonWidget<Boolean> enableButton = CyclingButtonWidget.onOffBuilder(config.isEnabled())
             .build(
-                centerX - BUTTON_WIDTH / 2, 
+                leftX, 
                 startY, 
                 BUTTON_WIDTH, 
                 BUTTON_HEIGHT,
@@ -58,7 +63,7 @@ public class AMDiumOptionsScreen extends Screen {
             .values(FSRType.values())
             .initially(config.getFsrType())
             .build(
-                centerX - BUTTON_WIDTH / 2, 
+                leftX, 
                 startY + BUTTON_SPACING, 
                 BUTTON_WIDTH, 
                 BUTTON_HEIGHT,
@@ -68,7 +73,7 @@ public class AMDiumOptionsScreen extends Screen {
                     settingsChanged = true;
                 }
             );
-        typeButton.setTooltip(Tooltip.of(Text.literal("Select FSR version:\nFSR 1.0: Basic upscaling with edge preservation")));
+        typeButton.setTooltip(Tooltip.of(Text.literal("Select FSR version:\nFSR 1.0: Basic upscaling with edge preservation\nFSR 1.0 (two-pass): Separate EASU and RCAS passes\nLanczos: Not part of FSR, a cheaper filter for weak GPUs; a type of its own rather than a Quality Mode, it scales by the Quality Mode set below\nBilinear + CAS: The cheapest option")));
         this.addDrawableChild(typeButton);
         
         // FSR Quality Mode selection button
@@ -78,13 +83,15 @@ public class AMDiumOptionsScreen extends Screen {
             .values(FSRQualityMode.values())
             .initially(config.getQualityMode())
             .build(
-                centerX - BUTTON_WIDTH / 2, 
+                leftX, 
                 startY + BUTTON_SPACING * 2, 
                 BUTTON_WIDTH, 
                 BUTTON_HEIGHT,
                 Text.translatable("option.amdium.quality_mode"),
                 (button, qualityMode) -> {
                     config.setQualityMode(qualityMode);
+                    // Luma-only EASU is a per-mode setting
+                    lumaEasuButton.setValue(config.isLumaEasu(qualityMode));
                     settingsChanged = true;
                 }
             );
@@ -94,7 +101,7 @@ public class AMDiumOptionsScreen extends Screen {
         // Sharpness slider
         final Text sharpnessText = Text.translatable("option.amdium.sharpness");
         SliderWidget sharpnessSlider = new SliderWidget(
-            centerX - BUTTON_WIDTH / 2, 
+            leftX, 
             startY + BUTTON_SPACING * 3, 
             BUTTON_WIDTH, 
             BUTTON_HEIGHT,
@@ -121,7 +128,7 @@ public class AMDiumOptionsScreen extends Screen {
         // Auto-Enable toggle button
         CyclingButtonWidget<Boolean> autoEnableButton = CyclingButtonWidget.onOffBuilder(config.isAutoEnable())
             .build(
-                centerX - BUTTON_WIDTH / 2, 
+                leftX, 
                 startY + BUTTON_SPACING * 4, 
                 BUTTON_WIDTH, 
                 BUTTON_HEIGHT,
@@ -134,19 +141,91 @@ public class AMDiumOptionsScreen extends Screen {
         autoEnableButton.setTooltip(Tooltip.of(Text.literal("Automatically enable FSR when FPS drops below threshold")));
         this.addDrawableChild(autoEnableButton);
         
+        // Sky early-out toggle button
+        CyclingButtonWidget<Boolean> skyEarlyOutButton = CyclingButtonWidget.onOffBuilder(config.isSkyEarlyOut())
+            .build(
+                rightX, 
+                startY, 
+                BUTTON_WIDTH, 
+                BUTTON_HEIGHT,
+                Text.translatable("option.amdium.sky_early_out"),
+                (button, enabled) -> {
+                    config.setSkyEarlyOut(enabled);
+                    settingsChanged = true;
+                }
+            );
+        skyEarlyOutButton.setTooltip(Tooltip.of(Text.literal("Experimental: skip FSR on sky pixels and fill them with cheap bilinear upscaling\nThe speedup has not been measured, and the sky edge may show a seam")));
+        this.addDrawableChild(skyEarlyOutButton);
+        
+        // Depth-guided edges toggle button
+        CyclingButtonWidget<Boolean> depthEdgesButton = CyclingButtonWidget.onOffBuilder(config.isDepthGuidedEdges())
+            .build(
+                rightX, 
+                startY + BUTTON_SPACING, 
+                BUTTON_WIDTH, 
+                BUTTON_HEIGHT,
+                Text.translatable("option.amdium.depth_guided_edges"),
+                (button, enabled) -> {
+                    config.setDepthGuidedEdges(enabled);
+                    settingsChanged = true;
+                }
+            );
+        depthEdgesButton.setTooltip(Tooltip.of(Text.literal("Find block edges from depth instead of color\nKeeps silhouettes crisp at lower quality modes")));
+        this.addDrawableChild(depthEdgesButton);
+        
+        // Luma-only EASU toggle button, for the selected quality mode
+        lumaEasuButton = CyclingButtonWidget.onOffBuilder(config.isLumaEasu(config.getQualityMode()))
+            .build(
+                rightX, 
+                startY + BUTTON_SPACING * 2, 
+                BUTTON_WIDTH, 
+                BUTTON_HEIGHT,
+                Text.translatable("option.amdium.luma_easu"),
+                (button, enabled) -> {
+                    config.setLumaEasu(config.getQualityMode(), enabled);
+                    settingsChanged = true;
+                }
+            );
+        lumaEasuButton.setTooltip(Tooltip.of(Text.literal("Upscale edges from brightness only, with smooth color\nFaster on weak GPUs; applies to the selected quality mode")));
+        this.addDrawableChild(lumaEasuButton);
+        
+        // Re-run the per-GPU variant timing
+        ButtonWidget calibrateButton = ButtonWidget.builder(Text.translatable("option.amdium.calibrate"), button -> {
+            FSRProcessor processor = AMDium.getInstance().getFSRProcessor();
+            if (processor != null) {
+                processor.requestCalibration();
+                button.active = false;
+            }
+        }).dimensions(leftX, startY + BUTTON_SPACING * 5, BUTTON_WIDTH, BUTTON_HEIGHT).build();
+        calibrateButton.setTooltip(Tooltip.of(Text.literal("Time the FSR 1.0 variants on this GPU and use the fastest\nRuns on the next upscaled frame")));
+        calibrateButton.active = config.isAutoTune() && AMDium.getInstance().getFSRProcessor() != null;
+        this.addDrawableChild(calibrateButton);
+        
+        // Compare the quality modes against a native frame
+        ButtonWidget findQualityButton = ButtonWidget.builder(Text.translatable("option.amdium.find_quality_mode"), button -> {
+            FSRProcessor processor = AMDium.getInstance().getFSRProcessor();
+            if (processor != null) {
+                processor.requestQualityCalibration();
+                button.active = false;
+            }
+        }).dimensions(rightX, startY + BUTTON_SPACING * 5, BUTTON_WIDTH, BUTTON_HEIGHT).build();
+        findQualityButton.setTooltip(Tooltip.of(Text.literal("Compare each quality mode with the full-resolution image\nand recommend the fastest that looks close enough\nRuns on the next frame")));
+        findQualityButton.active = AMDium.getInstance().getFSRProcessor() != null;
+        this.addDrawableChild(findQualityButton);
+        
         // Done button
         ButtonWidget doneButton = ButtonWidget.builder(Text.translatable("gui.done"), button -> {
             if (settingsChanged) {
                 config.save();
                 // Safely apply changes before closing
                 try {
-                    AMDium.getInstance().restartFSRProcessor();
+                    AMDium.getInstance().applySettings();
                 } catch (Exception e) {
                     AMDium.LOGGER.error("Error applying FSR changes", e);
                 }
             }
             this.close();
-        }).dimensions(centerX - BUTTON_WIDTH / 2, startY + BUTTON_SPACING * 5, BUTTON_WIDTH, BUTTON_HEIGHT).build();
+        }).dimensions(centerX - DONE_BUTTON_WIDTH / 2, startY + BUTTON_SPACING * 6, DONE_BUTTON_WIDTH, BUTTON_HEIGHT).build();
         this.addDrawableChild(doneButton);
     }
     
@@ -0,0 +1,231 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import com.kleeaiaiai.amdium.AMDium;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL21;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Saves frames to PNG without stalling the render thread. A capture copies a
+ * framebuffer into one of a ring of pixel buffer objects and puts a fence
+ * behind the copy; once the fence has signaled, usually a frame or two later,
+ * the buffer is mapped and copied out and the PNG is encoded on a background
+ * thread. Everything but the listener runs on the render thread.
+ */
+public final class AsyncFrameCapture {
+    /**
+     * Called on the writer thread once the file is written, or with the reason it wasn't
+     */
+    public interface Listener {
+        void done(Path file, IOException error);
+    }
+    
+    private static final int RING_SIZE = 3;
+    // Captures read back but not yet written; more wait in the queue instead of piling up in memory
+    private static final int MAX_PENDING_WRITES = 4;
+    
+    private static final class Request {
+        final Path file;
+        final Listener listener;
+        
+        Request(Path file, Listener listener) {
+            this.file = file;
+            this.listener = listener;
+        }
+    }
+    
+    private static final class Slot {
+        int buffer;
+        long bufferSize;
+        long fence;
+        int width;
+        int height;
+        // Null while the slot is free
+        Request request;
+    }
+    
+    private final GpuBackend gpu;
+    private final Slot[] slots = new Slot[RING_SIZE];
+    private final ArrayDeque<Request> requests = new ArrayDeque<>();
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private int nextSlot = 0;
+    
+    // Started with the first request, so players who never take a screenshot don't get a thread
+    private ExecutorService writer;
+    
+    public AsyncFrameCapture(GpuBackend gpu) {
+        this.gpu = gpu;
+        for (int i = 0; i < RING_SIZE; i++) {
+            slots[i] = new Slot();
+        }
+    }
+    
+    /**
+     * Save the next captured frame to the given file
+     */
+    public void request(Path file, Listener listener) {
+        if (writer == null) {
+            writer = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "amdium-screenshot-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        requests.add(new Request(file, listener));
+    }
+    
+    /**
+     * Queue a readback of the framebuffer's color for the oldest request, if a
+     * pixel buffer is free. Runs every frame, so it must not allocate when
+     * nothing was requested.
+     */
+    public void capture(int framebuffer, int width, int height) {
+        if (requests.isEmpty() || pendingWrites.get() >= MAX_PENDING_WRITES) return;
+        
+        Slot slot = slots[nextSlot];
+        if (slot.request != null) {
+            // The oldest readback hasn't come back yet, so the whole ring is busy
+            return;
+        }
+        nextSlot = (nextSlot + 1) % RING_SIZE;
+        
+        long size = (long) width * height * 4;
+        if (slot.buffer == 0) {
+            slot.buffer = gpu.genBuffer();
+        }
+        gpu.bindBuffer(GL21.GL_PIXEL_PACK_BUFFER, slot.buffer);
+        if (slot.bufferSize != size) {
+            gpu.bufferData(GL21.GL_PIXEL_PACK_BUFFER, size, GL15.GL_STREAM_READ);
+            slot.bufferSize = size;
+        }
+        
+        // Rows of RGBA8 are always 4-byte aligned, so the default pack alignment fits
+        gpu.bindFramebuffer(GL30.GL_READ_FRAMEBUFFER, framebuffer);
+        gpu.readPixels(0, 0, width, height, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, 0L);
+        gpu.bindBuffer(GL21.GL_PIXEL_PACK_BUFFER, 0);
+        
+        slot.fence = gpu.fenceSync();
+        slot.width = width;
+        slot.height = height;
+        slot.request = requests.poll();
+        pendingWrites.incrementAndGet();
+    }
+    
+    /**
+     * Hand every readback the GPU has finished to the writer. Checking a fence
+     * doesn't wait, so this is cheap enough to call every frame.
+     */
+    public void poll() {
+        for (Slot slot : slots) {
+            if (slot.request != null && gpu.getSynci(slot.fence, GL32.GL_SYNC_STATUS) == GL32.GL_SIGNALED) {
+                finish(slot);
+            }
+        }
+    }
+    
+    private void finish(Slot slot) {
+        Request request = slot.request;
+        int width = slot.width;
+        int height = slot.height;
+        int size = width * height * 4;
+        gpu.deleteSync(slot.fence);
+        slot.fence = 0;
+        slot.request = null;
+        
+        // Copied out so the buffer can be reused while the PNG is encoded
+        ByteBuffer pixels = ByteBuffer.allocateDirect(size);
+        gpu.bindBuffer(GL21.GL_PIXEL_PACK_BUFFER, slot.buffer);
+        ByteBuffer mapped = gpu.mapBufferRange(GL21.GL_PIXEL_PACK_BUFFER, 0, size, GL30.GL_MAP_READ_BIT);
+        if (mapped != null) {
+            pixels.put(mapped);
+            pixels.flip();
+        }
+        // False means the driver lost the buffer's contents while it was mapped
+        boolean intact = mapped != null && gpu.unmapBuffer(GL21.GL_PIXEL_PACK_BUFFER);
+        gpu.bindBuffer(GL21.GL_PIXEL_PACK_BUFFER, 0);
+        
+        if (!intact) {
+            pendingWrites.decrementAndGet();
+            fail(request, "The screenshot readback failed");
+            return;
+        }
+        writer.execute(() -> write(request, pixels, width, height));
+    }
+    
+    private void write(Request request, ByteBuffer pixels, int width, int height) {
+        try {
+            // Opaque, like vanilla screenshots; the output's alpha means nothing
+            for (int i = 3; i < pixels.limit(); i += 4) {
+                pixels.put(i, (byte) 0xFF);
+            }
+            Path directory = request.file.getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            FrameFiles.writePng(request.file, pixels, width, height);
+            report(request, null);
+        } catch (IOException e) {
+            report(request, e);
+        } finally {
+            pendingWrites.decrementAndGet();
+        }
+    }
+    
+    private void fail(Request request, String message) {
+        writer.execute(() -> report(request, new IOException(message)));
+    }
+    
+    private static void report(Request request, IOException error) {
+        try {
+            request.listener.done(request.file, error);
+        } catch (Exception e) {
+            AMDium.LOGGER.error("Screenshot listener failed for " + request.file, e);
+        }
+    }
+    
+    /**
+     * Release the pixel buffers. Readbacks the GPU has finished are still
+     * written (callers finish the GPU first, so that's all of them); requests
+     * that never got a frame are reported as failed.
+     */
+    public void delete() {
+        poll();
+        for (Slot slot : slots) {
+            if (slot.request != null) {
+                gpu.deleteSync(slot.fence);
+                slot.fence = 0;
+                pendingWrites.decrementAndGet();
+                fail(slot.request, "Rendering stopped before the screenshot was read back");
+                slot.request = null;
+            }
+            if (slot.buffer != 0) {
+                gpu.deleteBuffer(slot.buffer);
+                slot.buffer = 0;
+                slot.bufferSize = 0;
+            }
+        }
+        nextSlot = 0;
+        
+        Request request;
+        while ((request = requests.poll()) != null) {
+            fail(request, "Rendering stopped before the screenshot was taken");
+        }
+        
+        // Writes already queued still run
+        if (writer != null) {
+            writer.shutdown();
+            writer = null;
+        }
+    }
+}
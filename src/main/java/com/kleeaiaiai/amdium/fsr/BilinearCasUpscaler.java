@@ -0,0 +1,55 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL30;
+
+import java.io.IOException;
+
+/**
+ * The cheapest option: a hardware bilinear blit to display resolution,
+ * followed by RCAS sharpening to win back some of the lost contrast
+ */
+final class BilinearCasUpscaler implements Upscaler {
+    private final RcasPass rcas = new RcasPass();
+    
+    @Override
+    public String getDisplayName() {
+        return "Bilinear + CAS";
+    }
+    
+    @Override
+    public boolean needsIntermediateTarget() {
+        return true;
+    }
+    
+    @Override
+    public void compile(UpscalerContext context) throws IOException {
+        rcas.compile(context);
+    }
+    
+    @Override
+    public boolean render(UpscalerContext context) {
+        int intermediate = context.getIntermediateFramebuffer();
+        if (intermediate <= 0) {
+            return false;
+        }
+        GpuBackend gpu = context.getGpu();
+        
+        // Bilinear upscale in the blit engine, no shader involved
+        gpu.bindFramebuffer(GL30.GL_READ_FRAMEBUFFER, context.getInputFramebuffer());
+        gpu.bindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, intermediate);
+        gpu.blitFramebuffer(0, 0, context.getRenderWidth(), context.getRenderHeight(),
+                            0, 0, context.getDisplayWidth(), context.getDisplayHeight(),
+                            GL11.GL_COLOR_BUFFER_BIT, GL11.GL_LINEAR);
+        
+        // Sharpen into the output
+        gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, context.getOutputFramebuffer());
+        rcas.render(context, context.getIntermediateTexture());
+        return true;
+    }
+    
+    @Override
+    public void delete(GpuBackend gpu) {
+        rcas.delete(gpu);
+    }
+}
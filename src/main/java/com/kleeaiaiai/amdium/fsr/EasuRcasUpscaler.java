@@ -0,0 +1,102 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL30;
+
+import java.io.IOException;
+
+/**
+ * FSR 1.0 as AMD ships it: an EASU pass into a display-resolution target,
+ * followed by a separate RCAS pass into the output. Also the upscaler for
+ * outputs too large for one texture, since both passes can run per tile.
+ */
+final class EasuRcasUpscaler implements Upscaler {
+    private static final String VERTEX_SHADER = "/assets/amdium/shaders/fsr_easu.vert";
+    private static final String FRAGMENT_SHADER = "/assets/amdium/shaders/fsr_easu.frag";
+    
+    private final RcasPass rcas = new RcasPass();
+    private int easuProgram;
+    private ShaderUniforms easuUniforms = ShaderUniforms.NONE;
+    
+    @Override
+    public String getDisplayName() {
+        return "FSR 1.0 (EASU + RCAS)";
+    }
+    
+    @Override
+    public boolean needsIntermediateTarget() {
+        return true;
+    }
+    
+    @Override
+    public boolean supportsTiles() {
+        return true;
+    }
+    
+    @Override
+    public void compile(UpscalerContext context) throws IOException {
+        easuProgram = context.createProgram(VERTEX_SHADER, FRAGMENT_SHADER, "");
+        easuUniforms = ShaderUniforms.lookup(context.getGpu(), easuProgram);
+        rcas.compile(context);
+    }
+    
+    @Override
+    public boolean render(UpscalerContext context) {
+        int intermediate = context.getIntermediateFramebuffer();
+        if (intermediate <= 0) {
+            return false;
+        }
+        GpuBackend gpu = context.getGpu();
+        float displayWidth = context.getDisplayWidth();
+        float displayHeight = context.getDisplayHeight();
+        int tileWidth = context.getTileWidth();
+        int tileHeight = context.getTileHeight();
+        int apron = context.getTileApron();
+        
+        // EASU covers the tile plus the apron, so RCAS has every neighbour at the tile's edges
+        int easuWidth = tileWidth + 2 * apron;
+        int easuHeight = tileHeight + 2 * apron;
+        
+        // EASU: render resolution -> display resolution
+        gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, intermediate);
+        gpu.viewport(0, 0, easuWidth, easuHeight);
+        gpu.useProgram(easuProgram);
+        if (easuUniforms.tileRect != -1) {
+            gpu.uniform4f(easuUniforms.tileRect,
+                          (context.getTileX() - apron) / displayWidth, (context.getTileY() - apron) / displayHeight,
+                          easuWidth / displayWidth, easuHeight / displayHeight);
+        }
+        if (easuUniforms.inputSize != -1) {
+            gpu.uniform2f(easuUniforms.inputSize, context.getRenderWidth(), context.getRenderHeight());
+        }
+        if (easuUniforms.outputSize != -1) {
+            gpu.uniform2f(easuUniforms.outputSize, context.getDisplayWidth(), context.getDisplayHeight());
+        }
+        gpu.activeTexture(GL13.GL_TEXTURE0);
+        gpu.bindTexture(context.getInputTexture());
+        if (easuUniforms.inputTexture != -1) {
+            gpu.uniform1i(easuUniforms.inputTexture, 0);
+        }
+        context.drawFullscreenQuad();
+        
+        // RCAS: sharpen into the output, leaving the apron out
+        float intermediateWidth = context.getIntermediateWidth();
+        float intermediateHeight = context.getIntermediateHeight();
+        gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, context.getOutputFramebuffer());
+        gpu.viewport(0, 0, tileWidth, tileHeight);
+        rcas.render(context, context.getIntermediateTexture(),
+                    apron / intermediateWidth, apron / intermediateHeight,
+                    tileWidth / intermediateWidth, tileHeight / intermediateHeight);
+        return true;
+    }
+    
+    @Override
+    public void delete(GpuBackend gpu) {
+        if (easuProgram > 0) {
+            gpu.deleteProgram(easuProgram);
+            easuProgram = 0;
+        }
+        easuUniforms = ShaderUniforms.NONE;
+        rcas.delete(gpu);
+    }
+}
@@ -0,0 +1,212 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.kleeaiaiai.amdium.AMDium;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL33;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Times FSR variants with GPU timer queries and remembers the fastest one per
+ * GPU and driver, so later launches can use it without measuring again.
+ * The results live in their own file next to the config, keyed by GL_RENDERER
+ * and GL_VERSION; a driver update changes the key and triggers a new calibration.
+ */
+public class FSRAutoTuner {
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final Type RESULTS_TYPE = new TypeToken<LinkedHashMap<String, Result>>() {}.getType();
+    
+    // Frames run before timing, so lazy shader compiles and driver warm-up aren't measured
+    private static final int WARMUP_FRAMES = 5;
+    private static final int TIMED_FRAMES = 20;
+    
+    /**
+     * The outcome of one calibration
+     */
+    public static class Result {
+        private String upscaler;
+        private String precision;
+        // Median GPU time per variant, in milliseconds
+        private Map<String, Double> timings = new LinkedHashMap<>();
+        private long calibratedAt;
+        
+        /**
+         * Record a variant's time, keeping it as the winner if it is the fastest so far
+         */
+        public void addTiming(String upscaler, ShaderPrecision precision, double milliseconds) {
+            timings.put(upscaler + "/" + precision.name(), milliseconds);
+            if (this.upscaler == null || milliseconds < getBestTime()) {
+                this.upscaler = upscaler;
+                this.precision = precision.name();
+            }
+        }
+        
+        private double getBestTime() {
+            Double best = timings.get(upscaler + "/" + precision);
+            return best != null ? best : Double.MAX_VALUE;
+        }
+        
+        public boolean hasWinner() {
+            return upscaler != null;
+        }
+        
+        public String getUpscaler() {
+            return upscaler;
+        }
+        
+        /**
+         * @return The winning precision, or fp32 if the stored name is unknown
+         */
+        public ShaderPrecision getPrecision() {
+            try {
+                return ShaderPrecision.valueOf(precision);
+            } catch (IllegalArgumentException | NullPointerException e) {
+                return ShaderPrecision.FP32;
+            }
+        }
+        
+        public Map<String, Double> getTimings() {
+            return timings != null ? Collections.unmodifiableMap(timings) : Collections.emptyMap();
+        }
+        
+        public long getCalibratedAt() {
+            return calibratedAt;
+        }
+        
+        @Override
+        public String toString() {
+            return upscaler + " " + getPrecision() + String.format(" (%.3f ms)", getBestTime());
+        }
+    }
+    
+    private final Path cacheFile;
+    private Map<String, Result> results;
+    
+    public FSRAutoTuner(Path cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+    
+    /**
+     * @return True if the context has timer queries
+     */
+    public static boolean isSupported(GpuBackend gpu) {
+        int major = gpu.getInteger(GL30.GL_MAJOR_VERSION);
+        int minor = gpu.getInteger(GL30.GL_MINOR_VERSION);
+        return major > 3 || (major == 3 && minor >= 3) || gpu.isExtensionSupported("GL_ARB_timer_query");
+    }
+    
+    /**
+     * @return What identifies the GPU and driver the results are valid for
+     */
+    public static String gpuKey(GpuBackend gpu) {
+        return gpu.getString(GL11.GL_RENDERER) + " | " + gpu.getString(GL11.GL_VERSION);
+    }
+    
+    /**
+     * @return The stored result for a GPU, or null if it was never calibrated
+     */
+    public Result lookup(String gpuKey) {
+        Result result = getResults().get(gpuKey);
+        return result != null && result.hasWinner() ? result : null;
+    }
+    
+    /**
+     * Remember a result and write the cache file
+     */
+    public void store(String gpuKey, Result result) {
+        result.calibratedAt = System.currentTimeMillis();
+        getResults().put(gpuKey, result);
+        
+        Path tempPath = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8)) {
+                GSON.toJson(results, RESULTS_TYPE, writer);
+            }
+            
+            try {
+                Files.move(tempPath, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            AMDium.LOGGER.error("Failed to save FSR tuning results", e);
+        }
+    }
+    
+    private Map<String, Result> getResults() {
+        if (results == null) {
+            results = new LinkedHashMap<>();
+            if (Files.isRegularFile(cacheFile)) {
+                try (Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+                    Map<String, Result> loaded = GSON.fromJson(reader, RESULTS_TYPE);
+                    if (loaded != null) {
+                        results.putAll(loaded);
+                    }
+                } catch (IOException | JsonParseException e) {
+                    AMDium.LOGGER.error("Failed to load FSR tuning results, calibrating again", e);
+                }
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Run a pass repeatedly and time it on the GPU
+     * @param pass Issues the GL commands to measure; runs on the calling (render) thread
+     * @return Median GPU time per run, in milliseconds
+     */
+    public static double measure(GpuBackend gpu, Runnable pass) {
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            pass.run();
+        }
+        
+        // Timestamp pairs rather than TIME_ELAPSED, which can't nest inside a query the game has running
+        int[] queries = new int[TIMED_FRAMES * 2];
+        try {
+            for (int i = 0; i < TIMED_FRAMES; i++) {
+                queries[i * 2] = gpu.genQuery();
+                queries[i * 2 + 1] = gpu.genQuery();
+                gpu.queryCounter(queries[i * 2], GL33.GL_TIMESTAMP);
+                try {
+                    pass.run();
+                } finally {
+                    gpu.queryCounter(queries[i * 2 + 1], GL33.GL_TIMESTAMP);
+                }
+            }
+            
+            // Results arrive in order, so reading them back waits once for the last pass
+            long[] nanos = new long[TIMED_FRAMES];
+            for (int i = 0; i < TIMED_FRAMES; i++) {
+                nanos[i] = gpu.getQueryObjectui64(queries[i * 2 + 1], GL15.GL_QUERY_RESULT) -
+                           gpu.getQueryObjectui64(queries[i * 2], GL15.GL_QUERY_RESULT);
+            }
+            Arrays.sort(nanos);
+            return nanos[TIMED_FRAMES / 2] / 1_000_000.0;
+        } finally {
+            for (int query : queries) {
+                if (query > 0) {
+                    gpu.deleteQuery(query);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import com.kleeaiaiai.amdium.AMDium;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Records render-thread failures as an event code plus a few int arguments in a
+ * fixed-size ring, instead of logging them one by one. The log only gets one
+ * summary line per event kind and interval, so a client that fails every frame
+ * costs the same as one that fails once; the full ring is written out with
+ * {@link #dump(File)} when the mod gives up on FSR.
+ * Only touched from the render thread; dump copies the ring there and leaves
+ * the file to a background writer.
+ */
+public class FSRDiagnostics {
+    /**
+     * What went wrong. The format takes the event's int arguments in order.
+     */
+    public enum Event {
+        INVALID_FRAMEBUFFER("Invalid framebuffer ID %d"),
+        FRAMEBUFFER_INCOMPLETE("Framebuffer %d is incomplete: status 0x%X"),
+        FRAMEBUFFER_VALIDATION_FAILED("Error validating framebuffer %d"),
+        BIND_FAILED("Failed to bind framebuffer %d to target 0x%X"),
+        BLIT_INVALID_SOURCE("Invalid source rectangle for blit: %d,%d -> %d,%d"),
+        BLIT_INVALID_DESTINATION("Invalid destination rectangle for blit: %d,%d -> %d,%d"),
+        BLIT_FAILED("Error in blitFramebuffer"),
+        INVALID_SOURCE_FRAMEBUFFER("Invalid source framebuffer: %d"),
+        INVALID_DIMENSIONS("Invalid render dimensions: %dx%d -> %dx%d"),
+        PASS_FAILED("FSR pass failed (attempt %d)"),
+        PASS_EXCEPTION("Exception in FSR pass"),
+        GL_ERROR("%d GL errors reported by the driver, last ID 0x%X"),
+        TOO_MANY_ERRORS("Too many consecutive FSR errors (%d), falling back to direct rendering"),
+        FALLBACK_FAILED("Copy-to-output fallback failed"),
+        DIRECT_RENDER("Used direct rendering fallback"),
+        DIRECT_RENDER_FAILED("Direct rendering fallback failed"),
+        QUAD_FAILED("Failed to render fullscreen quad"),
+        UNHANDLED_EXCEPTION("Unhandled exception in processFrame");
+        
+        private final String format;
+        
+        Event(String format) {
+            this.format = format;
+        }
+        
+        public String getFormat() {
+            return format;
+        }
+    }
+    
+    private static final Event[] EVENTS = Event.values();
+    private static final int CAPACITY = 512;
+    private static final int MAX_ARGS = 4;
+    private static final long LOG_INTERVAL_MS = 10000;
+    
+    // Single daemon writer, so a dump never blocks the render thread
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AMDium diagnostics writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Ring storage, one slot per event, oldest overwritten first
+    private final long[] times = new long[CAPACITY];
+    private final int[] codes = new int[CAPACITY];
+    private final int[] args = new int[CAPACITY * MAX_ARGS];
+    private int next = 0;
+    private long recorded = 0;
+    
+    // Counts since the last summary line, plus the last exception of each kind
+    private final int[] intervalCounts = new int[EVENTS.length];
+    private final Throwable[] intervalErrors = new Throwable[EVENTS.length];
+    private long intervalStart = -1;
+    
+    public void record(Event event) {
+        record(event, null, 0, 0, 0, 0);
+    }
+    
+    public void record(Event event, int a) {
+        record(event, null, a, 0, 0, 0);
+    }
+    
+    public void record(Event event, int a, int b) {
+        record(event, null, a, b, 0, 0);
+    }
+    
+    public void record(Event event, int a, int b, int c, int d) {
+        record(event, null, a, b, c, d);
+    }
+    
+    /**
+     * Record an event caused by an exception. Only the most recent exception of
+     * each kind is kept, for the next summary line.
+     */
+    public void record(Event event, Throwable error) {
+        record(event, error, 0, 0, 0, 0);
+    }
+    
+    public void record(Event event, Throwable error, int a, int b) {
+        record(event, error, a, b, 0, 0);
+    }
+    
+    private void record(Event event, Throwable error, int a, int b, int c, int d) {
+        int slot = next;
+        times[slot] = System.currentTimeMillis();
+        codes[slot] = event.ordinal();
+        int base = slot * MAX_ARGS;
+        args[base] = a;
+        args[base + 1] = b;
+        args[base + 2] = c;
+        args[base + 3] = d;
+        next = (slot + 1) % CAPACITY;
+        recorded++;
+        
+        intervalCounts[event.ordinal()]++;
+        if (error != null) {
+            intervalErrors[event.ordinal()] = error;
+        }
+    }
+    
+    /**
+     * Called once per frame; writes the summary once per interval if anything was recorded
+     */
+    public void tick(long currentTime) {
+        if (intervalStart < 0) {
+            intervalStart = currentTime;
+            return;
+        }
+        if (currentTime - intervalStart < LOG_INTERVAL_MS) return;
+        
+        flush(currentTime);
+    }
+    
+    /**
+     * Log what was recorded since the last summary, one line per event kind
+     */
+    public void flush(long currentTime) {
+        long seconds = Math.max(1, (currentTime - intervalStart) / 1000);
+        intervalStart = currentTime;
+        
+        for (int i = 0; i < EVENTS.length; i++) {
+            int count = intervalCounts[i];
+            if (count == 0) continue;
+            
+            Event event = EVENTS[i];
+            String message = "[diagnostics] " + event.name() + " x" + count + " in the last " + seconds + "s, last: " +
+                             format(event, args, lastSlotOf(i) * MAX_ARGS);
+            Throwable error = intervalErrors[i];
+            if (error != null) {
+                AMDium.LOGGER.warn(message, error);
+            } else {
+                AMDium.LOGGER.warn(message);
+            }
+            
+            intervalCounts[i] = 0;
+            intervalErrors[i] = null;
+        }
+    }
+    
+    /**
+     * Write every event still in the ring to a file, oldest first. The ring is
+     * copied here, so recording can go on while the file is written.
+     */
+    public void dump(File file) {
+        int count = (int) Math.min(recorded, CAPACITY);
+        int start = recorded > CAPACITY ? next : 0;
+        long total = recorded;
+        
+        long[] timesCopy = new long[count];
+        int[] codesCopy = new int[count];
+        int[] argsCopy = new int[count * MAX_ARGS];
+        int head = Math.min(count, CAPACITY - start);
+        System.arraycopy(times, start, timesCopy, 0, head);
+        System.arraycopy(times, 0, timesCopy, head, count - head);
+        System.arraycopy(codes, start, codesCopy, 0, head);
+        System.arraycopy(codes, 0, codesCopy, head, count - head);
+        System.arraycopy(args, start * MAX_ARGS, argsCopy, 0, head * MAX_ARGS);
+        System.arraycopy(args, 0, argsCopy, head * MAX_ARGS, (count - head) * MAX_ARGS);
+        
+        WRITER.execute(() -> write(file, total, timesCopy, codesCopy, argsCopy));
+    }
+    
+    private static void write(File file, long total, long[] times, int[] codes, int[] args) {
+        SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+        Date time = new Date();
+        
+        try {
+            file.getParentFile().mkdirs();
+            try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+                writer.println("AMDium diagnostics, " + total + " events recorded, last " + times.length + " shown");
+                for (int n = 0; n < times.length; n++) {
+                    time.setTime(times[n]);
+                    writer.println(timeFormat.format(time) + " " + EVENTS[codes[n]].name() + ": " +
+                                   format(EVENTS[codes[n]], args, n * MAX_ARGS));
+                }
+            }
+            AMDium.LOGGER.info("Wrote FSR diagnostics to " + file);
+        } catch (IOException e) {
+            AMDium.LOGGER.error("Failed to write FSR diagnostics", e);
+        }
+    }
+    
+    /**
+     * @return Total number of events recorded, including ones the ring has dropped
+     */
+    public long getRecordedCount() {
+        return recorded;
+    }
+    
+    /**
+     * @return Ring slot of the latest event with this code; it was just counted, so it is still in the ring
+     */
+    private int lastSlotOf(int code) {
+        for (int n = 1; n <= Math.min(recorded, CAPACITY); n++) {
+            int slot = (next - n + CAPACITY) % CAPACITY;
+            if (codes[slot] == code) {
+                return slot;
+            }
+        }
+        return (next - 1 + CAPACITY) % CAPACITY;
+    }
+    
+    private static String format(Event event, int[] values, int base) {
+        return String.format(event.getFormat(), values[base], values[base + 1], values[base + 2], values[base + 3]);
+    }
+}
@@ -0,0 +1,204 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import com.kleeaiaiai.amdium.AMDium;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL33;
+
+/**
+ * The per-frame work behind GameRendererMixin's render hooks: resizing the FSR
+ * buffers when the window or quality mode changes, and running the processor at
+ * the end of the frame. Kept free of Minecraft types so it can be driven (and
+ * benchmarked) with any {@link GpuBackend}.
+ */
+public class FSRFrameHooks {
+    private static final long RESIZE_THROTTLE_MS = 500;
+    private static final int MAX_CONSECUTIVE_ERRORS = 3;
+    private static final int SCENE_QUERY_RING_SIZE = 3;
+    
+    private boolean isProcessingFrame = false;
+    private long lastResizeTime = 0;
+    private int consecutiveErrors = 0;
+    
+    // Times the game's render for the quality calibration's cost estimate. GL_TIMESTAMP
+    // pairs can't clash with a TIME_ELAPSED query the game itself has running, and the
+    // ring lets each pair be read a frame or more later instead of waiting for the GPU
+    private final int[] sceneStartQueries = new int[SCENE_QUERY_RING_SIZE];
+    private final int[] sceneEndQueries = new int[SCENE_QUERY_RING_SIZE];
+    private final boolean[] sceneQueryPending = new boolean[SCENE_QUERY_RING_SIZE];
+    private int sceneQuerySlot = 0;
+    private boolean sceneQueryStarted = false;
+    
+    // State preservation variables
+    private int previousShaderProgram = 0;
+    private int previousTexture = 0;
+    private int previousFBO = 0;
+    
+    private void saveGLState(GpuBackend gpu) {
+        previousShaderProgram = gpu.getInteger(GL20.GL_CURRENT_PROGRAM);
+        previousTexture = gpu.getInteger(GL11.GL_TEXTURE_BINDING_2D);
+        previousFBO = gpu.getInteger(GL30.GL_FRAMEBUFFER_BINDING);
+    }
+    
+    private void restoreGLState(GpuBackend gpu) {
+        gpu.useProgram(previousShaderProgram);
+        gpu.bindTexture(previousTexture);
+        gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, previousFBO);
+    }
+    
+    public boolean isProcessingFrame() {
+        return isProcessingFrame;
+    }
+    
+    /**
+     * Drop the frame in progress without processing it
+     */
+    public void cancelFrame() {
+        isProcessingFrame = false;
+    }
+    
+    /**
+     * Start of a frame: resize the FSR buffers if the main framebuffer or the
+     * quality mode changed since the last resize
+     * @param width Main framebuffer width
+     * @param height Main framebuffer height
+     */
+    public void beginFrame(FSRProcessor fsrProcessor, FSRQualityMode qualityMode, int width, int height, long currentTime) {
+        GpuBackend gpu = fsrProcessor.getGpuBackend();
+        
+        // Save current GL state
+        saveGLState(gpu);
+        
+        if (width <= 0 || height <= 0) {
+            throw new IllegalStateException("Invalid framebuffer dimensions: " + width + "x" + height);
+        }
+        
+        // Exact comparison: the planner gives the processor the same sizes for the same inputs
+        int targetRenderWidth = ResolutionPlanner.renderWidth(width, qualityMode);
+        int targetRenderHeight = ResolutionPlanner.renderHeight(height, qualityMode);
+        boolean sizesChanged = fsrProcessor.getDisplayWidth() != width || fsrProcessor.getDisplayHeight() != height ||
+                               fsrProcessor.getRenderWidth() != targetRenderWidth ||
+                               fsrProcessor.getRenderHeight() != targetRenderHeight;
+        
+        if (sizesChanged && (currentTime - lastResizeTime > RESIZE_THROTTLE_MS)) {
+            AMDium.LOGGER.info("Resizing FSR buffers: " + targetRenderWidth + "x" + targetRenderHeight +
+                              " -> " + width + "x" + height);
+            
+            // No finish first: deleting textures the GPU is still reading is safe in GL
+            fsrProcessor.resizeBuffers(width, height);
+            lastResizeTime = currentTime;
+            
+            consecutiveErrors = 0;
+        }
+        
+        sceneQueryStarted = false;
+        if (fsrProcessor.isQualityCalibrationPending() && FSRAutoTuner.isSupported(gpu)) {
+            startSceneQuery(gpu);
+        }
+        
+        isProcessingFrame = true;
+    }
+    
+    /**
+     * End of a frame: upscale the source framebuffer to the screen
+     * @param sourceFramebuffer The main framebuffer, or 0 if it went away during the frame
+     */
+    public void endFrame(FSRProcessor fsrProcessor, int sourceFramebuffer, long currentTime) {
+        GpuBackend gpu = fsrProcessor.getGpuBackend();
+        try {
+            if (sourceFramebuffer > 0) {
+                // Save current GL state before processing
+                saveGLState(gpu);
+                
+                if (sceneQueryStarted) {
+                    gpu.queryCounter(sceneEndQueries[sceneQuerySlot], GL33.GL_TIMESTAMP);
+                    sceneQueryPending[sceneQuerySlot] = true;
+                    sceneQuerySlot = (sceneQuerySlot + 1) % SCENE_QUERY_RING_SIZE;
+                }
+                pollSceneQueries(fsrProcessor, gpu);
+                
+                // No finish around it: the GPU orders our passes after the frame's own work
+                fsrProcessor.processFrame(sourceFramebuffer, currentTime);
+                
+                // Restore GL state after processing
+                restoreGLState(gpu);
+                
+                consecutiveErrors = 0;
+            }
+        } finally {
+            isProcessingFrame = false;
+            sceneQueryStarted = false;
+            
+            // Ensure proper state restoration
+            restoreGLState(gpu);
+        }
+    }
+    
+    private void startSceneQuery(GpuBackend gpu) {
+        // The GPU is still behind on every slot; this frame goes untimed
+        if (sceneQueryPending[sceneQuerySlot]) return;
+        
+        if (sceneStartQueries[sceneQuerySlot] == 0) {
+            sceneStartQueries[sceneQuerySlot] = gpu.genQuery();
+            sceneEndQueries[sceneQuerySlot] = gpu.genQuery();
+        }
+        gpu.queryCounter(sceneStartQueries[sceneQuerySlot], GL33.GL_TIMESTAMP);
+        sceneQueryStarted = true;
+    }
+    
+    /**
+     * Hand the processor the newest scene time the GPU has finished, without
+     * waiting for any, and free the ring once calibration no longer needs it
+     */
+    private void pollSceneQueries(FSRProcessor fsrProcessor, GpuBackend gpu) {
+        boolean waiting = false;
+        // Oldest first; results arrive in order, so a newer one overrides an older one
+        for (int i = 0; i < SCENE_QUERY_RING_SIZE; i++) {
+            int slot = (sceneQuerySlot + i) % SCENE_QUERY_RING_SIZE;
+            if (!sceneQueryPending[slot]) continue;
+            
+            if (gpu.getQueryObjecti(sceneEndQueries[slot], GL15.GL_QUERY_RESULT_AVAILABLE) == GL11.GL_FALSE) {
+                waiting = true;
+                break;
+            }
+            long start = gpu.getQueryObjectui64(sceneStartQueries[slot], GL15.GL_QUERY_RESULT);
+            long end = gpu.getQueryObjectui64(sceneEndQueries[slot], GL15.GL_QUERY_RESULT);
+            sceneQueryPending[slot] = false;
+            fsrProcessor.setNativeFrameTime((end - start) / 1_000_000.0);
+        }
+        
+        if (!waiting && !fsrProcessor.isQualityCalibrationPending()) {
+            deleteSceneQueries(gpu);
+        }
+    }
+    
+    private void deleteSceneQueries(GpuBackend gpu) {
+        for (int slot = 0; slot < SCENE_QUERY_RING_SIZE; slot++) {
+            if (sceneStartQueries[slot] > 0) {
+                gpu.deleteQuery(sceneStartQueries[slot]);
+                gpu.deleteQuery(sceneEndQueries[slot]);
+                sceneStartQueries[slot] = 0;
+                sceneEndQueries[slot] = 0;
+            }
+            sceneQueryPending[slot] = false;
+        }
+    }
+    
+    /**
+     * The window was resized; the buffers follow on the next frame
+     */
+    public void onResized(int width, int height) {
+        lastResizeTime = 0;
+    }
+    
+    /**
+     * Count a failed hook call
+     * @return True once the failures are frequent enough that FSR should be disabled
+     */
+    public boolean handleRenderError() {
+        consecutiveErrors++;
+        return consecutiveErrors >= MAX_CONSECUTIVE_ERRORS;
+    }
+}
@@ -15,59 +15,363 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.ByteBuffer;
-import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import net.minecraft.client.MinecraftClient;
 
 public class FSRProcessor {
-    // Static fullscreen quad resources
-    private static int quadVAO = -1;
-    private static int quadVBO = -1;
-    private static boolean quadInitialized = false;
+    // Upscaler factories by ID, in registration order
+    private static final Map<String, Supplier<? extends Upscaler>> UPSCALERS = new LinkedHashMap<>();
+    
+    static {
+        registerUpscaler(FSRType.FSR_1.getUpscalerId(), Fsr1Upscaler::new);
+        registerUpscaler(FSRType.EASU_RCAS.getUpscalerId(), EasuRcasUpscaler::new);
+        registerUpscaler(FSRType.LANCZOS.getUpscalerId(), LanczosUpscaler::new);
+        registerUpscaler(FSRType.BILINEAR_CAS.getUpscalerId(), BilinearCasUpscaler::new);
+    }
+    
+    // Runs when the output is too large for one texture, since both of its passes work per tile
+    private static final String TILED_UPSCALER = FSRType.EASU_RCAS.getUpscalerId();
+    // Pixels of EASU output kept around each tile; RCAS reads one neighbour, the rest is margin
+    private static final int TILE_APRON = 2;
+    
+    // The forms of FSR 1.0 the auto-tuner chooses between: fused single pass and two-pass
+    private static final String[] TUNED_UPSCALERS = {
+        FSRType.FSR_1.getUpscalerId(),
+        FSRType.EASU_RCAS.getUpscalerId()
+    };
+    
+    // Every GL call goes through here, so the processor can run without a GPU
+    private final GpuBackend gpu;
+    private final AMDiumConfig config;
+    
+    // Called when a frame fails in a way the processor can't recover from itself
+    private Runnable errorHandler = () -> {};
+    
+    // Per-frame failures go here instead of straight to the log
+    private final FSRDiagnostics diagnostics = new FSRDiagnostics();
+    
+    // Driver error reports, null if the context has no KHR_debug
+    private GLDebugMonitor debugMonitor;
+    
+    // Dev mode: shader sources come from this directory and reload when edited
+    private ShaderSourceWatcher shaderWatcher;
+    
+    // Per-GPU variant timings, null to always use the configured variant
+    private FSRAutoTuner autoTuner;
+    private FSRAutoTuner.Result tuning;
+    private boolean calibrationRequested = false;
+    // Forces the precision of new programs while the tuner measures a variant
+    private ShaderPrecision calibrationPrecision;
+    
+    // Quality mode calibration against the next native frame
+    private boolean qualityCalibrationRequested = false;
+    private int qualityCalibrationWaitFrames = 0;
+    private double nativeFrameMs = Double.NaN;
+    private QualityReport qualityReport;
+    private Consumer<QualityReport> qualityReportHandler = report -> {};
+    
+    // Screenshots of the upscaled output, read back asynchronously
+    private final AsyncFrameCapture frameCapture;
+    
+    // Fullscreen quad resources
+    private int quadVAO = -1;
+    private int quadVBO = -1;
+    private boolean quadInitialized = false;
+    
+    // Fullscreen quad: position (xyz) + texture coordinate (uv)
+    private static final float[] QUAD_VERTICES = {
+        -1.0f, -1.0f, 0.0f, 0.0f, 0.0f,
+        1.0f, -1.0f, 0.0f, 1.0f, 0.0f,
+        -1.0f, 1.0f, 0.0f, 0.0f, 1.0f,
+        1.0f, 1.0f, 0.0f, 1.0f, 1.0f
+    };
     
     // Maximum texture size supported by the GPU
-    private static int maxTextureSize = -1;
+    private int maxTextureSize = -1;
+    
+    // The active upscaler and the ID it was created from
+    private Upscaler upscaler;
+    private String upscalerId;
+    private final UpscalerContext upscalerContext = new Context();
     
-    // Shader programs for FSR 1.0
-    private int fsr1ShaderProgram;
+    // Marks far-plane (sky) pixels in the output stencil buffer
+    private int skyMaskShaderProgram;
+    
+    // Uniform locations, looked up once per program instead of every frame
+    private ShaderUniforms skyMaskUniforms = ShaderUniforms.NONE;
     
     private int inputFramebuffer;
+    // Display-resolution intermediate, only allocated for upscalers that need one
     private int upscaledFramebuffer;
+    // Display width by render height, for the first pass of separable upscalers
+    private int horizontalFramebuffer;
     private int outputFramebuffer;
     
     private int inputTexture;
     private int upscaledTexture;
+    private int horizontalTexture;
     private int outputTexture;
     private int depthTexture;
     
+    // Stencil for the output framebuffer, used to skip EASU/RCAS on sky pixels
+    private int outputStencilBuffer;
+    
+    // Set when the world pass's depth was copied into depthTexture this frame. The main
+    // framebuffer's own depth is cleared for the hand long before processFrame runs.
+    private boolean sceneDepthCaptured = false;
+    
     private int displayWidth;
     private int displayHeight;
     private int renderWidth;
     private int renderHeight;
     
+    // Set when the display exceeds GL_MAX_TEXTURE_SIZE: the output and intermediate targets
+    // are then tile-sized and every tile goes straight to the default framebuffer
+    private boolean tiled = false;
+    private int tileWidth;
+    private int tileHeight;
+    // The tile being rendered, the whole display when not tiled
+    private int tileX;
+    private int tileY;
+    private int currentTileWidth;
+    private int currentTileHeight;
+    
     private boolean initialized = false;
     private boolean shadersCompiled = false;
     
+    // Best precision the context supports, detected once; fp16 is dropped for good
+    // if a half-precision program fails to compile where the fp32 one doesn't
+    private ShaderPrecision supportedPrecision;
+    private boolean halfPrecisionFailed = false;
+    // The precision the current programs were compiled with
+    private ShaderPrecision compiledPrecision;
+    
     // FSR quality settings
     private float sharpness = 0.8f; // Default sharpness value
     
+    // The settings the current buffers and programs were built for, see applyConfigChanges
+    private FSRQualityMode appliedQualityMode;
+    
+    // Minecraft's near plane is fixed; the far plane follows render distance
+    private static final float NEAR_PLANE = 0.05f;
+    
+    // Camera clip planes, needed to linearize depth for depth-guided edges
+    private float depthNear = NEAR_PLANE;
+    private float depthFar = 1024.0f;
+    
     // Error tracking
     private int consecutiveErrors = 0;
     private static final int MAX_CONSECUTIVE_ERRORS = 5;
     
+    // Stencil reference written for sky pixels by the mask pass
+    private static final int SKY_STENCIL_VALUE = 1;
+    
+    // How long a quality calibration waits for the frame hooks to time a native frame
+    private static final int SCENE_TIME_WAIT_FRAMES = 8;
+    
+    public FSRProcessor(AMDiumConfig config, GpuBackend gpu) {
+        this.config = config;
+        this.gpu = gpu;
+        this.frameCapture = new AsyncFrameCapture(gpu);
+    }
+    
+    /**
+     * Make an upscaler available under an ID, so it can be selected through the
+     * config's upscaler override. Call during client initialization; registering
+     * an existing ID replaces it for processors created afterwards.
+     */
+    public static void registerUpscaler(String id, Supplier<? extends Upscaler> factory) {
+        UPSCALERS.put(Objects.requireNonNull(id), Objects.requireNonNull(factory));
+    }
+    
+    /**
+     * @return The IDs of all registered upscalers, in registration order
+     */
+    public static Set<String> getUpscalerIds() {
+        return Collections.unmodifiableSet(UPSCALERS.keySet());
+    }
+    
+    /**
+     * @return The ID of the upscaler in use, or null before initialization
+     */
+    public String getActiveUpscalerId() {
+        return upscalerId;
+    }
+    
+    /**
+     * Set what runs when a frame fails with an unhandled exception
+     */
+    public void setErrorHandler(Runnable errorHandler) {
+        this.errorHandler = errorHandler != null ? errorHandler : () -> {};
+    }
+    
+    /**
+     * Use stored per-GPU timings to pick the FSR 1.0 variant, calibrating on the
+     * first frame if this GPU and driver haven't been measured yet
+     */
+    public void setAutoTuner(FSRAutoTuner autoTuner) {
+        this.autoTuner = autoTuner;
+    }
+    
+    /**
+     * Time the FSR 1.0 variants again at the start of the next processed frame
+     */
+    public void requestCalibration() {
+        if (autoTuner == null) {
+            AMDium.LOGGER.warn("FSR auto-tuning is not available");
+            return;
+        }
+        calibrationRequested = true;
+    }
+    
+    /**
+     * Compare every quality mode against a processed frame, which the game
+     * renders at native resolution, and recommend the cheapest one that meets
+     * the configured SSIM threshold. Runs once the frame hooks have timed the
+     * scene, or after {@link #SCENE_TIME_WAIT_FRAMES} frames without it.
+     */
+    public void requestQualityCalibration() {
+        qualityCalibrationRequested = true;
+        qualityCalibrationWaitFrames = 0;
+        nativeFrameMs = Double.NaN;
+    }
+    
+    public boolean isQualityCalibrationPending() {
+        return qualityCalibrationRequested;
+    }
+    
+    /**
+     * GPU time of a native frame, for the quality calibration's cost estimate;
+     * measured by the frame hooks around the game's render and delivered a
+     * frame or more after it, so it comes from shortly before the compared frame
+     */
+    public void setNativeFrameTime(double milliseconds) {
+        nativeFrameMs = milliseconds;
+    }
+    
+    /**
+     * Set what runs with the report once a quality calibration finishes
+     */
+    public void setQualityReportHandler(Consumer<QualityReport> qualityReportHandler) {
+        this.qualityReportHandler = qualityReportHandler != null ? qualityReportHandler : report -> {};
+    }
+    
+    /**
+     * @return The last quality calibration's report, or null if none ran
+     */
+    public QualityReport getQualityReport() {
+        return qualityReport;
+    }
+    
+    /**
+     * Save the next presented frame as a PNG. The frame is read back through
+     * pixel buffers and encoded on a background thread, so it costs no stall.
+     * @return False if the processor isn't running, so the caller should capture some other way
+     */
+    public boolean requestCapture(Path file, AsyncFrameCapture.Listener listener) {
+        if (!initialized || !config.isEnabled()) return false;
+        frameCapture.request(file, listener);
+        return true;
+    }
+    
+    /**
+     * @return The stored timings in use, or null if the GPU hasn't been calibrated
+     */
+    public FSRAutoTuner.Result getTuning() {
+        return tuning;
+    }
+    
+    /**
+     * Count errors reported by the driver's debug callback as failed frames.
+     * Without a monitor, texture creation falls back to polling glGetError.
+     */
+    public void setDebugMonitor(GLDebugMonitor debugMonitor) {
+        this.debugMonitor = debugMonitor;
+    }
+    
+    /**
+     * Load shader sources from a directory instead of the jar and recompile them
+     * whenever a file there changes. Files missing from the directory still come
+     * from the jar, so it only needs the shaders being worked on.
+     * @param directory The directory, or null to go back to the bundled shaders
+     */
+    public void setShaderDirectory(Path directory) {
+        if (shaderWatcher != null) {
+            shaderWatcher.stop();
+            shaderWatcher = null;
+        }
+        if (directory == null) return;
+        
+        if (!Files.isDirectory(directory)) {
+            AMDium.LOGGER.error("Shader directory " + directory + " does not exist, using bundled shaders");
+            return;
+        }
+        
+        ShaderSourceWatcher watcher = new ShaderSourceWatcher(directory);
+        try {
+            watcher.start();
+            shaderWatcher = watcher;
+        } catch (IOException e) {
+            AMDium.LOGGER.error("Failed to watch shader directory " + directory, e);
+        }
+    }
+    
     /**
      * Get the maximum texture size supported by the GPU
      */
     private int getMaxTextureSize() {
         if (maxTextureSize == -1) {
-            maxTextureSize = GL11.glGetInteger(GL11.GL_MAX_TEXTURE_SIZE);
+            maxTextureSize = gpu.getInteger(GL11.GL_MAX_TEXTURE_SIZE);
             AMDium.LOGGER.info("Maximum texture size: " + maxTextureSize);
         }
         return maxTextureSize;
     }
     
+    /**
+     * Split the display into tiles if it's larger than a texture can be. Tiles
+     * are as even as possible, and each one plus its apron fits in a texture.
+     */
+    private void planTiles() {
+        int maxSize = getMaxTextureSize();
+        boolean wasTiled = tiled;
+        tiled = displayWidth > maxSize || displayHeight > maxSize;
+        if (!tiled) {
+            tileWidth = displayWidth;
+            tileHeight = displayHeight;
+        } else {
+            int columns = (displayWidth + maxSize - 2 * TILE_APRON - 1) / (maxSize - 2 * TILE_APRON);
+            int rows = (displayHeight + maxSize - 2 * TILE_APRON - 1) / (maxSize - 2 * TILE_APRON);
+            tileWidth = (displayWidth + columns - 1) / columns;
+            tileHeight = (displayHeight + rows - 1) / rows;
+            AMDium.LOGGER.info("Display " + displayWidth + "x" + displayHeight + " exceeds the maximum texture size " +
+                               maxSize + ", upscaling in " + columns + "x" + rows + " tiles of " +
+                               tileWidth + "x" + tileHeight + " with EASU + RCAS");
+        }
+        if (wasTiled && !tiled) {
+            AMDium.LOGGER.info("Display fits in a texture again, upscaling without tiles");
+        }
+        setTile(0, 0, tileWidth, tileHeight);
+    }
+    
+    private void setTile(int x, int y, int width, int height) {
+        tileX = x;
+        tileY = y;
+        currentTileWidth = width;
+        currentTileHeight = height;
+    }
+    
     /**
      * Validate texture dimensions to ensure they're within GPU limits
      */
@@ -84,6 +388,34 @@ public class FSRProcessor {
         return true;
     }
     
+    /**
+     * Check whether the calls since the last check raised a GL error. With an
+     * asynchronous debug monitor the answer isn't known yet, so this only
+     * reports errors in synchronous mode and leaves the rest to processFrame.
+     */
+    private boolean hasGLError() {
+        if (debugMonitor == null) {
+            return gpu.getError() != GL11.GL_NO_ERROR;
+        }
+        return debugMonitor.isSynchronous() && debugMonitor.takeErrorCount() > 0;
+    }
+    
+    /**
+     * Open the debug group the monitor attributes errors to FSR by. Every entry
+     * point that issues GL work runs inside one, closed with {@link #popDebugScope()}.
+     */
+    private void pushDebugScope() {
+        if (debugMonitor != null) {
+            gpu.pushDebugGroup(GLDebugMonitor.SCOPE_ID, GLDebugMonitor.SCOPE_NAME);
+        }
+    }
+    
+    private void popDebugScope() {
+        if (debugMonitor != null) {
+            gpu.popDebugGroup();
+        }
+    }
+    
     /**
      * Create a texture with validation and error handling
      */
@@ -92,63 +424,80 @@ public class FSRProcessor {
             return 0;
         }
         
-        int texture = GL11.glGenTextures();
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+        int texture = gpu.genTexture();
+        gpu.bindTexture(texture);
         
         try {
             // Allocate texture storage
-            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, internalFormat, width, height, 0, format, type, (ByteBuffer) null);
+            gpu.texImage2D(internalFormat, width, height, format, type);
             
             // Set texture parameters for FSR
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
+            gpu.texParameteri(GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+            gpu.texParameteri(GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+            gpu.texParameteri(GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
+            gpu.texParameteri(GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
             
             // Check for OpenGL errors
-            int error = GL11.glGetError();
-            if (error != GL11.GL_NO_ERROR) {
-                AMDium.LOGGER.error("OpenGL error creating texture: " + error);
-                GL11.glDeleteTextures(texture);
+            if (hasGLError()) {
+                AMDium.LOGGER.error("OpenGL error creating texture");
+                gpu.deleteTexture(texture);
                 return 0;
             }
             
-            AMDium.LOGGER.debug("Created texture " + texture + " with dimensions " + width + "x" + height);
+            if (AMDium.LOGGER.isDebugEnabled()) {
+                AMDium.LOGGER.debug("Created texture " + texture + " with dimensions " + width + "x" + height);
+            }
             return texture;
         } catch (Exception e) {
             AMDium.LOGGER.error("Failed to create texture", e);
-            GL11.glDeleteTextures(texture);
+            gpu.deleteTexture(texture);
             return 0;
         } finally {
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+            gpu.bindTexture(0);
         }
     }
     
+    /**
+     * Initialize at the current window size
+     */
     public void initialize() {
+        MinecraftClient mc = MinecraftClient.getInstance();
+        initialize(mc.getWindow().getWidth(), mc.getWindow().getHeight());
+    }
+    
+    public void initialize(int width, int height) {
         if (initialized) {
             AMDium.LOGGER.warn("FSR Processor already initialized");
             return;
         }
         
+        pushDebugScope();
+        try {
+            initializeResources(width, height);
+        } finally {
+            popDebugScope();
+        }
+    }
+    
+    private void initializeResources(int width, int height) {
         try {
             AMDium.LOGGER.info("Initializing FSR Processor");
             
             // Get display and render dimensions
-            MinecraftClient mc = MinecraftClient.getInstance();
-            displayWidth = mc.getWindow().getWidth();
-            displayHeight = mc.getWindow().getHeight();
+            displayWidth = width;
+            displayHeight = height;
             
-            // Calculate render dimensions based on scaling factor
-            float scalingFactor = AMDium.getInstance().getConfig().getScalingFactor();
-            renderWidth = Math.round(displayWidth * scalingFactor);
-            renderHeight = Math.round(displayHeight * scalingFactor);
+            // Same sizes resizeBuffers and the frame hooks plan, so the first frame doesn't resize
+            renderWidth = ResolutionPlanner.renderWidth(displayWidth, config.getQualityMode());
+            renderHeight = ResolutionPlanner.renderHeight(displayHeight, config.getQualityMode());
             
             AMDium.LOGGER.info("FSR dimensions: " + renderWidth + "x" + renderHeight + 
                               " -> " + displayWidth + "x" + displayHeight);
             
-            // Validate dimensions
+            // Validate dimensions; a display larger than a texture is handled with tiles
+            planTiles();
             if (!validateTextureDimensions(renderWidth, renderHeight) || 
-                !validateTextureDimensions(displayWidth, displayHeight)) {
+                !validateTextureDimensions(tileWidth, tileHeight)) {
                 AMDium.LOGGER.error("Invalid dimensions for FSR");
                 return;
             }
@@ -159,6 +508,15 @@ public class FSRProcessor {
             }
             
             // Compile shaders
+            if (shaderWatcher == null) {
+                setShaderDirectory(config.getShaderDirectory());
+            }
+            if (supportedPrecision == null) {
+                supportedPrecision = ShaderPrecision.detect(gpu);
+            }
+            if (autoTuner != null && config.isAutoTune() && tuning == null) {
+                loadTuning();
+            }
             if (!shadersCompiled) {
                 try {
                     compileShaders();
@@ -185,7 +543,8 @@ public class FSRProcessor {
             }
             
             // Set initial sharpness from config
-            sharpness = AMDium.getInstance().getConfig().getSharpness();
+            sharpness = config.getSharpness();
+            appliedQualityMode = config.getQualityMode();
             
             initialized = true;
             AMDium.LOGGER.info("FSR Processor initialized successfully");
@@ -196,32 +555,45 @@ public class FSRProcessor {
     }
     
     public void cleanup() {
+        // The quad can outlive a failed initialization, so it's released either way
+        cleanupQuad();
+        setShaderDirectory(null);
         if (!initialized) return;
         
         try {
             // Make sure we're not in the middle of rendering
-            GL30.glFinish();
+            gpu.finish();
+            
+            // Every readback is done after the finish, so pending screenshots still get written
+            frameCapture.delete();
             
             // Delete shader programs if they exist
-            if (fsr1ShaderProgram > 0) {
-                GL20.glDeleteProgram(fsr1ShaderProgram);
-                fsr1ShaderProgram = 0;
+            if (upscaler != null) {
+                upscaler.delete(gpu);
+                upscaler = null;
+            }
+            if (skyMaskShaderProgram > 0) {
+                gpu.deleteProgram(skyMaskShaderProgram);
+                skyMaskShaderProgram = 0;
             }
+            skyMaskUniforms = ShaderUniforms.NONE;
+            shadersCompiled = false;
             
             // Delete framebuffers if they exist
             deleteFramebuffer(inputFramebuffer);
-            deleteFramebuffer(upscaledFramebuffer);
             deleteFramebuffer(outputFramebuffer);
-            deleteFramebuffer(depthTexture);
+            deleteRenderbuffer(outputStencilBuffer);
+            outputStencilBuffer = 0;
+            deleteIntermediateTarget();
+            deleteHorizontalTarget();
             
             // Delete textures if they exist
             deleteTexture(inputTexture);
-            deleteTexture(upscaledTexture);
             deleteTexture(outputTexture);
             deleteTexture(depthTexture);
             
             // Reset to default framebuffer
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
             
             // Reset state
             initialized = false;
@@ -230,29 +602,41 @@ public class FSRProcessor {
         } catch (Exception e) {
             AMDium.LOGGER.error("Error during FSR processor cleanup", e);
             // Make sure we're on the default framebuffer even if cleanup fails
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
         }
     }
     
     private void deleteFramebuffer(int framebuffer) {
-        if (framebuffer > 0 && GL30.glIsFramebuffer(framebuffer)) {
-            GL30.glDeleteFramebuffers(framebuffer);
+        if (framebuffer > 0 && gpu.isFramebuffer(framebuffer)) {
+            gpu.deleteFramebuffer(framebuffer);
         }
     }
     
     private void deleteTexture(int texture) {
-        if (texture > 0 && GL11.glIsTexture(texture)) {
-            GL11.glDeleteTextures(texture);
+        if (texture > 0 && gpu.isTexture(texture)) {
+            gpu.deleteTexture(texture);
+        }
+    }
+    
+    private void deleteRenderbuffer(int renderbuffer) {
+        if (renderbuffer > 0 && gpu.isRenderbuffer(renderbuffer)) {
+            gpu.deleteRenderbuffer(renderbuffer);
         }
     }
     
     public void resizeBuffers(int width, int height) {
+        pushDebugScope();
+        try {
+            resizeBuffers(width, height, config.getQualityMode());
+        } finally {
+            popDebugScope();
+        }
+    }
+    
+    private void resizeBuffers(int width, int height, FSRQualityMode qualityMode) {
         if (!initialized) return;
         
         try {
-            AMDiumConfig config = AMDium.getInstance().getConfig();
-            FSRQualityMode qualityMode = config.getQualityMode();
-            
             // Store old values to check if we actually need to resize
             int oldDisplayWidth = displayWidth;
             int oldDisplayHeight = displayHeight;
@@ -262,8 +646,9 @@ public class FSRProcessor {
             // Calculate new dimensions
             displayWidth = width;
             displayHeight = height;
-            renderWidth = qualityMode.calculateRenderWidth(width);
-            renderHeight = qualityMode.calculateRenderHeight(height);
+            renderWidth = ResolutionPlanner.renderWidth(width, qualityMode);
+            renderHeight = ResolutionPlanner.renderHeight(height, qualityMode);
+            appliedQualityMode = qualityMode;
             
             // Only recreate framebuffers if dimensions have actually changed
             if (oldDisplayWidth != displayWidth || oldDisplayHeight != displayHeight ||
@@ -271,26 +656,32 @@ public class FSRProcessor {
                 
                 // Delete old framebuffers and textures
                 deleteFramebuffer(inputFramebuffer);
-                deleteFramebuffer(upscaledFramebuffer);
                 deleteFramebuffer(outputFramebuffer);
-                deleteFramebuffer(depthTexture);
+                deleteRenderbuffer(outputStencilBuffer);
+                deleteIntermediateTarget();
+                deleteHorizontalTarget();
                 
                 deleteTexture(inputTexture);
-                deleteTexture(upscaledTexture);
                 deleteTexture(outputTexture);
                 deleteTexture(depthTexture);
                 
                 // Reset framebuffer and texture IDs
                 inputFramebuffer = 0;
-                upscaledFramebuffer = 0;
                 outputFramebuffer = 0;
+                outputStencilBuffer = 0;
                 depthTexture = 0;
                 
                 inputTexture = 0;
-                upscaledTexture = 0;
                 outputTexture = 0;
                 depthTexture = 0;
                 
+                // Crossing the texture size limit changes the tiling, and with it the upscaler
+                planTiles();
+                String id = resolveUpscalerId();
+                if (upscaler != null && !id.equals(upscalerId)) {
+                    switchUpscaler(id);
+                }
+                
                 // Create new framebuffers with the new size
                 createFramebuffers();
                 
@@ -300,77 +691,485 @@ public class FSRProcessor {
         } catch (Exception e) {
             AMDium.LOGGER.error("Error resizing FSR buffers", e);
             // Reset to default framebuffer if there's an error
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+        }
+    }
+    
+    /**
+     * Bring the processor in line with the config after a settings change, redoing
+     * only what the changed settings need instead of a full restart: sharpness is
+     * just a uniform, a quality mode change resizes the targets and an upscaler
+     * change swaps programs. Everything else is read from the config every frame.
+     */
+    public void applyConfigChanges() {
+        if (!initialized) return;
+        
+        // Picked up by the next frame's uniform upload
+        sharpness = config.getSharpness();
+        
+        Path shaderDirectory = config.getShaderDirectory();
+        if (!Objects.equals(shaderDirectory, shaderWatcher != null ? shaderWatcher.getDirectory() : null)) {
+            setShaderDirectory(shaderDirectory);
+            reloadShaders();
+        }
+        
+        if (getShaderPrecision() != compiledPrecision) {
+            AMDium.LOGGER.info("Switching shader precision: " + compiledPrecision + " -> " + getShaderPrecision());
+            reloadShaders();
+        }
+        
+        String id = resolveUpscalerId();
+        if (!id.equals(upscalerId)) {
+            switchUpscaler(id);
+        }
+        
+        if (config.getQualityMode() != appliedQualityMode) {
+            AMDium.LOGGER.info("Switching quality mode: " + appliedQualityMode + " -> " + config.getQualityMode());
+            resizeBuffers(displayWidth, displayHeight);
+        }
+    }
+    
+    /**
+     * @return The config's upscaler override if it names a registered upscaler,
+     *         otherwise the one its FSR type selects; EASU + RCAS while tiled
+     */
+    private String resolveUpscalerId() {
+        if (tiled) {
+            return TILED_UPSCALER;
+        }
+        String override = config.getUpscaler();
+        if (!override.isEmpty()) {
+            if (UPSCALERS.containsKey(override)) {
+                return override;
+            }
+            AMDium.LOGGER.warn("Unknown upscaler '" + override + "', using " + config.getFsrType().getDisplayName());
+        }
+        // FSR 1.0 runs in whichever form the tuner measured as faster on this GPU
+        if (config.getFsrType() == FSRType.FSR_1 && config.isAutoTune() && tuning != null &&
+            UPSCALERS.containsKey(tuning.getUpscaler())) {
+            String tuned = tuning.getUpscaler();
+            if (!tuned.equals(FSRType.FSR_1.getUpscalerId()) && usesFusedOnlyFeatures()) {
+                AMDium.LOGGER.info("Not switching to the tuned " + tuned + ": only the fused FSR 1.0 pass " +
+                                   "does depth-guided edges and luma-only EASU, which are turned on");
+                return FSRType.FSR_1.getUpscalerId();
+            }
+            return tuned;
+        }
+        return config.getFsrType().getUpscalerId();
+    }
+    
+    /**
+     * @return Whether a setting is on that only Fsr1Upscaler honours, so the
+     *         two-pass form would quietly drop it
+     */
+    private boolean usesFusedOnlyFeatures() {
+        return config.isDepthGuidedEdges() || config.isLumaEasu(config.getQualityMode());
+    }
+    
+    /**
+     * Create and compile a registered upscaler
+     */
+    private Upscaler createUpscaler(String id) throws IOException {
+        Supplier<? extends Upscaler> factory = UPSCALERS.get(id);
+        if (factory == null) {
+            throw new IOException("No upscaler registered as '" + id + "'");
+        }
+        
+        Upscaler created = factory.get();
+        try {
+            created.compile(upscalerContext);
+            return created;
+        } catch (IOException | RuntimeException e) {
+            created.delete(gpu);
+            throw e;
         }
     }
     
+    /**
+     * Swap in another upscaler, allocating or freeing the optional targets as it
+     * requires. If it fails to compile, the current one stays in use.
+     */
+    private void switchUpscaler(String id) {
+        AMDium.LOGGER.info("Switching upscaler: " + upscalerId + " -> " + id);
+        Upscaler next;
+        try {
+            next = createUpscaler(id);
+        } catch (Exception e) {
+            AMDium.LOGGER.error("Failed to prepare upscaler " + id + ", keeping " + upscalerId, e);
+            return;
+        }
+        
+        try {
+            createUpscalerTargets(next);
+        } catch (Exception e) {
+            AMDium.LOGGER.error("Failed to create the render targets for " + id + ", keeping " + upscalerId, e);
+            deleteUnusedTargets(upscaler);
+            next.delete(gpu);
+            return;
+        } finally {
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+            gpu.bindTexture(0);
+        }
+        deleteUnusedTargets(next);
+        
+        upscaler.delete(gpu);
+        upscaler = next;
+        upscalerId = id;
+    }
+    
+    private void loadTuning() {
+        if (!FSRAutoTuner.isSupported(gpu)) {
+            AMDium.LOGGER.info("GPU timer queries not available, FSR auto-tuning disabled");
+            return;
+        }
+        
+        String key = FSRAutoTuner.gpuKey(gpu);
+        tuning = autoTuner.lookup(key);
+        if (tuning != null) {
+            AMDium.LOGGER.info("Using FSR tuning for " + key + ": " + tuning);
+        } else {
+            AMDium.LOGGER.info("No FSR tuning for " + key + " yet, calibrating on the first frame");
+            calibrationRequested = true;
+        }
+    }
+    
+    /**
+     * Time every FSR 1.0 variant this GPU can run on a synthetic frame, then
+     * switch to the fastest and store it for this GPU and driver
+     */
+    private void runCalibration() {
+        if (!FSRAutoTuner.isSupported(gpu)) {
+            AMDium.LOGGER.warn("GPU timer queries not available, can't calibrate FSR");
+            return;
+        }
+        
+        String key = FSRAutoTuner.gpuKey(gpu);
+        AMDium.LOGGER.info("Calibrating FSR variants for " + key);
+        
+        ShaderPrecision[] precisions;
+        if (supportedPrecision != null && supportedPrecision.isHalf() && config.isHalfPrecision() && !halfPrecisionFailed) {
+            precisions = new ShaderPrecision[] {ShaderPrecision.FP32, supportedPrecision};
+        } else {
+            precisions = new ShaderPrecision[] {ShaderPrecision.FP32};
+        }
+        
+        FSRAutoTuner.Result result = new FSRAutoTuner.Result();
+        boolean depthTestWasEnabled = gpu.isEnabled(GL11.GL_DEPTH_TEST);
+        gpu.disable(GL11.GL_DEPTH_TEST);
+        try {
+            uploadSyntheticFrame();
+            for (String id : TUNED_UPSCALERS) {
+                for (ShaderPrecision precision : precisions) {
+                    timeVariant(result, id, precision);
+                }
+            }
+        } finally {
+            // The active upscaler may not need the targets the candidates did
+            deleteUnusedTargets(upscaler);
+            gpu.useProgram(0);
+            gpu.bindTexture(0);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+            if (depthTestWasEnabled) {
+                gpu.enable(GL11.GL_DEPTH_TEST);
+            }
+        }
+        
+        if (!result.hasWinner()) {
+            AMDium.LOGGER.warn("No FSR variant could be timed, keeping " + upscalerId);
+            return;
+        }
+        autoTuner.store(key, result);
+        tuning = result;
+        AMDium.LOGGER.info("FSR calibration finished, fastest: " + result);
+        
+        // Swaps in the winner if it isn't already active
+        applyConfigChanges();
+    }
+    
+    private void timeVariant(FSRAutoTuner.Result result, String id, ShaderPrecision precision) {
+        calibrationPrecision = precision;
+        Upscaler candidate = null;
+        try {
+            candidate = createUpscaler(id);
+            createUpscalerTargets(candidate);
+            
+            Upscaler timed = candidate;
+            double milliseconds = FSRAutoTuner.measure(gpu, () -> {
+                gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, outputFramebuffer);
+                gpu.viewport(0, 0, displayWidth, displayHeight);
+                if (!timed.render(upscalerContext)) {
+                    throw new IllegalStateException(timed.getDisplayName() + " failed to render");
+                }
+            });
+            result.addTiming(id, precision, milliseconds);
+            AMDium.LOGGER.info(String.format("FSR variant %s %s: %.3f ms", id, precision, milliseconds));
+        } catch (Exception e) {
+            AMDium.LOGGER.warn("Skipping FSR variant " + id + " " + precision + ": " + e.getMessage());
+        } finally {
+            calibrationPrecision = null;
+            if (candidate != null) {
+                candidate.delete(gpu);
+            }
+        }
+    }
+    
+    /**
+     * Score every quality mode against the source frame at display resolution.
+     * Each mode's input is filled by copySourceToInput, exactly as processFrame
+     * fills it, so the whole comparison comes from one frame, the scene can't
+     * change in between, and the scores describe what the runtime upscales.
+     */
+    private void runQualityCalibration(int sourceFramebuffer) {
+        AMDium.LOGGER.info("Comparing FSR quality modes against a native " + displayWidth + "x" + displayHeight + " frame");
+        
+        // The source's depth is cleared by now and resizing drops the captured copy,
+        // so the modes are compared without the sky mask and depth-guided edges
+        sceneDepthCaptured = false;
+        
+        FSRQualityMode configuredMode = appliedQualityMode;
+        boolean timed = FSRAutoTuner.isSupported(gpu);
+        QualityReport report = new QualityReport(displayWidth, displayHeight, nativeFrameMs);
+        // Freed below rather than left to the collector, they are display-sized
+        ByteBuffer reference = MemoryUtil.memAlloc(displayWidth * displayHeight * 4);
+        ByteBuffer upscaled = MemoryUtil.memAlloc(displayWidth * displayHeight * 4);
+        
+        boolean depthTestWasEnabled = gpu.isEnabled(GL11.GL_DEPTH_TEST);
+        gpu.disable(GL11.GL_DEPTH_TEST);
+        try {
+            gpu.bindFramebuffer(GL30.GL_READ_FRAMEBUFFER, sourceFramebuffer);
+            gpu.readPixels(0, 0, displayWidth, displayHeight, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, reference);
+            
+            for (FSRQualityMode mode : FSRQualityMode.values()) {
+                resizeBuffers(displayWidth, displayHeight, mode);
+                if (!copySourceToInput(sourceFramebuffer)) {
+                    throw new IllegalStateException("Couldn't copy the source frame into the " + mode.getDisplayName() + " input");
+                }
+                
+                Runnable pass = () -> {
+                    gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, outputFramebuffer);
+                    gpu.viewport(0, 0, displayWidth, displayHeight);
+                    if (!upscaler.render(upscalerContext)) {
+                        throw new IllegalStateException(upscaler.getDisplayName() + " failed to render");
+                    }
+                };
+                double upscaleMs = Double.NaN;
+                if (timed) {
+                    upscaleMs = FSRAutoTuner.measure(gpu, pass);
+                } else {
+                    pass.run();
+                }
+                
+                gpu.bindFramebuffer(GL30.GL_READ_FRAMEBUFFER, outputFramebuffer);
+                gpu.readPixels(0, 0, displayWidth, displayHeight, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, upscaled);
+                
+                report.add(mode, renderWidth, renderHeight, ImageQuality.compare(reference, upscaled, displayWidth, displayHeight), upscaleMs);
+            }
+        } catch (Exception e) {
+            AMDium.LOGGER.error("FSR quality calibration failed", e);
+            return;
+        } finally {
+            MemoryUtil.memFree(reference);
+            MemoryUtil.memFree(upscaled);
+            resizeBuffers(displayWidth, displayHeight, configuredMode);
+            gpu.useProgram(0);
+            gpu.bindTexture(0);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+            if (depthTestWasEnabled) {
+                gpu.enable(GL11.GL_DEPTH_TEST);
+            }
+        }
+        
+        AMDium.LOGGER.info(report.describeMethod());
+        for (QualityReport.Entry entry : report.getEntries()) {
+            AMDium.LOGGER.info("  " + entry);
+        }
+        qualityReport = report;
+        
+        QualityReport.Entry recommended = report.recommend(config.getQualityThreshold());
+        if (recommended == null) {
+            AMDium.LOGGER.info(String.format("No quality mode reaches SSIM %.3f, keeping %s",
+                                             config.getQualityThreshold(), configuredMode.getDisplayName()));
+        } else {
+            AMDium.LOGGER.info("Recommended quality mode: " + recommended.getMode().getDisplayName());
+            if (config.isAutoSelectQuality() && recommended.getMode() != config.getQualityMode()) {
+                config.setQualityMode(recommended.getMode());
+                config.save();
+                applyConfigChanges();
+            }
+        }
+        qualityReportHandler.accept(report);
+    }
+    
+    /**
+     * Fill the input with a stand-in for a game frame: 16-texel blocks of varied
+     * color with fine detail inside, so the edge paths run as they would in game
+     */
+    private void uploadSyntheticFrame() {
+        ByteBuffer pixels = ByteBuffer.allocateDirect(renderWidth * renderHeight * 4).order(ByteOrder.nativeOrder());
+        for (int y = 0; y < renderHeight; y++) {
+            for (int x = 0; x < renderWidth; x++) {
+                int block = (x >> 4) * 73856093 ^ (y >> 4) * 19349663;
+                int detail = ((x * 31 + y * 17) & 15) * 4;
+                pixels.put((byte) ((block & 0xBF) + detail));
+                pixels.put((byte) (((block >> 8) & 0xBF) + detail));
+                pixels.put((byte) (((block >> 16) & 0xBF) + detail));
+                pixels.put((byte) 0xFF);
+            }
+        }
+        pixels.flip();
+        
+        gpu.bindTexture(inputTexture);
+        gpu.texSubImage2D(0, 0, renderWidth, renderHeight, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, pixels);
+        gpu.bindTexture(0);
+    }
+    
     private void createFramebuffers() {
         try {
             // Make sure dimensions are valid
             if (!validateTextureDimensions(renderWidth, renderHeight) || 
-                !validateTextureDimensions(displayWidth, displayHeight)) {
+                !validateTextureDimensions(tileWidth, tileHeight)) {
                 throw new IllegalStateException("Invalid framebuffer dimensions: " + 
                                               renderWidth + "x" + renderHeight + " -> " + 
                                               displayWidth + "x" + displayHeight);
             }
             
             // Input framebuffer (low resolution)
-            inputFramebuffer = GL30.glGenFramebuffers();
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, inputFramebuffer);
+            inputFramebuffer = gpu.genFramebuffer();
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, inputFramebuffer);
             
             inputTexture = createTexture(renderWidth, renderHeight, GL30.GL_RGBA16F, GL11.GL_RGBA, GL11.GL_FLOAT);
             if (inputTexture == 0) {
                 throw new RuntimeException("Failed to create input texture");
             }
-            GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, GL11.GL_TEXTURE_2D, inputTexture, 0);
+            gpu.framebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, inputTexture);
             
-            depthTexture = createTexture(renderWidth, renderHeight, GL30.GL_DEPTH_COMPONENT24, GL11.GL_DEPTH_COMPONENT, GL11.GL_FLOAT);
+            // Same unsized format Minecraft uses for its own depth attachment, so the
+            // depth blit from the main framebuffer passes the format-match check
+            depthTexture = createTexture(renderWidth, renderHeight, GL11.GL_DEPTH_COMPONENT, GL11.GL_DEPTH_COMPONENT, GL11.GL_FLOAT);
             if (depthTexture == 0) {
                 throw new RuntimeException("Failed to create depth texture");
             }
-            GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_DEPTH_ATTACHMENT, GL11.GL_TEXTURE_2D, depthTexture, 0);
+            // Depth is compared against the far plane, never filtered
+            gpu.bindTexture(depthTexture);
+            gpu.texParameteri(GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+            gpu.texParameteri(GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+            gpu.bindTexture(0);
+            gpu.framebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_DEPTH_ATTACHMENT, depthTexture);
             
             checkFramebufferStatus("Input framebuffer");
             
-            // Upscaled framebuffer (high resolution)
-            upscaledFramebuffer = GL30.glGenFramebuffers();
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, upscaledFramebuffer);
-            
-            upscaledTexture = createTexture(displayWidth, displayHeight, GL30.GL_RGBA16F, GL11.GL_RGBA, GL11.GL_FLOAT);
-            if (upscaledTexture == 0) {
-                throw new RuntimeException("Failed to create upscaled texture");
+            // Upscaled and horizontal framebuffers, for upscalers with more than one pass
+            if (upscaler != null) {
+                createUpscalerTargets(upscaler);
             }
-            GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, GL11.GL_TEXTURE_2D, upscaledTexture, 0);
             
-            checkFramebufferStatus("Upscaled framebuffer");
+            // Output framebuffer (final result), one tile of it when tiled
+            outputFramebuffer = gpu.genFramebuffer();
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, outputFramebuffer);
             
-            // Output framebuffer (final result)
-            outputFramebuffer = GL30.glGenFramebuffers();
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, outputFramebuffer);
-            
-            outputTexture = createTexture(displayWidth, displayHeight, GL30.GL_RGBA16F, GL11.GL_RGBA, GL11.GL_FLOAT);
+            outputTexture = createTexture(tileWidth, tileHeight, GL30.GL_RGBA16F, GL11.GL_RGBA, GL11.GL_FLOAT);
             if (outputTexture == 0) {
                 throw new RuntimeException("Failed to create output texture");
             }
-            GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, GL11.GL_TEXTURE_2D, outputTexture, 0);
+            gpu.framebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, outputTexture);
+            
+            // Stencil for the sky mask (depth is unused but DEPTH24_STENCIL8 is the
+            // combination every driver supports as a renderbuffer)
+            outputStencilBuffer = gpu.genRenderbuffer();
+            gpu.bindRenderbuffer(outputStencilBuffer);
+            gpu.renderbufferStorage(GL30.GL_DEPTH24_STENCIL8, tileWidth, tileHeight);
+            gpu.bindRenderbuffer(0);
+            gpu.framebufferRenderbuffer(GL30.GL_FRAMEBUFFER, GL30.GL_DEPTH_STENCIL_ATTACHMENT, outputStencilBuffer);
             
             checkFramebufferStatus("Output framebuffer");
             
             // Reset to default framebuffer
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+            gpu.bindTexture(0);
         } catch (Exception e) {
             AMDium.LOGGER.error("Error creating framebuffers", e);
             // Clean up any resources that were created
             cleanup();
             // Reset to default framebuffer
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
             throw e;
         }
     }
     
+    /**
+     * Allocate the optional targets an upscaler needs that don't exist yet
+     */
+    private void createUpscalerTargets(Upscaler target) {
+        if (target.needsIntermediateTarget() && upscaledFramebuffer <= 0) {
+            createIntermediateTarget();
+        }
+        if (target.needsHorizontalTarget() && horizontalFramebuffer <= 0) {
+            createHorizontalTarget();
+        }
+    }
+    
+    /**
+     * Free the optional targets an upscaler doesn't use
+     */
+    private void deleteUnusedTargets(Upscaler target) {
+        if (!target.needsIntermediateTarget()) {
+            deleteIntermediateTarget();
+        }
+        if (!target.needsHorizontalTarget()) {
+            deleteHorizontalTarget();
+        }
+    }
+    
+    private void createIntermediateTarget() {
+        upscaledFramebuffer = gpu.genFramebuffer();
+        gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, upscaledFramebuffer);
+        
+        upscaledTexture = createTexture(getIntermediateWidth(), getIntermediateHeight(), GL30.GL_RGBA16F, GL11.GL_RGBA, GL11.GL_FLOAT);
+        if (upscaledTexture == 0) {
+            throw new RuntimeException("Failed to create upscaled texture");
+        }
+        gpu.framebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, upscaledTexture);
+        
+        checkFramebufferStatus("Upscaled framebuffer");
+    }
+    
+    private int getIntermediateWidth() {
+        return tiled ? tileWidth + 2 * TILE_APRON : displayWidth;
+    }
+    
+    private int getIntermediateHeight() {
+        return tiled ? tileHeight + 2 * TILE_APRON : displayHeight;
+    }
+    
+    private void deleteIntermediateTarget() {
+        deleteFramebuffer(upscaledFramebuffer);
+        deleteTexture(upscaledTexture);
+        upscaledFramebuffer = 0;
+        upscaledTexture = 0;
+    }
+    
+    private void createHorizontalTarget() {
+        horizontalFramebuffer = gpu.genFramebuffer();
+        gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, horizontalFramebuffer);
+        
+        horizontalTexture = createTexture(displayWidth, renderHeight, GL30.GL_RGBA16F, GL11.GL_RGBA, GL11.GL_FLOAT);
+        if (horizontalTexture == 0) {
+            throw new RuntimeException("Failed to create horizontal texture");
+        }
+        gpu.framebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, horizontalTexture);
+        
+        checkFramebufferStatus("Horizontal framebuffer");
+    }
+    
+    private void deleteHorizontalTarget() {
+        deleteFramebuffer(horizontalFramebuffer);
+        deleteTexture(horizontalTexture);
+        horizontalFramebuffer = 0;
+        horizontalTexture = 0;
+    }
+    
     private void checkFramebufferStatus(String framebufferName) {
-        int status = GL30.glCheckFramebufferStatus(GL30.GL_FRAMEBUFFER);
+        int status = gpu.checkFramebufferStatus(GL30.GL_FRAMEBUFFER);
         if (status != GL30.GL_FRAMEBUFFER_COMPLETE) {
             String errorMsg = "Framebuffer incomplete: " + framebufferName + ", status: " + getFramebufferStatusString(status);
             AMDium.LOGGER.error(errorMsg);
@@ -392,47 +1191,157 @@ public class FSRProcessor {
     }
     
     private void compileShaders() throws IOException {
-        // Load only the basic FSR 1.0 shader with enhanced error handling
         try {
-            // Load basic FSR 1.0 shader (combined upscaling and sharpening)
-            fsr1ShaderProgram = createShaderProgram("/assets/amdium/shaders/fsr1.vert", "/assets/amdium/shaders/fsr1.frag");
-            AMDium.LOGGER.info("FSR 1.0 basic shader compiled successfully");
+            // The upscaler selected in the config
+            upscalerId = resolveUpscalerId();
+            upscaler = createUpscaler(upscalerId);
+            AMDium.LOGGER.info(upscaler.getDisplayName() + " shaders compiled successfully");
+            logShaderPrecision();
+            
+            // The sky mask is optional - without it every pixel goes through EASU/RCAS
+            try {
+                skyMaskShaderProgram = createShaderProgram("/assets/amdium/shaders/fsr_sky_mask.vert", "/assets/amdium/shaders/fsr_sky_mask.frag");
+                skyMaskUniforms = ShaderUniforms.lookup(gpu, skyMaskShaderProgram);
+                AMDium.LOGGER.info("Sky mask shader compiled successfully");
+            } catch (Exception e) {
+                AMDium.LOGGER.warn("Failed to compile sky mask shader, sky early-out disabled", e);
+                skyMaskShaderProgram = 0;
+            }
             
+            compiledPrecision = getShaderPrecision();
             shadersCompiled = true;
         } catch (Exception e) {
-            AMDium.LOGGER.error("Failed to compile FSR 1.0 shader", e);
+            AMDium.LOGGER.error("Failed to compile shaders for upscaler " + upscalerId, e);
             throw new IOException("Failed to compile FSR shader", e);
         }
     }
     
+    /**
+     * Recompile every program from the current sources and swap them in. If any
+     * of them fails to compile, all of the old programs stay in use.
+     */
+    private void reloadShaders() {
+        Upscaler newUpscaler = null;
+        int newSkyMask = 0;
+        try {
+            newUpscaler = createUpscaler(upscalerId);
+            if (skyMaskShaderProgram > 0) {
+                newSkyMask = createShaderProgram("/assets/amdium/shaders/fsr_sky_mask.vert", "/assets/amdium/shaders/fsr_sky_mask.frag");
+            }
+        } catch (IOException e) {
+            AMDium.LOGGER.error("Shader reload failed, keeping the previous programs", e);
+            if (newUpscaler != null) {
+                newUpscaler.delete(gpu);
+            }
+            return;
+        }
+        
+        upscaler.delete(gpu);
+        upscaler = newUpscaler;
+        compiledPrecision = getShaderPrecision();
+        if (newSkyMask > 0) {
+            gpu.deleteProgram(skyMaskShaderProgram);
+            skyMaskShaderProgram = newSkyMask;
+            skyMaskUniforms = ShaderUniforms.lookup(gpu, skyMaskShaderProgram);
+        }
+        
+        AMDium.LOGGER.info("Reloaded FSR shaders" + (shaderWatcher != null ? " from " + shaderWatcher.getDirectory() : ""));
+    }
+    
+    /**
+     * The precision new programs are compiled with: the best one the context
+     * supports, unless the config turns half precision off or it failed before
+     */
+    public ShaderPrecision getShaderPrecision() {
+        if (calibrationPrecision != null) {
+            return calibrationPrecision;
+        }
+        if (supportedPrecision == null || !config.isHalfPrecision() || halfPrecisionFailed) {
+            return ShaderPrecision.FP32;
+        }
+        // The tuner may have found fp16 slower here
+        if (config.isAutoTune() && tuning != null && !tuning.getPrecision().isHalf()) {
+            return ShaderPrecision.FP32;
+        }
+        return supportedPrecision;
+    }
+    
+    private void logShaderPrecision() {
+        String reason;
+        if (supportedPrecision == null || !supportedPrecision.isHalf()) {
+            reason = "no half-precision shader support";
+        } else if (!config.isHalfPrecision()) {
+            reason = "half precision disabled in the config";
+        } else if (halfPrecisionFailed) {
+            reason = "half-precision shaders failed to compile";
+        } else if (getShaderPrecision() == ShaderPrecision.FP32) {
+            reason = "fp32 measured faster on this GPU";
+        } else {
+            reason = "supported by the driver";
+        }
+        AMDium.LOGGER.info("FSR shader precision: " + getShaderPrecision() + ", " + reason);
+    }
+    
     private int createShaderProgram(String vertexPath, String fragmentPath) throws IOException {
+        return createShaderProgram(vertexPath, fragmentPath, "");
+    }
+    
+    /**
+     * Create a shader program at the current precision, falling back to fp32 if
+     * the half-precision variant doesn't compile
+     * @param defines Lines of #define directives, or an empty string
+     */
+    private int createShaderProgram(String vertexPath, String fragmentPath, String defines) throws IOException {
+        // While calibrating, a variant that doesn't compile is skipped rather than replaced
+        ShaderPrecision precision = getShaderPrecision();
+        if (!precision.isHalf() || calibrationPrecision != null) {
+            return createShaderProgram(vertexPath, fragmentPath, defines, precision);
+        }
+        
+        try {
+            return createShaderProgram(vertexPath, fragmentPath, defines, precision);
+        } catch (IOException e) {
+            int program = createShaderProgram(vertexPath, fragmentPath, defines, ShaderPrecision.FP32);
+            
+            // Only a driver problem if the fp32 variant of the same source is fine
+            AMDium.LOGGER.warn("Half-precision build of " + fragmentPath + " failed, using fp32 shaders from now on: " + e.getMessage());
+            halfPrecisionFailed = true;
+            return program;
+        }
+    }
+    
+    /**
+     * Create a shader program, injecting preprocessor defines into both stages
+     * @param defines Lines of #define directives, or an empty string
+     */
+    private int createShaderProgram(String vertexPath, String fragmentPath, String defines, ShaderPrecision precision) throws IOException {
         int vertexShader = 0;
         int fragmentShader = 0;
         int program = 0;
         
         try {
             // Load and compile vertex shader
-            vertexShader = loadShader(vertexPath, GL20.GL_VERTEX_SHADER);
+            vertexShader = loadShader(vertexPath, GL20.GL_VERTEX_SHADER, defines, precision);
             
             // Load and compile fragment shader
-            fragmentShader = loadShader(fragmentPath, GL20.GL_FRAGMENT_SHADER);
+            fragmentShader = loadShader(fragmentPath, GL20.GL_FRAGMENT_SHADER, defines, precision);
             
             // Create and link program
-            program = GL20.glCreateProgram();
-            GL20.glAttachShader(program, vertexShader);
-            GL20.glAttachShader(program, fragmentShader);
-            GL20.glLinkProgram(program);
+            program = gpu.createProgram();
+            gpu.attachShader(program, vertexShader);
+            gpu.attachShader(program, fragmentShader);
+            gpu.linkProgram(program);
             
             // Check for linking errors
-            if (GL20.glGetProgrami(program, GL20.GL_LINK_STATUS) == GL11.GL_FALSE) {
-                String log = GL20.glGetProgramInfoLog(program);
+            if (gpu.getProgrami(program, GL20.GL_LINK_STATUS) == GL11.GL_FALSE) {
+                String log = gpu.getProgramInfoLog(program);
                 throw new RuntimeException("Failed to link shader program: " + log);
             }
             
             // Validate program
-            GL20.glValidateProgram(program);
-            if (GL20.glGetProgrami(program, GL20.GL_VALIDATE_STATUS) == GL11.GL_FALSE) {
-                String log = GL20.glGetProgramInfoLog(program);
+            gpu.validateProgram(program);
+            if (gpu.getProgrami(program, GL20.GL_VALIDATE_STATUS) == GL11.GL_FALSE) {
+                String log = gpu.getProgramInfoLog(program);
                 AMDium.LOGGER.warn("Shader program validation warning: " + log);
                 // Continue despite validation warning, as it might still work
             }
@@ -441,53 +1350,86 @@ public class FSRProcessor {
         } catch (Exception e) {
             // Clean up resources on error
             if (vertexShader > 0) {
-                GL20.glDeleteShader(vertexShader);
+                gpu.deleteShader(vertexShader);
             }
             if (fragmentShader > 0) {
-                GL20.glDeleteShader(fragmentShader);
+                gpu.deleteShader(fragmentShader);
             }
             if (program > 0) {
-                GL20.glDeleteProgram(program);
+                gpu.deleteProgram(program);
             }
             
             throw new IOException("Failed to create shader program: " + e.getMessage(), e);
         } finally {
             // Always delete shaders after linking
             if (vertexShader > 0) {
-                GL20.glDeleteShader(vertexShader);
+                gpu.deleteShader(vertexShader);
             }
             if (fragmentShader > 0) {
-                GL20.glDeleteShader(fragmentShader);
+                gpu.deleteShader(fragmentShader);
+            }
+        }
+    }
+    
+    private int loadShader(String path, int type, String defines, ShaderPrecision precision) throws IOException {
+        String source = precision.apply(readShaderSource(path));
+        source = injectDefines(source, defines);
+        
+        int shader = gpu.createShader(type);
+        try {
+            gpu.shaderSource(shader, source);
+            gpu.compileShader(shader);
+            
+            if (gpu.getShaderi(shader, GL20.GL_COMPILE_STATUS) == GL11.GL_FALSE) {
+                String log = gpu.getShaderInfoLog(shader);
+                throw new RuntimeException("Failed to compile shader: " + log);
             }
+            
+            return shader;
+        } catch (Exception e) {
+            gpu.deleteShader(shader);
+            throw new IOException("Failed to compile shader: " + e.getMessage(), e);
         }
     }
     
-    private int loadShader(String path, int type) throws IOException {
-        String source;
+    /**
+     * Read a shader from the dev directory if it has the file, from the jar otherwise
+     * @param path Resource path, e.g. /assets/amdium/shaders/fsr1.frag
+     */
+    private String readShaderSource(String path) throws IOException {
+        if (shaderWatcher != null) {
+            Path file = shaderWatcher.getDirectory().resolve(path.substring(path.lastIndexOf('/') + 1));
+            if (Files.isRegularFile(file)) {
+                return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            }
+        }
+        
         try (InputStream is = getClass().getResourceAsStream(path)) {
             if (is == null) {
                 throw new IOException("Shader file not found: " + path);
             }
             try (BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
-                source = reader.lines().collect(Collectors.joining("\n"));
+                return reader.lines().collect(Collectors.joining("\n"));
             }
         }
-        
-        int shader = GL20.glCreateShader(type);
-        try {
-            GL20.glShaderSource(shader, source);
-            GL20.glCompileShader(shader);
-            
-            if (GL20.glGetShaderi(shader, GL20.GL_COMPILE_STATUS) == GL11.GL_FALSE) {
-                String log = GL20.glGetShaderInfoLog(shader);
-                throw new RuntimeException("Failed to compile shader: " + log);
-            }
-            
-            return shader;
-        } catch (Exception e) {
-            GL20.glDeleteShader(shader);
-            throw new IOException("Failed to compile shader: " + e.getMessage(), e);
+    }
+    
+    /**
+     * Insert defines right after the #version directive, which must stay the first line
+     */
+    private static String injectDefines(String source, String defines) {
+        if (defines == null || defines.isEmpty()) {
+            return source;
+        }
+        int versionStart = source.indexOf("#version");
+        if (versionStart < 0) {
+            return defines + source;
+        }
+        int lineEnd = source.indexOf('\n', versionStart);
+        if (lineEnd < 0) {
+            return source + "\n" + defines;
         }
+        return source.substring(0, lineEnd + 1) + defines + source.substring(lineEnd + 1);
     }
     
     /**
@@ -497,50 +1439,29 @@ public class FSRProcessor {
      */
     private boolean validateFramebuffer(int framebuffer) {
         if (framebuffer <= 0) {
-            AMDium.LOGGER.error("Invalid framebuffer ID: " + framebuffer);
+            diagnostics.record(FSRDiagnostics.Event.INVALID_FRAMEBUFFER, framebuffer);
             return false;
         }
         
         try {
             // Save current framebuffer binding
-            int[] currentFbo = new int[1];
-            GL11.glGetIntegerv(GL30.GL_FRAMEBUFFER_BINDING, currentFbo);
+            int currentFbo = gpu.getInteger(GL30.GL_FRAMEBUFFER_BINDING);
             
             // Bind and check the framebuffer
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, framebuffer);
-            int status = GL30.glCheckFramebufferStatus(GL30.GL_FRAMEBUFFER);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, framebuffer);
+            int status = gpu.checkFramebufferStatus(GL30.GL_FRAMEBUFFER);
             
             // Restore previous framebuffer binding
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, currentFbo[0]);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, currentFbo);
             
             if (status != GL30.GL_FRAMEBUFFER_COMPLETE) {
-                String errorMsg = "Framebuffer " + framebuffer + " is incomplete: ";
-                switch (status) {
-                    case GL30.GL_FRAMEBUFFER_INCOMPLETE_ATTACHMENT:
-                        errorMsg += "GL_FRAMEBUFFER_INCOMPLETE_ATTACHMENT";
-                        break;
-                    case GL30.GL_FRAMEBUFFER_INCOMPLETE_MISSING_ATTACHMENT:
-                        errorMsg += "GL_FRAMEBUFFER_INCOMPLETE_MISSING_ATTACHMENT";
-                        break;
-                    case GL30.GL_FRAMEBUFFER_INCOMPLETE_DRAW_BUFFER:
-                        errorMsg += "GL_FRAMEBUFFER_INCOMPLETE_DRAW_BUFFER";
-                        break;
-                    case GL30.GL_FRAMEBUFFER_INCOMPLETE_READ_BUFFER:
-                        errorMsg += "GL_FRAMEBUFFER_INCOMPLETE_READ_BUFFER";
-                        break;
-                    case GL30.GL_FRAMEBUFFER_UNSUPPORTED:
-                        errorMsg += "GL_FRAMEBUFFER_UNSUPPORTED";
-                        break;
-                    default:
-                        errorMsg += "Unknown error code: " + status;
-                }
-                AMDium.LOGGER.error(errorMsg);
+                diagnostics.record(FSRDiagnostics.Event.FRAMEBUFFER_INCOMPLETE, framebuffer, status);
                 return false;
             }
             
             return true;
         } catch (Exception e) {
-            AMDium.LOGGER.error("Error validating framebuffer " + framebuffer, e);
+            diagnostics.record(FSRDiagnostics.Event.FRAMEBUFFER_VALIDATION_FAILED, e, framebuffer, 0);
             return false;
         }
     }
@@ -555,24 +1476,24 @@ public class FSRProcessor {
         try {
             // Default framebuffer (0) is always valid
             if (framebuffer == 0) {
-                GL30.glBindFramebuffer(target, 0);
+                gpu.bindFramebuffer(target, 0);
                 return true;
             }
             
             // For other framebuffers, validate first
             if (validateFramebuffer(framebuffer)) {
-                GL30.glBindFramebuffer(target, framebuffer);
+                gpu.bindFramebuffer(target, framebuffer);
                 return true;
             } else {
-                AMDium.LOGGER.error("Failed to bind invalid framebuffer: " + framebuffer);
+                diagnostics.record(FSRDiagnostics.Event.BIND_FAILED, framebuffer, target);
                 // Bind default framebuffer as fallback
-                GL30.glBindFramebuffer(target, 0);
+                gpu.bindFramebuffer(target, 0);
                 return false;
             }
         } catch (Exception e) {
-            AMDium.LOGGER.error("Error binding framebuffer " + framebuffer, e);
+            diagnostics.record(FSRDiagnostics.Event.BIND_FAILED, e, framebuffer, target);
             // Bind default framebuffer as fallback
-            GL30.glBindFramebuffer(target, 0);
+            gpu.bindFramebuffer(target, 0);
             return false;
         }
     }
@@ -586,94 +1507,194 @@ public class FSRProcessor {
         try {
             // Validate source dimensions
             if (srcX0 < 0 || srcY0 < 0 || srcX1 <= srcX0 || srcY1 <= srcY0) {
-                AMDium.LOGGER.error("Invalid source dimensions for blit: " + 
-                                   srcX0 + "," + srcY0 + " -> " + srcX1 + "," + srcY1);
+                diagnostics.record(FSRDiagnostics.Event.BLIT_INVALID_SOURCE, srcX0, srcY0, srcX1, srcY1);
                 return;
             }
             
             // Validate destination dimensions
             if (dstX0 < 0 || dstY0 < 0 || dstX1 <= dstX0 || dstY1 <= dstY0) {
-                AMDium.LOGGER.error("Invalid destination dimensions for blit: " + 
-                                   dstX0 + "," + dstY0 + " -> " + dstX1 + "," + dstY1);
+                diagnostics.record(FSRDiagnostics.Event.BLIT_INVALID_DESTINATION, dstX0, dstY0, dstX1, dstY1);
                 return;
             }
             
             // Perform the blit
-            GL30.glBlitFramebuffer(srcX0, srcY0, srcX1, srcY1, dstX0, dstY0, dstX1, dstY1, mask, filter);
+            gpu.blitFramebuffer(srcX0, srcY0, srcX1, srcY1, dstX0, dstY0, dstX1, dstY1, mask, filter);
         } catch (Exception e) {
-            AMDium.LOGGER.error("Error in blitFramebuffer", e);
+            diagnostics.record(FSRDiagnostics.Event.BLIT_FAILED, e);
+        }
+    }
+    
+    /**
+     * Copy the scene depth out of the main framebuffer right after the world
+     * pass, before vanilla clears it to draw the hand and the HUD. The sky mask
+     * and depth-guided edges read this copy, so both only run on frames that
+     * rendered a world.
+     * Leaves the read and draw framebuffers bound to ours; the caller rebinds its own.
+     * @param farPlane The far plane the world was rendered with, to linearize the copy
+     */
+    public void captureSceneDepth(int sourceFramebuffer, float farPlane) {
+        setDepthRange(NEAR_PLANE, farPlane);
+        if (!initialized || !config.isEnabled() || sourceFramebuffer <= 0 || inputFramebuffer <= 0) return;
+        // Nothing reads the copy otherwise
+        if (!config.isSkyEarlyOut() && !config.isDepthGuidedEdges()) return;
+        
+        pushDebugScope();
+        try {
+            gpu.bindFramebuffer(GL30.GL_READ_FRAMEBUFFER, sourceFramebuffer);
+            gpu.bindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, inputFramebuffer);
+            safeBlitFramebuffer(
+                0, 0, renderWidth, renderHeight,
+                0, 0, renderWidth, renderHeight,
+                GL11.GL_DEPTH_BUFFER_BIT, GL11.GL_NEAREST
+            );
+            sceneDepthCaptured = true;
+        } finally {
+            popDebugScope();
+        }
+    }
+    
+    /**
+     * Start the readback for a pending screenshot from the default framebuffer,
+     * right before it is swapped: that is the image on screen, whatever drew it.
+     * Runs every frame, so it must not allocate when nothing was requested.
+     */
+    public void capturePresentedFrame(int width, int height) {
+        if (!initialized || !config.isEnabled() || width <= 0 || height <= 0) return;
+        
+        pushDebugScope();
+        try {
+            frameCapture.capture(0, width, height);
+        } finally {
+            popDebugScope();
+        }
+    }
+    
+    /**
+     * Fill the input with the frame the game left in the source: its lower-left
+     * render-size region, color only, since depth came from captureSceneDepth and
+     * the source's is cleared by now. processFrame and the quality calibration
+     * both go through here, so the calibration scores what the runtime upscales.
+     * @return False if either framebuffer couldn't be bound
+     */
+    private boolean copySourceToInput(int sourceFramebuffer) {
+        // Failed binds are recorded by safeBindFramebuffer
+        if (!safeBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, sourceFramebuffer) ||
+            !safeBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, inputFramebuffer)) {
+            return false;
         }
+        safeBlitFramebuffer(
+            0, 0, renderWidth, renderHeight,
+            0, 0, renderWidth, renderHeight,
+            GL11.GL_COLOR_BUFFER_BIT, GL11.GL_NEAREST
+        );
+        return true;
     }
     
     public void processFrame(int sourceFramebuffer, long currentTime) {
-        if (!initialized || !AMDium.getInstance().isFSREnabled()) return;
+        if (!initialized || !config.isEnabled()) return;
         
+        pushDebugScope();
         try {
-            AMDiumConfig config = AMDium.getInstance().getConfig();
-            FSRType fsrType = config.getFsrType();
+            // Dev mode: pick up edited shaders before this frame uses them
+            if (shaderWatcher != null && shaderWatcher.consumeChange()) {
+                reloadShaders();
+            }
+            
+            // Before the input is filled, since calibration draws its own frame into it
+            if (calibrationRequested) {
+                calibrationRequested = false;
+                if (tiled) {
+                    // Tiling always uses EASU + RCAS, so there is nothing to choose between
+                    AMDium.LOGGER.info("Output is tiled, skipping FSR calibration");
+                } else {
+                    runCalibration();
+                }
+            }
+            
+            // Readbacks started on earlier frames that the GPU has finished by now
+            frameCapture.poll();
             
             // Update sharpness from config
             sharpness = config.getSharpness();
             
             // Validate source framebuffer
             if (sourceFramebuffer <= 0) {
-                AMDium.LOGGER.error("Invalid source framebuffer: " + sourceFramebuffer);
+                diagnostics.record(FSRDiagnostics.Event.INVALID_SOURCE_FRAMEBUFFER, sourceFramebuffer);
                 directRender(0); // Use default framebuffer as source
                 return;
             }
             
             // Make sure dimensions are valid
             if (renderWidth <= 0 || renderHeight <= 0 || displayWidth <= 0 || displayHeight <= 0) {
-                AMDium.LOGGER.error("Invalid render dimensions: " + renderWidth + "x" + renderHeight + 
-                                   " -> " + displayWidth + "x" + displayHeight);
+                diagnostics.record(FSRDiagnostics.Event.INVALID_DIMENSIONS,
+                                   renderWidth, renderHeight, displayWidth, displayHeight);
                 directRender(sourceFramebuffer);
                 return;
             }
             
-            // Bind input framebuffer and copy from source
-            if (!safeBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, sourceFramebuffer)) {
-                directRender(0);
-                return;
+            if (qualityCalibrationRequested &&
+                (!Double.isNaN(nativeFrameMs) || ++qualityCalibrationWaitFrames > SCENE_TIME_WAIT_FRAMES)) {
+                qualityCalibrationRequested = false;
+                if (tiled) {
+                    // The comparison reads whole frames back from single textures
+                    AMDium.LOGGER.warn("Quality calibration isn't available while the output is tiled");
+                } else {
+                    runQualityCalibration(sourceFramebuffer);
+                }
             }
             
-            if (!safeBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, inputFramebuffer)) {
-                directRender(sourceFramebuffer);
+            if (!copySourceToInput(sourceFramebuffer)) {
+                // A source that failed validation was left unbound; fall back to it only if it's usable
+                boolean sourceBound = gpu.getInteger(GL30.GL_READ_FRAMEBUFFER_BINDING) == sourceFramebuffer;
+                directRender(sourceBound ? sourceFramebuffer : 0);
                 return;
             }
             
-            // Use a direct blit operation with proper dimensions
-            safeBlitFramebuffer(
-                0, 0, renderWidth, renderHeight,
-                0, 0, renderWidth, renderHeight,
-                GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT, GL11.GL_NEAREST
-            );
-            
-            // Process with enhanced FSR 1.0
+            // Upscale with the active upscaler
             boolean success = false;
             try {
-                processFSR1Enhanced();
-                success = true;
-                consecutiveErrors = 0; // Reset error counter on success
+                success = processUpscaling();
             } catch (Exception e) {
+                diagnostics.record(FSRDiagnostics.Event.PASS_EXCEPTION, e);
+            }
+            
+            // Errors the driver reported inside our debug group since the last frame count
+            // against this one, since an asynchronous callback can arrive a frame late
+            if (debugMonitor != null) {
+                int glErrors = debugMonitor.takeErrorCount();
+                if (glErrors > 0) {
+                    diagnostics.record(FSRDiagnostics.Event.GL_ERROR, glErrors, debugMonitor.getLastErrorId());
+                    success = false;
+                }
+            }
+            
+            if (success) {
+                consecutiveErrors = 0; // Reset error counter on success
+            } else {
                 consecutiveErrors++;
-                AMDium.LOGGER.error("Error processing with FSR 1.0 (attempt " + consecutiveErrors + ")", e);
+                diagnostics.record(FSRDiagnostics.Event.PASS_FAILED, consecutiveErrors);
                 
                 // Reset OpenGL state before trying fallback
-                GL20.glUseProgram(0);
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+                gpu.useProgram(0);
+                gpu.bindTexture(0);
                 safeBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
                 
                 // If we've had too many consecutive errors, disable FSR temporarily
                 if (consecutiveErrors >= MAX_CONSECUTIVE_ERRORS) {
-                    AMDium.LOGGER.error("Too many consecutive FSR errors, disabling FSR temporarily");
+                    diagnostics.record(FSRDiagnostics.Event.TOO_MANY_ERRORS, consecutiveErrors);
                     success = false;
+                    
+                    // Tell the owner once per failure streak
+                    if (consecutiveErrors == MAX_CONSECUTIVE_ERRORS) {
+                        errorHandler.run();
+                    }
                 } else {
                     // Try simple fallback
                     try {
                         copyInputToOutput();
                         success = true;
                     } catch (Exception fallbackError) {
-                        AMDium.LOGGER.error("Simple fallback failed", fallbackError);
+                        diagnostics.record(FSRDiagnostics.Event.FALLBACK_FAILED, fallbackError);
                         success = false;
                     }
                 }
@@ -685,17 +1706,23 @@ public class FSRProcessor {
             }
             
             // Reset OpenGL state
-            GL20.glUseProgram(0);
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
-            
+            gpu.useProgram(0);
+            gpu.bindTexture(0);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+        
         } catch (Exception e) {
             // Unhandled exception - make sure we bind the default framebuffer to prevent black screen
-            AMDium.LOGGER.error("Unhandled exception in processFrame", e);
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+            diagnostics.record(FSRDiagnostics.Event.UNHANDLED_EXCEPTION, e);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
             
-            // Report error to AMDium
-            AMDium.getInstance().reportError();
+            // Let the owner decide whether FSR should back off
+            errorHandler.run();
+        } finally {
+            // The next frame captures its own
+            sceneDepthCaptured = false;
+            popDebugScope();
+            gpu.endFrame();
+            diagnostics.tick(currentTime);
         }
     }
     
@@ -704,12 +1731,12 @@ public class FSRProcessor {
             // If source is 0, we're already on the default framebuffer
             if (sourceFramebuffer > 0) {
                 // Copy directly from source to default framebuffer
-                GL30.glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, sourceFramebuffer);
-                GL30.glBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, 0);
+                gpu.bindFramebuffer(GL30.GL_READ_FRAMEBUFFER, sourceFramebuffer);
+                gpu.bindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, 0);
                 
                 // Clear the default framebuffer
-                GL11.glClearColor(0.0f, 0.0f, 0.0f, 1.0f);
-                GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
+                gpu.clearColor(0.0f, 0.0f, 0.0f, 1.0f);
+                gpu.clear(GL11.GL_COLOR_BUFFER_BIT);
                 
                 safeBlitFramebuffer(
                     0, 0, renderWidth, renderHeight,
@@ -717,198 +1744,84 @@ public class FSRProcessor {
                     GL11.GL_COLOR_BUFFER_BIT, GL11.GL_LINEAR
                 );
             }
-            AMDium.LOGGER.info("Used direct rendering fallback");
+            diagnostics.record(FSRDiagnostics.Event.DIRECT_RENDER, sourceFramebuffer);
         } catch (Exception e) {
-            AMDium.LOGGER.error("Failed in direct rendering fallback", e);
+            diagnostics.record(FSRDiagnostics.Event.DIRECT_RENDER_FAILED, e);
             // Make absolutely sure we're on the default framebuffer
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
         }
     }
     
     private void copyInputToOutput() {
         // Emergency fallback - just copy the input to the screen
         try {
-            GL30.glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, inputFramebuffer);
-            GL30.glBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, 0);
-            GL30.glBlitFramebuffer(0, 0, renderWidth, renderHeight, 0, 0, displayWidth, displayHeight, GL11.GL_COLOR_BUFFER_BIT, GL11.GL_LINEAR);
+            gpu.bindFramebuffer(GL30.GL_READ_FRAMEBUFFER, inputFramebuffer);
+            gpu.bindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, 0);
+            gpu.blitFramebuffer(0, 0, renderWidth, renderHeight, 0, 0, displayWidth, displayHeight, GL11.GL_COLOR_BUFFER_BIT, GL11.GL_LINEAR);
         } catch (Exception e) {
-            AMDium.LOGGER.error("Failed to copy input to output as last resort", e);
+            diagnostics.record(FSRDiagnostics.Event.FALLBACK_FAILED, e);
         }
     }
     
     /**
-     * Enhanced FSR 1.0 implementation - simplified to avoid OpenGL errors
+     * Run the active upscaler into the output framebuffer, with the sky mask in
+     * front of it, and copy the result to the screen.
+     * Runs every frame, so it must not allocate: failures are reported through
+     * the return value and uniform locations come from the per-program cache.
+     * @return False if a framebuffer couldn't be bound or the upscaler failed
      */
-    private void processFSR1Enhanced() {
-        try {
-            // Simple FSR 1.0 implementation (basic upscaling)
-            if (!safeBindFramebuffer(GL30.GL_FRAMEBUFFER, outputFramebuffer)) {
-                throw new RuntimeException("Failed to bind output framebuffer");
-            }
-            
-            // Clear the framebuffer to prevent artifacts
-            GL11.glClearColor(0.0f, 0.0f, 0.0f, 1.0f);
-            GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
-            
-            // Set viewport to match output dimensions
-            GL11.glViewport(0, 0, displayWidth, displayHeight);
-            
-            // Use the FSR 1.0 shader program
-            GL20.glUseProgram(fsr1ShaderProgram);
-            
-            // Set uniforms
-            int inputSizeLoc = GL20.glGetUniformLocation(fsr1ShaderProgram, "inputSize");
-            int outputSizeLoc = GL20.glGetUniformLocation(fsr1ShaderProgram, "outputSize");
-            int inputTexLoc = GL20.glGetUniformLocation(fsr1ShaderProgram, "inputTexture");
-            int sharpnessLoc = GL20.glGetUniformLocation(fsr1ShaderProgram, "sharpness");
-        
-        if (inputSizeLoc != -1) {
-            GL20.glUniform2f(inputSizeLoc, renderWidth, renderHeight);
-        }
-        
-        if (outputSizeLoc != -1) {
-            GL20.glUniform2f(outputSizeLoc, displayWidth, displayHeight);
-        }
-            
-            if (sharpnessLoc != -1) {
-                GL20.glUniform1f(sharpnessLoc, sharpness);
-            }
-        
-        // Bind input texture
-        GL13.glActiveTexture(GL13.GL_TEXTURE0);
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, inputTexture);
-        
-        if (inputTexLoc != -1) {
-            GL20.glUniform1i(inputTexLoc, 0);
-        }
-        
-            // Render the fullscreen quad
-            try {
-                // Use the static quad if available
-                if (!quadInitialized) {
-                    initializeQuad();
-                }
-                
-                if (quadInitialized && quadVAO > 0) {
-                    // Bind the VAO and draw
-                    GL30.glBindVertexArray(quadVAO);
-                    GL11.glDrawArrays(GL11.GL_TRIANGLE_STRIP, 0, 4);
-                    GL30.glBindVertexArray(0);
-                } else {
-                    // Fallback to immediate mode rendering
-                    GL11.glBegin(GL11.GL_TRIANGLE_STRIP);
-                    GL11.glTexCoord2f(0.0f, 0.0f); GL11.glVertex3f(-1.0f, -1.0f, 0.0f);
-                    GL11.glTexCoord2f(1.0f, 0.0f); GL11.glVertex3f(1.0f, -1.0f, 0.0f);
-                    GL11.glTexCoord2f(0.0f, 1.0f); GL11.glVertex3f(-1.0f, 1.0f, 0.0f);
-                    GL11.glTexCoord2f(1.0f, 1.0f); GL11.glVertex3f(1.0f, 1.0f, 0.0f);
-                    GL11.glEnd();
-                }
-            } catch (Exception e) {
-                AMDium.LOGGER.error("Error rendering quad, using fallback", e);
-                // Ultimate fallback
-                GL11.glBegin(GL11.GL_TRIANGLE_STRIP);
-                GL11.glTexCoord2f(0.0f, 0.0f); GL11.glVertex3f(-1.0f, -1.0f, 0.0f);
-                GL11.glTexCoord2f(1.0f, 0.0f); GL11.glVertex3f(1.0f, -1.0f, 0.0f);
-                GL11.glTexCoord2f(0.0f, 1.0f); GL11.glVertex3f(-1.0f, 1.0f, 0.0f);
-                GL11.glTexCoord2f(1.0f, 1.0f); GL11.glVertex3f(1.0f, 1.0f, 0.0f);
-                GL11.glEnd();
-        }
-        
-        // Copy to default framebuffer
-        if (!safeBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, outputFramebuffer)) {
-            throw new RuntimeException("Failed to bind output framebuffer for reading");
-        }
-        
-        if (!safeBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, 0)) {
-            throw new RuntimeException("Failed to bind default framebuffer for drawing");
+    private boolean processUpscaling() {
+        if (tiled) {
+            return processTiles();
         }
         
-        // Clear the default framebuffer
-        GL11.glClearColor(0.0f, 0.0f, 0.0f, 1.0f);
-        GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
-        
-        // Blit the output to the default framebuffer
-        safeBlitFramebuffer(
-            0, 0, displayWidth, displayHeight,
-            0, 0, displayWidth, displayHeight,
-            GL11.GL_COLOR_BUFFER_BIT, GL11.GL_NEAREST
-        );
-        
-        // Reset state
-        GL20.glUseProgram(0);
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
-        
-        // Log success for debugging
-        AMDium.LOGGER.debug("Enhanced FSR1 processing completed successfully");
-        } catch (Exception e) {
-            AMDium.LOGGER.error("Error in processFSR1Enhanced", e);
-            throw e; // Rethrow to be handled by the caller
-        }
-    }
-    
-    /**
-     * Simple FSR 1.0 implementation (basic upscaling) - kept as a fallback
-     */
-    private void processFSR1() {
+        boolean completed = false;
         try {
-            // Simple FSR 1.0 implementation (basic upscaling)
             if (!safeBindFramebuffer(GL30.GL_FRAMEBUFFER, outputFramebuffer)) {
-                directRender(0);
-                return;
+                return false;
             }
             
-            // Clear the framebuffer to prevent artifacts
-            GL11.glClearColor(0.0f, 0.0f, 0.0f, 1.0f);
-            GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
-            
             // Set viewport to match output dimensions
-            GL11.glViewport(0, 0, displayWidth, displayHeight);
+            gpu.viewport(0, 0, displayWidth, displayHeight);
             
-            // Use the FSR 1.0 shader program
-            GL20.glUseProgram(fsr1ShaderProgram);
+            // Our passes never depth test; the output depth-stencil only carries the sky mask
+            boolean depthTestWasEnabled = gpu.isEnabled(GL11.GL_DEPTH_TEST);
+            gpu.disable(GL11.GL_DEPTH_TEST);
             
-            // Set uniforms
-            int inputSizeLoc = GL20.glGetUniformLocation(fsr1ShaderProgram, "inputSize");
-            int outputSizeLoc = GL20.glGetUniformLocation(fsr1ShaderProgram, "outputSize");
-            int inputTexLoc = GL20.glGetUniformLocation(fsr1ShaderProgram, "inputTexture");
-            int sharpnessLoc = GL20.glGetUniformLocation(fsr1ShaderProgram, "sharpness");
-            
-            if (inputSizeLoc != -1) {
-                GL20.glUniform2f(inputSizeLoc, renderWidth, renderHeight);
+            boolean skyMasked = config.isSkyEarlyOut() && applySkyMask();
+            if (!skyMasked) {
+                // Clear the framebuffer to prevent artifacts
+                gpu.clearColor(0.0f, 0.0f, 0.0f, 1.0f);
+                gpu.clear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
             }
             
-            if (outputSizeLoc != -1) {
-                GL20.glUniform2f(outputSizeLoc, displayWidth, displayHeight);
-            }
+            // The upscaler leaves the output framebuffer bound
+            boolean rendered = upscaler.render(upscalerContext);
             
-            if (sharpnessLoc != -1) {
-                GL20.glUniform1f(sharpnessLoc, sharpness);
+            if (skyMasked) {
+                gpu.disable(GL11.GL_STENCIL_TEST);
+                gpu.stencilMask(0xFF);
             }
-            
-            // Bind input texture
-            GL13.glActiveTexture(GL13.GL_TEXTURE0);
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, inputTexture);
-            
-            if (inputTexLoc != -1) {
-                GL20.glUniform1i(inputTexLoc, 0);
+            if (depthTestWasEnabled) {
+                gpu.enable(GL11.GL_DEPTH_TEST);
+            }
+            if (!rendered) {
+                return false;
             }
-            
-            // Render the fullscreen quad
-            renderFullscreenQuad();
             
             // Copy to default framebuffer
+            // Failed binds are recorded by safeBindFramebuffer
             if (!safeBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, outputFramebuffer)) {
-                directRender(0);
-                return;
+                return false;
             }
             
             if (!safeBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, 0)) {
-                return; // This should never fail as 0 is the default framebuffer
+                return false;
             }
             
             // Clear the default framebuffer
-            GL11.glClearColor(0.0f, 0.0f, 0.0f, 1.0f);
-            GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
+            gpu.clearColor(0.0f, 0.0f, 0.0f, 1.0f);
+            gpu.clear(GL11.GL_COLOR_BUFFER_BIT);
             
             // Blit the output to the default framebuffer
             safeBlitFramebuffer(
@@ -918,86 +1831,180 @@ public class FSRProcessor {
             );
             
             // Reset state
-            GL20.glUseProgram(0);
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+            gpu.useProgram(0);
+            gpu.bindTexture(0);
             
-            // Log success for debugging
-            AMDium.LOGGER.debug("FSR1 processing completed successfully");
-        } catch (Exception e) {
-            AMDium.LOGGER.error("Error in processFSR1", e);
-            // Reset to default framebuffer
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
-            // Try direct rendering as a fallback
-            directRender(0);
+            if (AMDium.LOGGER.isDebugEnabled()) {
+                AMDium.LOGGER.debug("Upscaling with " + upscalerId + " completed successfully");
+            }
+            completed = true;
+            return true;
+        } finally {
+            // Don't leave the sky mask state behind for Minecraft if we bailed out mid-pass
+            if (!completed) {
+                gpu.disable(GL11.GL_STENCIL_TEST);
+                gpu.stencilMask(0xFF);
+                gpu.colorMask(true, true, true, true);
+            }
+        }
+    }
+    
+    /**
+     * Upscale a display too large for one texture a tile at a time, copying each
+     * finished tile to its place in the default framebuffer. The sky mask is
+     * skipped here, since its stencil would have to be redone for every tile.
+     * Runs every frame, so it must not allocate.
+     * @return False if a framebuffer couldn't be bound or the upscaler failed
+     */
+    private boolean processTiles() {
+        if (!upscaler.supportsTiles()) {
+            // Only if switching to the tiled upscaler failed; the fallback blit has no size limit
+            return false;
+        }
+        
+        boolean depthTestWasEnabled = gpu.isEnabled(GL11.GL_DEPTH_TEST);
+        gpu.disable(GL11.GL_DEPTH_TEST);
+        try {
+            for (int y = 0; y < displayHeight; y += tileHeight) {
+                for (int x = 0; x < displayWidth; x += tileWidth) {
+                    setTile(x, y, Math.min(tileWidth, displayWidth - x), Math.min(tileHeight, displayHeight - y));
+                    
+                    // Failed binds are recorded by safeBindFramebuffer
+                    if (!safeBindFramebuffer(GL30.GL_FRAMEBUFFER, outputFramebuffer)) {
+                        return false;
+                    }
+                    gpu.viewport(0, 0, currentTileWidth, currentTileHeight);
+                    if (!upscaler.render(upscalerContext)) {
+                        return false;
+                    }
+                    
+                    if (!safeBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, outputFramebuffer) ||
+                        !safeBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, 0)) {
+                        return false;
+                    }
+                    safeBlitFramebuffer(
+                        0, 0, currentTileWidth, currentTileHeight,
+                        x, y, x + currentTileWidth, y + currentTileHeight,
+                        GL11.GL_COLOR_BUFFER_BIT, GL11.GL_NEAREST
+                    );
+                }
+            }
+            
+            gpu.useProgram(0);
+            gpu.bindTexture(0);
+            return true;
+        } finally {
+            if (depthTestWasEnabled) {
+                gpu.enable(GL11.GL_DEPTH_TEST);
+            }
+        }
+    }
+    
+    /**
+     * Fill the bound output framebuffer with a bilinear upscale and mark sky pixels
+     * in its stencil buffer, then leave the stencil test set up so the following
+     * FSR pass only shades geometry. Sky pixels keep the bilinear result; since the
+     * FSR shader neither discards nor writes depth, the rejection happens in
+     * hardware before the fragment shader runs.
+     * @return True if the stencil test is active and must be disabled by the caller
+     */
+    private boolean applySkyMask() {
+        // Without this frame's scene depth every pixel would look like sky
+        if (!sceneDepthCaptured || skyMaskShaderProgram <= 0 || outputStencilBuffer <= 0 || depthTexture <= 0) {
+            return false;
+        }
+        
+        // Start from an empty mask
+        gpu.stencilMask(0xFF);
+        gpu.clearStencil(0);
+        gpu.clear(GL11.GL_STENCIL_BUFFER_BIT);
+        
+        // Cheap bilinear fill - this is what the sky ends up with
+        gpu.bindFramebuffer(GL30.GL_READ_FRAMEBUFFER, inputFramebuffer);
+        gpu.bindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, outputFramebuffer);
+        safeBlitFramebuffer(
+            0, 0, renderWidth, renderHeight,
+            0, 0, displayWidth, displayHeight,
+            GL11.GL_COLOR_BUFFER_BIT, GL11.GL_LINEAR
+        );
+        gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, outputFramebuffer);
+        
+        // Write the sky stencil without touching color
+        gpu.enable(GL11.GL_STENCIL_TEST);
+        gpu.stencilFunc(GL11.GL_ALWAYS, SKY_STENCIL_VALUE, 0xFF);
+        gpu.stencilOp(GL11.GL_KEEP, GL11.GL_KEEP, GL11.GL_REPLACE);
+        gpu.colorMask(false, false, false, false);
+        
+        gpu.useProgram(skyMaskShaderProgram);
+        gpu.activeTexture(GL13.GL_TEXTURE0);
+        gpu.bindTexture(depthTexture);
+        if (skyMaskUniforms.depthTexture != -1) {
+            gpu.uniform1i(skyMaskUniforms.depthTexture, 0);
         }
+        renderFullscreenQuad();
+        
+        // Only shade pixels the mask left untouched
+        gpu.colorMask(true, true, true, true);
+        gpu.stencilFunc(GL11.GL_NOTEQUAL, SKY_STENCIL_VALUE, 0xFF);
+        gpu.stencilOp(GL11.GL_KEEP, GL11.GL_KEEP, GL11.GL_KEEP);
+        gpu.stencilMask(0x00);
+        return true;
     }
     
     /**
-     * Initialize the static fullscreen quad
+     * Initialize the fullscreen quad
      */
-    private static void initializeQuad() {
+    private void initializeQuad() {
         if (quadInitialized) return;
         
         try {
             // Make sure we're not in the middle of rendering
-            GL30.glFinish();
+            gpu.finish();
             
             // Create a VAO for the fullscreen quad
-            quadVAO = GL30.glGenVertexArrays();
+            quadVAO = gpu.genVertexArray();
             if (quadVAO <= 0) {
                 AMDium.LOGGER.error("Failed to create VAO for fullscreen quad");
                 return;
             }
             
-            GL30.glBindVertexArray(quadVAO);
-            
-            // Create a fullscreen quad for rendering
-            float[] vertices = {
-                -1.0f, -1.0f, 0.0f, 0.0f, 0.0f,
-                1.0f, -1.0f, 0.0f, 1.0f, 0.0f,
-                -1.0f, 1.0f, 0.0f, 0.0f, 1.0f,
-                1.0f, 1.0f, 0.0f, 1.0f, 1.0f
-            };
+            gpu.bindVertexArray(quadVAO);
             
-            quadVBO = GL15.glGenBuffers();
+            quadVBO = gpu.genBuffer();
             if (quadVBO <= 0) {
                 AMDium.LOGGER.error("Failed to create VBO for fullscreen quad");
-                GL30.glDeleteVertexArrays(quadVAO);
+                gpu.deleteVertexArray(quadVAO);
                 quadVAO = -1;
                 return;
             }
             
-            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, quadVBO);
+            gpu.bindBuffer(GL15.GL_ARRAY_BUFFER, quadVBO);
             
-            FloatBuffer vertexBuffer = MemoryUtil.memAllocFloat(vertices.length);
-            vertexBuffer.put(vertices).flip();
-            
-            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, vertexBuffer, GL15.GL_STATIC_DRAW);
-            MemoryUtil.memFree(vertexBuffer);
+            gpu.bufferData(GL15.GL_ARRAY_BUFFER, QUAD_VERTICES, GL15.GL_STATIC_DRAW);
             
             // Position attribute
-            GL20.glVertexAttribPointer(0, 3, GL11.GL_FLOAT, false, 5 * Float.BYTES, 0);
-            GL20.glEnableVertexAttribArray(0);
+            gpu.vertexAttribPointer(0, 3, GL11.GL_FLOAT, false, 5 * Float.BYTES, 0);
+            gpu.enableVertexAttribArray(0);
             
             // Texture coordinate attribute
-            GL20.glVertexAttribPointer(1, 2, GL11.GL_FLOAT, false, 5 * Float.BYTES, 3 * Float.BYTES);
-            GL20.glEnableVertexAttribArray(1);
+            gpu.vertexAttribPointer(1, 2, GL11.GL_FLOAT, false, 5 * Float.BYTES, 3 * Float.BYTES);
+            gpu.enableVertexAttribArray(1);
             
             // Unbind VAO
-            GL30.glBindVertexArray(0);
-            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+            gpu.bindVertexArray(0);
+            gpu.bindBuffer(GL15.GL_ARRAY_BUFFER, 0);
             
             quadInitialized = true;
-            AMDium.LOGGER.info("Static fullscreen quad initialized");
+            AMDium.LOGGER.info("Fullscreen quad initialized");
         } catch (Exception e) {
-            AMDium.LOGGER.error("Failed to initialize static fullscreen quad", e);
+            AMDium.LOGGER.error("Failed to initialize fullscreen quad", e);
             // Clean up any resources that were created
             if (quadVBO > 0) {
-                GL15.glDeleteBuffers(quadVBO);
+                gpu.deleteBuffer(quadVBO);
                 quadVBO = -1;
             }
             if (quadVAO > 0) {
-                GL30.glDeleteVertexArrays(quadVAO);
+                gpu.deleteVertexArray(quadVAO);
                 quadVAO = -1;
             }
             quadInitialized = false;
@@ -1005,54 +2012,54 @@ public class FSRProcessor {
     }
     
     /**
-     * Clean up the static fullscreen quad
+     * Clean up the fullscreen quad
      */
-    public static void cleanupQuad() {
+    private void cleanupQuad() {
         if (!quadInitialized) return;
         
         try {
             // Make sure we're not in the middle of rendering
-            GL30.glFinish();
+            gpu.finish();
             
             if (quadVBO > 0) {
-                GL15.glDeleteBuffers(quadVBO);
+                gpu.deleteBuffer(quadVBO);
                 quadVBO = -1;
             }
             if (quadVAO > 0) {
-                GL30.glDeleteVertexArrays(quadVAO);
+                gpu.deleteVertexArray(quadVAO);
                 quadVAO = -1;
             }
             
             quadInitialized = false;
-            AMDium.LOGGER.info("Static fullscreen quad cleaned up");
+            AMDium.LOGGER.info("Fullscreen quad cleaned up");
         } catch (Exception e) {
-            AMDium.LOGGER.error("Error cleaning up static fullscreen quad", e);
+            AMDium.LOGGER.error("Error cleaning up fullscreen quad", e);
         }
     }
     
     private void renderFullscreenQuad() {
         try {
-            // Use the static quad if available
+            // Use the shared quad if available
             if (!quadInitialized) {
                 initializeQuad();
             }
             
             if (quadInitialized && quadVAO > 0) {
                 // Bind the VAO and draw
-                GL30.glBindVertexArray(quadVAO);
-                GL11.glDrawArrays(GL11.GL_TRIANGLE_STRIP, 0, 4);
-                GL30.glBindVertexArray(0);
+                gpu.bindVertexArray(quadVAO);
+                gpu.drawArrays(GL11.GL_TRIANGLE_STRIP, 0, 4);
+                gpu.bindVertexArray(0);
             } else {
                 // Fallback to creating a temporary quad
                 renderTemporaryQuad();
             }
         } catch (Exception e) {
-            AMDium.LOGGER.error("Error rendering fullscreen quad", e);
+            diagnostics.record(FSRDiagnostics.Event.QUAD_FAILED, e);
             // Try the fallback method
             try {
                 renderTemporaryQuad();
             } catch (Exception fallbackError) {
-                AMDium.LOGGER.error("Critical error: Failed to render even with fallback method", fallbackError);
+                diagnostics.record(FSRDiagnostics.Event.QUAD_FAILED, fallbackError);
             }
         }
     }
@@ -1063,65 +2070,79 @@ public class FSRProcessor {
         
         try {
             // Create a temporary VAO and VBO
-            vao = GL30.glGenVertexArrays();
+            vao = gpu.genVertexArray();
             if (vao <= 0) {
                 AMDium.LOGGER.error("Failed to create temporary VAO");
                 return;
             }
             
-            GL30.glBindVertexArray(vao);
-            
-            // Create a fullscreen quad for rendering
-            float[] vertices = {
-                -1.0f, -1.0f, 0.0f, 0.0f, 0.0f,
-                1.0f, -1.0f, 0.0f, 1.0f, 0.0f,
-                -1.0f, 1.0f, 0.0f, 0.0f, 1.0f,
-                1.0f, 1.0f, 0.0f, 1.0f, 1.0f
-            };
+            gpu.bindVertexArray(vao);
             
-            vbo = GL15.glGenBuffers();
+            vbo = gpu.genBuffer();
             if (vbo <= 0) {
                 AMDium.LOGGER.error("Failed to create temporary VBO");
-                GL30.glDeleteVertexArrays(vao);
+                gpu.deleteVertexArray(vao);
                 return;
             }
             
-            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+            gpu.bindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
             
-            FloatBuffer vertexBuffer = MemoryUtil.memAllocFloat(vertices.length);
-            vertexBuffer.put(vertices).flip();
-            
-            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, vertexBuffer, GL15.GL_STREAM_DRAW);
-            MemoryUtil.memFree(vertexBuffer);
+            gpu.bufferData(GL15.GL_ARRAY_BUFFER, QUAD_VERTICES, GL15.GL_STREAM_DRAW);
             
             // Position attribute
-            GL20.glVertexAttribPointer(0, 3, GL11.GL_FLOAT, false, 5 * Float.BYTES, 0);
-            GL20.glEnableVertexAttribArray(0);
+            gpu.vertexAttribPointer(0, 3, GL11.GL_FLOAT, false, 5 * Float.BYTES, 0);
+            gpu.enableVertexAttribArray(0);
             
             // Texture coordinate attribute
-            GL20.glVertexAttribPointer(1, 2, GL11.GL_FLOAT, false, 5 * Float.BYTES, 3 * Float.BYTES);
-            GL20.glEnableVertexAttribArray(1);
+            gpu.vertexAttribPointer(1, 2, GL11.GL_FLOAT, false, 5 * Float.BYTES, 3 * Float.BYTES);
+            gpu.enableVertexAttribArray(1);
             
             // Draw the quad
-            GL11.glDrawArrays(GL11.GL_TRIANGLE_STRIP, 0, 4);
+            gpu.drawArrays(GL11.GL_TRIANGLE_STRIP, 0, 4);
         } catch (Exception e) {
             AMDium.LOGGER.error("Error in renderTemporaryQuad", e);
         } finally {
             // Clean up
             if (vao > 0) {
-                GL20.glDisableVertexAttribArray(0);
-                GL20.glDisableVertexAttribArray(1);
-                GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
-                GL30.glBindVertexArray(0);
-                GL30.glDeleteVertexArrays(vao);
+                gpu.disableVertexAttribArray(0);
+                gpu.disableVertexAttribArray(1);
+                gpu.bindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+                gpu.bindVertexArray(0);
+                gpu.deleteVertexArray(vao);
             }
             
             if (vbo > 0) {
-                GL15.glDeleteBuffers(vbo);
+                gpu.deleteBuffer(vbo);
             }
         }
     }
     
+    /**
+     * Set the camera clip planes used to linearize depth for depth-guided edges
+     */
+    public void setDepthRange(float near, float far) {
+        if (near > 0.0f && far > near) {
+            depthNear = near;
+            depthFar = far;
+        }
+    }
+    
+    public float getDepthNear() {
+        return depthNear;
+    }
+    
+    public float getDepthFar() {
+        return depthFar;
+    }
+    
+    public FSRDiagnostics getDiagnostics() {
+        return diagnostics;
+    }
+    
+    public GpuBackend getGpuBackend() {
+        return gpu;
+    }
+    
     public int getInputFramebuffer() {
         return inputFramebuffer;
     }
@@ -1134,50 +2155,216 @@ public class FSRProcessor {
         return renderHeight;
     }
     
+    public int getDisplayWidth() {
+        return displayWidth;
+    }
+    
+    public int getDisplayHeight() {
+        return displayHeight;
+    }
+    
     /**
      * Verify that all framebuffers are valid
      */
     private boolean verifyFramebuffers() {
         try {
             // Check that all framebuffer IDs are valid
-            if (inputFramebuffer <= 0 || upscaledFramebuffer <= 0 || 
-                outputFramebuffer <= 0 || depthTexture <= 0) {
+            if (inputFramebuffer <= 0 || outputFramebuffer <= 0 || depthTexture <= 0) {
                 AMDium.LOGGER.error("Invalid framebuffer IDs");
                 return false;
             }
             
             // Check that all texture IDs are valid
-            if (inputTexture <= 0 || upscaledTexture <= 0 || 
-                outputTexture <= 0 || depthTexture <= 0) {
+            if (inputTexture <= 0 || outputTexture <= 0 || depthTexture <= 0) {
                 AMDium.LOGGER.error("Invalid texture IDs");
                 return false;
             }
             
             // Check framebuffer completeness for each framebuffer
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, inputFramebuffer);
-            if (GL30.glCheckFramebufferStatus(GL30.GL_FRAMEBUFFER) != GL30.GL_FRAMEBUFFER_COMPLETE) {
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, inputFramebuffer);
+            if (gpu.checkFramebufferStatus(GL30.GL_FRAMEBUFFER) != GL30.GL_FRAMEBUFFER_COMPLETE) {
                 AMDium.LOGGER.error("Input framebuffer is incomplete");
                 return false;
             }
             
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, upscaledFramebuffer);
-            if (GL30.glCheckFramebufferStatus(GL30.GL_FRAMEBUFFER) != GL30.GL_FRAMEBUFFER_COMPLETE) {
-                AMDium.LOGGER.error("Upscaled framebuffer is incomplete");
-                return false;
+            // The intermediate only exists for upscalers that asked for it
+            if (upscaler != null && upscaler.needsIntermediateTarget()) {
+                if (upscaledFramebuffer <= 0 || upscaledTexture <= 0) {
+                    AMDium.LOGGER.error("Missing upscaled framebuffer");
+                    return false;
+                }
+                gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, upscaledFramebuffer);
+                if (gpu.checkFramebufferStatus(GL30.GL_FRAMEBUFFER) != GL30.GL_FRAMEBUFFER_COMPLETE) {
+                    AMDium.LOGGER.error("Upscaled framebuffer is incomplete");
+                    return false;
+                }
+            }
+            if (upscaler != null && upscaler.needsHorizontalTarget()) {
+                if (horizontalFramebuffer <= 0 || horizontalTexture <= 0) {
+                    AMDium.LOGGER.error("Missing horizontal framebuffer");
+                    return false;
+                }
+                gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, horizontalFramebuffer);
+                if (gpu.checkFramebufferStatus(GL30.GL_FRAMEBUFFER) != GL30.GL_FRAMEBUFFER_COMPLETE) {
+                    AMDium.LOGGER.error("Horizontal framebuffer is incomplete");
+                    return false;
+                }
             }
             
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, outputFramebuffer);
-            if (GL30.glCheckFramebufferStatus(GL30.GL_FRAMEBUFFER) != GL30.GL_FRAMEBUFFER_COMPLETE) {
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, outputFramebuffer);
+            if (gpu.checkFramebufferStatus(GL30.GL_FRAMEBUFFER) != GL30.GL_FRAMEBUFFER_COMPLETE) {
                 AMDium.LOGGER.error("Output framebuffer is incomplete");
                 return false;
             }
             
             // Reset to default framebuffer
-            GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
             return true;
         } catch (Exception e) {
             AMDium.LOGGER.error("Error verifying framebuffers", e);
             return false;
         }
     }
+    
+    /**
+     * The processor as upscalers see it. Reads the live fields, so it stays valid
+     * across resizes.
+     */
+    private final class Context implements UpscalerContext {
+        @Override
+        public GpuBackend getGpu() {
+            return gpu;
+        }
+        
+        @Override
+        public int createProgram(String vertexPath, String fragmentPath, String defines) throws IOException {
+            return createShaderProgram(vertexPath, fragmentPath, defines);
+        }
+        
+        @Override
+        public void drawFullscreenQuad() {
+            renderFullscreenQuad();
+        }
+        
+        @Override
+        public int getInputFramebuffer() {
+            return inputFramebuffer;
+        }
+        
+        @Override
+        public int getInputTexture() {
+            return inputTexture;
+        }
+        
+        @Override
+        public int getDepthTexture() {
+            // The texture still holds an older frame's depth when this one didn't capture any
+            return sceneDepthCaptured ? depthTexture : 0;
+        }
+        
+        @Override
+        public int getIntermediateFramebuffer() {
+            return upscaledFramebuffer;
+        }
+        
+        @Override
+        public int getIntermediateTexture() {
+            return upscaledTexture;
+        }
+        
+        @Override
+        public int getIntermediateWidth() {
+            return FSRProcessor.this.getIntermediateWidth();
+        }
+        
+        @Override
+        public int getIntermediateHeight() {
+            return FSRProcessor.this.getIntermediateHeight();
+        }
+        
+        @Override
+        public int getHorizontalFramebuffer() {
+            return horizontalFramebuffer;
+        }
+        
+        @Override
+        public int getHorizontalTexture() {
+            return horizontalTexture;
+        }
+        
+        @Override
+        public int getOutputFramebuffer() {
+            return outputFramebuffer;
+        }
+        
+        @Override
+        public int getRenderWidth() {
+            return renderWidth;
+        }
+        
+        @Override
+        public int getRenderHeight() {
+            return renderHeight;
+        }
+        
+        @Override
+        public int getDisplayWidth() {
+            return displayWidth;
+        }
+        
+        @Override
+        public int getDisplayHeight() {
+            return displayHeight;
+        }
+        
+        @Override
+        public int getTileX() {
+            return tileX;
+        }
+        
+        @Override
+        public int getTileY() {
+            return tileY;
+        }
+        
+        @Override
+        public int getTileWidth() {
+            return currentTileWidth;
+        }
+        
+        @Override
+        public int getTileHeight() {
+            return currentTileHeight;
+        }
+        
+        @Override
+        public int getTileApron() {
+            return tiled ? TILE_APRON : 0;
+        }
+        
+        @Override
+        public float getSharpness() {
+            return sharpness;
+        }
+        
+        @Override
+        public float getDepthNear() {
+            return depthNear;
+        }
+        
+        @Override
+        public float getDepthFar() {
+            return depthFar;
+        }
+        
+        @Override
+        public boolean isDepthGuidedEdges() {
+            return config.isDepthGuidedEdges();
+        }
+        
+        @Override
+        public boolean isLumaEasu() {
+            return config.isLumaEasu(appliedQualityMode);
+        }
+    }
 } 
\ No newline at end of file
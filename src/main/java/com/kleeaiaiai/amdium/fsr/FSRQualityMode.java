@@ -24,10 +24,10 @@ public enum FSRQualityMode {
     }
     
     public int calculateRenderWidth(int displayWidth) {
-        return (int) (displayWidth / scaleFactor);
+        return ResolutionPlanner.renderSize(displayWidth, scaleFactor);
     }
     
     public int calculateRenderHeight(int displayHeight) {
-        return (int) (displayHeight / scaleFactor);
+        return ResolutionPlanner.renderSize(displayHeight, scaleFactor);
     }
 } 
\ No newline at end of file
@@ -1,16 +1,28 @@
 package com.kleeaiaiai.amdium.fsr;
 
 public enum FSRType {
-    FSR_1("FSR 1.0", "Enhanced upscaling with edge detection and sharpening");
+    FSR_1("fsr1", "FSR 1.0", "Enhanced upscaling with edge detection and sharpening"),
+    EASU_RCAS("easu_rcas", "FSR 1.0 (two-pass)", "Separate EASU upscaling and RCAS sharpening passes, as in AMD's reference"),
+    LANCZOS("lanczos", "Lanczos (separable)", "Two-pass Lanczos upscaling with optional RCAS sharpening, for weak GPUs"),
+    BILINEAR_CAS("bilinear_cas", "Bilinear + CAS", "Bilinear upscaling with RCAS sharpening, the cheapest option");
     
+    private final String upscalerId;
     private final String displayName;
     private final String description;
     
-    FSRType(String displayName, String description) {
+    FSRType(String upscalerId, String displayName, String description) {
+        this.upscalerId = upscalerId;
         this.displayName = displayName;
         this.description = description;
     }
     
+    /**
+     * @return The ID of the built-in {@link Upscaler} this type selects
+     */
+    public String getUpscalerId() {
+        return upscalerId;
+    }
+    
     public String getDisplayName() {
         return displayName;
     }
@@ -0,0 +1,127 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+/**
+ * Reading and writing frames, for screenshots taken in game and for the batch
+ * upscaler. In memory a frame is RGBA8 in GL row order (bottom row first), the
+ * layout the upscalers work in. Raw files (.rgba) are stored in that same layout
+ * with no header, so they are memory-mapped and handed to the upscaler as they
+ * are; PNGs go through ImageIO and are flipped on the way in and out.
+ */
+public final class FrameFiles {
+    public static final String PNG_EXTENSION = ".png";
+    public static final String RAW_EXTENSION = ".rgba";
+    
+    private FrameFiles() {
+    }
+    
+    /**
+     * @return Width and height from the PNG header, without decoding the image
+     */
+    public static int[] pngSize(Path file) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(Files.newInputStream(file))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                throw new IOException("Not a readable image: " + file);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream);
+                return new int[] {reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    
+    /**
+     * Decode a PNG into a buffer of width * height * 4 bytes
+     */
+    public static ByteBuffer readPng(Path file, ByteBuffer pixels, int width, int height) throws IOException {
+        BufferedImage image;
+        try (InputStream in = Files.newInputStream(file)) {
+            image = ImageIO.read(in);
+        }
+        if (image == null) {
+            throw new IOException("Not a readable image: " + file);
+        }
+        if (image.getWidth() != width || image.getHeight() != height) {
+            throw new IOException(file + " is " + image.getWidth() + "x" + image.getHeight() +
+                                  ", expected " + width + "x" + height + " like the first frame");
+        }
+        
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            // GL rows go bottom-up
+            image.getRGB(0, height - 1 - y, width, 1, row, 0, width);
+            int base = y * width * 4;
+            for (int x = 0; x < width; x++) {
+                int argb = row[x];
+                pixels.put(base + x * 4, (byte) (argb >> 16));
+                pixels.put(base + x * 4 + 1, (byte) (argb >> 8));
+                pixels.put(base + x * 4 + 2, (byte) argb);
+                pixels.put(base + x * 4 + 3, (byte) (argb >>> 24));
+            }
+        }
+        return pixels;
+    }
+    
+    /**
+     * Map a raw frame read-only; the mapping stays valid after the channel closes
+     */
+    public static ByteBuffer mapRaw(Path file, int width, int height) throws IOException {
+        long size = (long) width * height * 4;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != size) {
+                throw new IOException(file + " has " + channel.size() + " bytes, expected " + size +
+                                      " for a " + width + "x" + height + " RGBA frame");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+    
+    public static void writePng(Path file, ByteBuffer pixels, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            int base = y * width * 4;
+            for (int x = 0; x < width; x++) {
+                row[x] = (pixels.get(base + x * 4 + 3) & 0xFF) << 24 |
+                         (pixels.get(base + x * 4) & 0xFF) << 16 |
+                         (pixels.get(base + x * 4 + 1) & 0xFF) << 8 |
+                         (pixels.get(base + x * 4 + 2) & 0xFF);
+            }
+            image.setRGB(0, height - 1 - y, width, 1, row, 0, width);
+        }
+        
+        try (OutputStream out = Files.newOutputStream(file)) {
+            if (!ImageIO.write(image, "png", out)) {
+                throw new IOException("No PNG writer available");
+            }
+        }
+    }
+    
+    public static void writeRaw(Path file, ByteBuffer pixels, int width, int height) throws IOException {
+        ByteBuffer frame = pixels.duplicate();
+        frame.clear().limit(width * height * 4);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+        }
+    }
+}
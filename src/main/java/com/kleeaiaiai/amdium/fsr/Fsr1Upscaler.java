@@ -0,0 +1,146 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import com.kleeaiaiai.amdium.AMDium;
+import org.lwjgl.opengl.GL13;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * FSR 1.0 in a single fused pass: EASU upscaling and RCAS sharpening in one
+ * fragment shader, straight into the output. Has variants that take EASU edge
+ * directions from the depth buffer instead of color, and that reconstruct
+ * only luma with bilinear chroma.
+ */
+final class Fsr1Upscaler implements Upscaler {
+    private static final String VERTEX_SHADER = "/assets/amdium/shaders/fsr1.vert";
+    private static final String FRAGMENT_SHADER = "/assets/amdium/shaders/fsr1.frag";
+    
+    // Variant bits, each one a define in fsr1.frag
+    private static final int DEPTH_EDGES = 1;
+    private static final int LUMA_EASU = 2;
+    private static final int VARIANTS = 4;
+    
+    // Variants other than the base one are compiled on demand; a failure is
+    // remembered so we don't retry every frame
+    private final int[] programs = new int[VARIANTS];
+    private final ShaderUniforms[] uniforms = new ShaderUniforms[VARIANTS];
+    private final boolean[] failed = new boolean[VARIANTS];
+    
+    Fsr1Upscaler() {
+        Arrays.fill(uniforms, ShaderUniforms.NONE);
+    }
+    
+    @Override
+    public String getDisplayName() {
+        return "FSR 1.0";
+    }
+    
+    @Override
+    public void compile(UpscalerContext context) throws IOException {
+        programs[0] = context.createProgram(VERTEX_SHADER, FRAGMENT_SHADER, "");
+        uniforms[0] = ShaderUniforms.lookup(context.getGpu(), programs[0]);
+    }
+    
+    private static String definesFor(int variant) {
+        StringBuilder defines = new StringBuilder();
+        if ((variant & DEPTH_EDGES) != 0) {
+            defines.append("#define AMDIUM_DEPTH_EDGES\n");
+        }
+        if ((variant & LUMA_EASU) != 0) {
+            defines.append("#define AMDIUM_LUMA_EASU\n");
+        }
+        return defines.toString();
+    }
+    
+    /**
+     * @return The variant's program, or 0 if it failed to compile
+     */
+    private int getProgram(UpscalerContext context, int variant) {
+        if (programs[variant] <= 0 && !failed[variant]) {
+            String defines = definesFor(variant);
+            try {
+                programs[variant] = context.createProgram(VERTEX_SHADER, FRAGMENT_SHADER, defines);
+                uniforms[variant] = ShaderUniforms.lookup(context.getGpu(), programs[variant]);
+                AMDium.LOGGER.info("FSR 1.0 shader variant compiled successfully: " + defines.trim().replace('\n', ' '));
+            } catch (IOException e) {
+                AMDium.LOGGER.warn("Failed to compile FSR shader variant " + defines.trim().replace('\n', ' ') +
+                                   ", using the base shader", e);
+                programs[variant] = 0;
+                failed[variant] = true;
+            }
+        }
+        return programs[variant];
+    }
+    
+    @Override
+    public boolean render(UpscalerContext context) {
+        GpuBackend gpu = context.getGpu();
+        
+        // Use the FSR 1.0 shader program, or the variant the settings ask for
+        int variant = 0;
+        if (context.isDepthGuidedEdges() && context.getDepthTexture() > 0) {
+            variant |= DEPTH_EDGES;
+        }
+        if (context.isLumaEasu()) {
+            variant |= LUMA_EASU;
+        }
+        if (variant != 0 && getProgram(context, variant) <= 0) {
+            variant = 0;
+        }
+        ShaderUniforms activeUniforms = uniforms[variant];
+        boolean depthEdges = (variant & DEPTH_EDGES) != 0;
+        gpu.useProgram(programs[variant]);
+        
+        // Set uniforms
+        if (activeUniforms.inputSize != -1) {
+            gpu.uniform2f(activeUniforms.inputSize, context.getRenderWidth(), context.getRenderHeight());
+        }
+        if (activeUniforms.outputSize != -1) {
+            gpu.uniform2f(activeUniforms.outputSize, context.getDisplayWidth(), context.getDisplayHeight());
+        }
+        if (activeUniforms.sharpness != -1) {
+            gpu.uniform1f(activeUniforms.sharpness, context.getSharpness());
+        }
+        
+        // Bind input texture
+        gpu.activeTexture(GL13.GL_TEXTURE0);
+        gpu.bindTexture(context.getInputTexture());
+        if (activeUniforms.inputTexture != -1) {
+            gpu.uniform1i(activeUniforms.inputTexture, 0);
+        }
+        
+        // Depth drives the EASU edge direction in the depth-guided variants
+        if (depthEdges) {
+            gpu.activeTexture(GL13.GL_TEXTURE1);
+            gpu.bindTexture(context.getDepthTexture());
+            if (activeUniforms.depthTexture != -1) {
+                gpu.uniform1i(activeUniforms.depthTexture, 1);
+            }
+            if (activeUniforms.depthRange != -1) {
+                gpu.uniform2f(activeUniforms.depthRange, context.getDepthNear(), context.getDepthFar());
+            }
+            gpu.activeTexture(GL13.GL_TEXTURE0);
+        }
+        
+        context.drawFullscreenQuad();
+        
+        if (depthEdges) {
+            gpu.activeTexture(GL13.GL_TEXTURE1);
+            gpu.bindTexture(0);
+            gpu.activeTexture(GL13.GL_TEXTURE0);
+        }
+        return true;
+    }
+    
+    @Override
+    public void delete(GpuBackend gpu) {
+        for (int variant = 0; variant < VARIANTS; variant++) {
+            if (programs[variant] > 0) {
+                gpu.deleteProgram(programs[variant]);
+                programs[variant] = 0;
+            }
+            uniforms[variant] = ShaderUniforms.NONE;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import com.kleeaiaiai.amdium.AMDium;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.opengl.GLDebugMessageCallback;
+import org.lwjgl.opengl.KHRDebug;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts driver-reported GL errors through a KHR_debug message callback, so
+ * error checks don't need glGetError round trips or glFinish.
+ * In the default asynchronous mode the driver may report an error late and
+ * from its own thread, so the callback only bumps counters; the synchronous
+ * debug mode reports each error during the offending call and logs it with a
+ * stack trace, at the cost of serializing the driver.
+ *
+ * Only errors raised inside FSR's own debug group count, so vanilla's and
+ * other mods' mistakes don't disable the upscaler. The group's push and pop
+ * markers arrive through the same callback, in order with the errors, which
+ * keeps the attribution right in asynchronous mode too. A callback that was
+ * already installed, e.g. Minecraft's own GL debug logging, keeps getting
+ * every message except those markers.
+ */
+public class GLDebugMonitor {
+    /**
+     * Debug group ID and name FSR work runs under, with GL_DEBUG_SOURCE_APPLICATION
+     */
+    public static final int SCOPE_ID = 0x414D44;
+    public static final String SCOPE_NAME = "AMDium FSR";
+    
+    private final boolean synchronous;
+    private final AtomicInteger pendingErrors = new AtomicInteger();
+    private volatile int lastErrorId = 0;
+    private volatile boolean loggedFirstError = false;
+    // Only touched from the callback, which the driver never runs concurrently
+    private int scopeDepth = 0;
+    private GLDebugMessageCallback callback;
+    private volatile GLDebugMessageCallback chained;
+    private final long chainedUserParam;
+    
+    private GLDebugMonitor(boolean synchronous, GLDebugMessageCallback chained, long chainedUserParam) {
+        this.synchronous = synchronous;
+        this.chained = chained;
+        this.chainedUserParam = chainedUserParam;
+    }
+    
+    /**
+     * Install the callback on the current context, forwarding to the one
+     * already installed if there is one
+     * @param synchronous Deliver errors during the failing call, for debugging;
+     *                    ignored when chaining, the existing callback's owner chose the mode
+     * @return The monitor, or null if the context has no KHR_debug support
+     */
+    public static GLDebugMonitor install(boolean synchronous) {
+        GLCapabilities caps = GL.getCapabilities();
+        if (!caps.OpenGL43 && !caps.GL_KHR_debug) {
+            AMDium.LOGGER.info("KHR_debug not available, GL error monitoring disabled");
+            return null;
+        }
+        
+        // Callbacks are LWJGL closures whenever Java code installed them, which is how the game does it
+        GLDebugMessageCallback existing = GLDebugMessageCallback.createSafe(GL11.glGetPointer(KHRDebug.GL_DEBUG_CALLBACK_FUNCTION));
+        long existingUserParam = existing != null ? GL11.glGetPointer(KHRDebug.GL_DEBUG_CALLBACK_USER_PARAM) : 0L;
+        if (existing != null) {
+            synchronous = GL11.glIsEnabled(KHRDebug.GL_DEBUG_OUTPUT_SYNCHRONOUS);
+        }
+        
+        GLDebugMonitor monitor = new GLDebugMonitor(synchronous, existing, existingUserParam);
+        try {
+            monitor.callback = GLDebugMessageCallback.create(monitor::onMessage);
+            KHRDebug.glDebugMessageCallback(monitor.callback, 0L);
+            
+            if (existing == null) {
+                // Only errors matter here; keep the driver from formatting performance chatter
+                KHRDebug.glDebugMessageControl(GL11.GL_DONT_CARE, GL11.GL_DONT_CARE, GL11.GL_DONT_CARE, (int[]) null, false);
+                GL11.glEnable(KHRDebug.GL_DEBUG_OUTPUT);
+                if (synchronous) {
+                    GL11.glEnable(KHRDebug.GL_DEBUG_OUTPUT_SYNCHRONOUS);
+                } else {
+                    GL11.glDisable(KHRDebug.GL_DEBUG_OUTPUT_SYNCHRONOUS);
+                }
+            }
+            KHRDebug.glDebugMessageControl(GL11.GL_DONT_CARE, KHRDebug.GL_DEBUG_TYPE_ERROR, GL11.GL_DONT_CARE, (int[]) null, true);
+            // The scope markers
+            KHRDebug.glDebugMessageControl(KHRDebug.GL_DEBUG_SOURCE_APPLICATION, KHRDebug.GL_DEBUG_TYPE_PUSH_GROUP, GL11.GL_DONT_CARE, (int[]) null, true);
+            KHRDebug.glDebugMessageControl(KHRDebug.GL_DEBUG_SOURCE_APPLICATION, KHRDebug.GL_DEBUG_TYPE_POP_GROUP, GL11.GL_DONT_CARE, (int[]) null, true);
+            
+            AMDium.LOGGER.info("GL error monitoring enabled (" + (synchronous ? "synchronous" : "asynchronous") +
+                               (existing != null ? ", chained to the existing debug callback)" : ")"));
+            return monitor;
+        } catch (Exception e) {
+            AMDium.LOGGER.error("Failed to install GL debug callback", e);
+            monitor.close();
+            return null;
+        }
+    }
+    
+    private void onMessage(int source, int type, int id, int severity, int length, long message, long userParam) {
+        if (source == KHRDebug.GL_DEBUG_SOURCE_APPLICATION && id == SCOPE_ID) {
+            if (type == KHRDebug.GL_DEBUG_TYPE_PUSH_GROUP) {
+                scopeDepth++;
+                return;
+            }
+            if (type == KHRDebug.GL_DEBUG_TYPE_POP_GROUP) {
+                scopeDepth = Math.max(0, scopeDepth - 1);
+                return;
+            }
+        }
+        
+        GLDebugMessageCallback next = chained;
+        if (next != null) {
+            next.invoke(source, type, id, severity, length, message, chainedUserParam);
+        }
+        
+        if (type != KHRDebug.GL_DEBUG_TYPE_ERROR || scopeDepth == 0) return;
+        
+        pendingErrors.incrementAndGet();
+        lastErrorId = id;
+        
+        if (synchronous) {
+            AMDium.LOGGER.error("GL error 0x" + Integer.toHexString(id) + ": " + GLDebugMessageCallback.getMessage(length, message),
+                                new Throwable("GL call site"));
+        } else if (!loggedFirstError) {
+            // Once per monitor; after that the counters go through FSRDiagnostics
+            loggedFirstError = true;
+            AMDium.LOGGER.warn("GL error 0x" + Integer.toHexString(id) + ": " + GLDebugMessageCallback.getMessage(length, message));
+        }
+    }
+    
+    /**
+     * @return How many errors the driver reported inside FSR's debug group since the last call, resetting the count
+     */
+    public int takeErrorCount() {
+        return pendingErrors.getAndSet(0);
+    }
+    
+    /**
+     * @return The message ID of the most recent error, driver specific
+     */
+    public int getLastErrorId() {
+        return lastErrorId;
+    }
+    
+    public boolean isSynchronous() {
+        return synchronous;
+    }
+    
+    /**
+     * Remove the callback from the current context, putting back the one it chained to
+     */
+    public void close() {
+        try {
+            if (chained != null) {
+                KHRDebug.glDebugMessageCallback(chained, chainedUserParam);
+            } else {
+                GL11.glDisable(KHRDebug.GL_DEBUG_OUTPUT);
+                KHRDebug.glDebugMessageCallback(null, 0L);
+            }
+        } catch (Exception e) {
+            AMDium.LOGGER.error("Error removing GL debug callback", e);
+        } finally {
+            if (callback != null) {
+                callback.free();
+                callback = null;
+            }
+            // Its owner frees that one
+            chained = null;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The OpenGL calls the FSR pipeline makes, behind an interface so the per-frame
+ * logic can run against something other than a live context.
+ * Method names and arguments follow the GL entry points they stand for, minus
+ * the gl prefix; textures are always GL_TEXTURE_2D and renderbuffers
+ * GL_RENDERBUFFER, since those are the only targets we use.
+ */
+public interface GpuBackend {
+    // State
+    void enable(int cap);
+    void disable(int cap);
+    boolean isEnabled(int cap);
+    int getInteger(int pname);
+    String getString(int name);
+    int getError();
+    boolean isExtensionSupported(String extension);
+    void finish();
+    void viewport(int x, int y, int width, int height);
+    void colorMask(boolean red, boolean green, boolean blue, boolean alpha);
+    void stencilMask(int mask);
+    void stencilFunc(int func, int ref, int mask);
+    void stencilOp(int sfail, int dpfail, int dppass);
+    
+    // Clears
+    void clearColor(float red, float green, float blue, float alpha);
+    void clearStencil(int s);
+    void clear(int mask);
+    
+    // Textures
+    int genTexture();
+    void deleteTexture(int texture);
+    boolean isTexture(int texture);
+    void activeTexture(int unit);
+    void bindTexture(int texture);
+    void texImage2D(int internalFormat, int width, int height, int format, int type);
+    void texSubImage2D(int x, int y, int width, int height, int format, int type, ByteBuffer pixels);
+    void texParameteri(int pname, int param);
+    
+    // Framebuffers and renderbuffers
+    int genFramebuffer();
+    void deleteFramebuffer(int framebuffer);
+    boolean isFramebuffer(int framebuffer);
+    void bindFramebuffer(int target, int framebuffer);
+    int checkFramebufferStatus(int target);
+    void framebufferTexture2D(int target, int attachment, int texture);
+    void blitFramebuffer(int srcX0, int srcY0, int srcX1, int srcY1,
+                         int dstX0, int dstY0, int dstX1, int dstY1,
+                         int mask, int filter);
+    void readPixels(int x, int y, int width, int height, int format, int type, ByteBuffer pixels);
+    /**
+     * Reads into the buffer bound to GL_PIXEL_PACK_BUFFER, at the given byte offset
+     */
+    void readPixels(int x, int y, int width, int height, int format, int type, long offset);
+    int genRenderbuffer();
+    void deleteRenderbuffer(int renderbuffer);
+    boolean isRenderbuffer(int renderbuffer);
+    void bindRenderbuffer(int renderbuffer);
+    void renderbufferStorage(int internalFormat, int width, int height);
+    void framebufferRenderbuffer(int target, int attachment, int renderbuffer);
+    
+    // Shaders
+    int createShader(int type);
+    void shaderSource(int shader, String source);
+    void compileShader(int shader);
+    int getShaderi(int shader, int pname);
+    String getShaderInfoLog(int shader);
+    void deleteShader(int shader);
+    int createProgram();
+    void attachShader(int program, int shader);
+    void linkProgram(int program);
+    void validateProgram(int program);
+    int getProgrami(int program, int pname);
+    String getProgramInfoLog(int program);
+    void deleteProgram(int program);
+    void useProgram(int program);
+    int getUniformLocation(int program, String name);
+    void uniform1i(int location, int value);
+    void uniform1f(int location, float value);
+    void uniform2f(int location, float x, float y);
+    void uniform4f(int location, float x, float y, float z, float w);
+    
+    // Geometry
+    int genVertexArray();
+    void deleteVertexArray(int vao);
+    void bindVertexArray(int vao);
+    int genBuffer();
+    void deleteBuffer(int buffer);
+    void bindBuffer(int target, int buffer);
+    void bufferData(int target, float[] data, int usage);
+    void bufferData(int target, long size, int usage);
+    ByteBuffer mapBufferRange(int target, long offset, long length, int access);
+    boolean unmapBuffer(int target);
+    void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long offset);
+    void enableVertexAttribArray(int index);
+    void disableVertexAttribArray(int index);
+    void drawArrays(int mode, int first, int count);
+    
+    // Queries
+    int genQuery();
+    void deleteQuery(int query);
+    void beginQuery(int target, int query);
+    void endQuery(int target);
+    long getQueryObjectui64(int query, int pname);
+    int getQueryObjecti(int query, int pname);
+    void queryCounter(int query, int target);
+    
+    // Sync objects; fences always wait for GL_SYNC_GPU_COMMANDS_COMPLETE
+    long fenceSync();
+    int getSynci(long sync, int pname);
+    void deleteSync(long sync);
+    
+    // Debug groups (KHR_debug); the source is always GL_DEBUG_SOURCE_APPLICATION
+    void pushDebugGroup(int id, CharSequence message);
+    void popDebugGroup();
+    
+    /**
+     * Marks the end of one processed frame. Only meaningful to backends that
+     * keep per-frame statistics.
+     */
+    default void endFrame() {
+    }
+}
@@ -0,0 +1,137 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
+
+/**
+ * Full-reference quality metrics between two RGBA8 frames of the same size:
+ * PSNR over RGB and SSIM over luma in 8x8 windows. Rows are scored in parallel
+ * on the common fork-join pool; each row writes its own slot, so the sums come
+ * out the same regardless of scheduling.
+ */
+public final class ImageQuality {
+    private static final int WINDOW = 8;
+    // SSIM stabilizers for 8-bit data, (0.01 * 255)^2 and (0.03 * 255)^2
+    private static final double C1 = 6.5025;
+    private static final double C2 = 58.5225;
+    
+    /**
+     * How close a frame came to the reference
+     */
+    public static final class Score {
+        private final double ssim;
+        private final double psnr;
+        
+        Score(double ssim, double psnr) {
+            this.ssim = ssim;
+            this.psnr = psnr;
+        }
+        
+        /**
+         * @return Mean structural similarity, 1.0 for identical frames
+         */
+        public double getSsim() {
+            return ssim;
+        }
+        
+        /**
+         * @return Peak signal-to-noise ratio in dB, infinite for identical frames
+         */
+        public double getPsnr() {
+            return psnr;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("SSIM %.4f, PSNR %.2f dB", ssim, psnr);
+        }
+    }
+    
+    private ImageQuality() {
+    }
+    
+    /**
+     * Compare two frames; both buffers are read with absolute gets and left untouched
+     */
+    public static Score compare(ByteBuffer reference, ByteBuffer test, int width, int height) {
+        if (reference.capacity() < width * height * 4 || test.capacity() < width * height * 4) {
+            throw new IllegalArgumentException("Frame buffers are smaller than " + width + "x" + height + " RGBA");
+        }
+        
+        double[] rowSquaredError = new double[height];
+        IntStream.range(0, height).parallel().forEach(y -> rowSquaredError[y] = squaredError(reference, test, width, y));
+        
+        int windowRows = height / WINDOW;
+        int windowColumns = width / WINDOW;
+        double[] rowSsim = new double[windowRows];
+        IntStream.range(0, windowRows).parallel().forEach(row -> rowSsim[row] = ssimRow(reference, test, width, windowColumns, row));
+        
+        double squaredError = 0.0;
+        for (double value : rowSquaredError) {
+            squaredError += value;
+        }
+        double mse = squaredError / ((double) width * height * 3);
+        double psnr = mse > 0.0 ? 10.0 * Math.log10(255.0 * 255.0 / mse) : Double.POSITIVE_INFINITY;
+        
+        double ssimSum = 0.0;
+        for (double value : rowSsim) {
+            ssimSum += value;
+        }
+        double ssim = windowRows * windowColumns > 0 ? ssimSum / ((double) windowRows * windowColumns) : 1.0;
+        
+        return new Score(ssim, psnr);
+    }
+    
+    private static double squaredError(ByteBuffer reference, ByteBuffer test, int width, int y) {
+        double sum = 0.0;
+        int base = y * width * 4;
+        for (int x = 0; x < width; x++) {
+            int i = base + x * 4;
+            for (int c = 0; c < 3; c++) {
+                int diff = (reference.get(i + c) & 0xFF) - (test.get(i + c) & 0xFF);
+                sum += diff * diff;
+            }
+        }
+        return sum;
+    }
+    
+    /**
+     * @return The sum of the SSIM values of one row of windows
+     */
+    private static double ssimRow(ByteBuffer reference, ByteBuffer test, int width, int windowColumns, int row) {
+        double sum = 0.0;
+        int n = WINDOW * WINDOW;
+        for (int column = 0; column < windowColumns; column++) {
+            double sumA = 0.0;
+            double sumB = 0.0;
+            double sumAA = 0.0;
+            double sumBB = 0.0;
+            double sumAB = 0.0;
+            for (int dy = 0; dy < WINDOW; dy++) {
+                int base = ((row * WINDOW + dy) * width + column * WINDOW) * 4;
+                for (int dx = 0; dx < WINDOW; dx++) {
+                    double a = luma(reference, base + dx * 4);
+                    double b = luma(test, base + dx * 4);
+                    sumA += a;
+                    sumB += b;
+                    sumAA += a * a;
+                    sumBB += b * b;
+                    sumAB += a * b;
+                }
+            }
+            
+            double meanA = sumA / n;
+            double meanB = sumB / n;
+            double varianceA = sumAA / n - meanA * meanA;
+            double varianceB = sumBB / n - meanB * meanB;
+            double covariance = sumAB / n - meanA * meanB;
+            sum += ((2.0 * meanA * meanB + C1) * (2.0 * covariance + C2)) /
+                   ((meanA * meanA + meanB * meanB + C1) * (varianceA + varianceB + C2));
+        }
+        return sum;
+    }
+    
+    private static double luma(ByteBuffer pixels, int i) {
+        return 0.299 * (pixels.get(i) & 0xFF) + 0.587 * (pixels.get(i + 1) & 0xFF) + 0.114 * (pixels.get(i + 2) & 0xFF);
+    }
+}
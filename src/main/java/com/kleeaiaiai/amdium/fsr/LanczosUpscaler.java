@@ -0,0 +1,109 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL30;
+
+import java.io.IOException;
+
+/**
+ * Separable Lanczos-2: a horizontal pass at display width and render height,
+ * then a vertical pass at display resolution. That is 8 taps per output pixel
+ * with no edge analysis, a cheaper tier than EASU for fill-limited GPUs.
+ * RCAS runs afterwards unless sharpness is turned all the way down.
+ */
+final class LanczosUpscaler implements Upscaler {
+    private static final String VERTEX_SHADER = "/assets/amdium/shaders/fsr_lanczos.vert";
+    private static final String FRAGMENT_SHADER = "/assets/amdium/shaders/fsr_lanczos.frag";
+    
+    private final RcasPass rcas = new RcasPass();
+    private int horizontalProgram;
+    private int verticalProgram;
+    private ShaderUniforms horizontalUniforms = ShaderUniforms.NONE;
+    private ShaderUniforms verticalUniforms = ShaderUniforms.NONE;
+    
+    @Override
+    public String getDisplayName() {
+        return "Lanczos (separable)";
+    }
+    
+    @Override
+    public boolean needsIntermediateTarget() {
+        return true;
+    }
+    
+    @Override
+    public boolean needsHorizontalTarget() {
+        return true;
+    }
+    
+    @Override
+    public void compile(UpscalerContext context) throws IOException {
+        horizontalProgram = context.createProgram(VERTEX_SHADER, FRAGMENT_SHADER, "");
+        horizontalUniforms = ShaderUniforms.lookup(context.getGpu(), horizontalProgram);
+        verticalProgram = context.createProgram(VERTEX_SHADER, FRAGMENT_SHADER, "#define AMDIUM_LANCZOS_VERTICAL\n");
+        verticalUniforms = ShaderUniforms.lookup(context.getGpu(), verticalProgram);
+        rcas.compile(context);
+    }
+    
+    @Override
+    public boolean render(UpscalerContext context) {
+        int horizontal = context.getHorizontalFramebuffer();
+        int intermediate = context.getIntermediateFramebuffer();
+        if (horizontal <= 0 || intermediate <= 0) {
+            return false;
+        }
+        GpuBackend gpu = context.getGpu();
+        int displayWidth = context.getDisplayWidth();
+        int displayHeight = context.getDisplayHeight();
+        int renderHeight = context.getRenderHeight();
+        boolean sharpen = context.getSharpness() > 0.0f;
+        
+        // Horizontal: render resolution -> display width x render height
+        gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, horizontal);
+        gpu.viewport(0, 0, displayWidth, renderHeight);
+        runPass(context, horizontalProgram, horizontalUniforms, context.getInputTexture(),
+                context.getRenderWidth(), renderHeight);
+        
+        // Vertical: -> display resolution, straight into the output when there is nothing to sharpen
+        gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, sharpen ? intermediate : context.getOutputFramebuffer());
+        gpu.viewport(0, 0, displayWidth, displayHeight);
+        runPass(context, verticalProgram, verticalUniforms, context.getHorizontalTexture(),
+                displayWidth, renderHeight);
+        
+        if (sharpen) {
+            gpu.bindFramebuffer(GL30.GL_FRAMEBUFFER, context.getOutputFramebuffer());
+            rcas.render(context, context.getIntermediateTexture());
+        }
+        return true;
+    }
+    
+    private static void runPass(UpscalerContext context, int program, ShaderUniforms uniforms, int sourceTexture,
+                                int sourceWidth, int sourceHeight) {
+        GpuBackend gpu = context.getGpu();
+        gpu.useProgram(program);
+        if (uniforms.inputSize != -1) {
+            gpu.uniform2f(uniforms.inputSize, sourceWidth, sourceHeight);
+        }
+        gpu.activeTexture(GL13.GL_TEXTURE0);
+        gpu.bindTexture(sourceTexture);
+        if (uniforms.inputTexture != -1) {
+            gpu.uniform1i(uniforms.inputTexture, 0);
+        }
+        context.drawFullscreenQuad();
+    }
+    
+    @Override
+    public void delete(GpuBackend gpu) {
+        if (horizontalProgram > 0) {
+            gpu.deleteProgram(horizontalProgram);
+            horizontalProgram = 0;
+        }
+        if (verticalProgram > 0) {
+            gpu.deleteProgram(verticalProgram);
+            verticalProgram = 0;
+        }
+        horizontalUniforms = ShaderUniforms.NONE;
+        verticalUniforms = ShaderUniforms.NONE;
+        rcas.delete(gpu);
+    }
+}
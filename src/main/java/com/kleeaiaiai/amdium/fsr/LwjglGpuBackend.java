@@ -0,0 +1,450 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL33;
+import org.lwjgl.opengl.KHRDebug;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Forwards every call straight to the current OpenGL context through LWJGL
+ */
+public final class LwjglGpuBackend implements GpuBackend {
+    public static final LwjglGpuBackend INSTANCE = new LwjglGpuBackend();
+    
+    private LwjglGpuBackend() {
+    }
+    
+    @Override
+    public void enable(int cap) {
+        GL11.glEnable(cap);
+    }
+    
+    @Override
+    public void disable(int cap) {
+        GL11.glDisable(cap);
+    }
+    
+    @Override
+    public boolean isEnabled(int cap) {
+        return GL11.glIsEnabled(cap);
+    }
+    
+    @Override
+    public int getInteger(int pname) {
+        return GL11.glGetInteger(pname);
+    }
+    
+    @Override
+    public String getString(int name) {
+        return GL11.glGetString(name);
+    }
+    
+    @Override
+    public int getError() {
+        return GL11.glGetError();
+    }
+    
+    @Override
+    public boolean isExtensionSupported(String extension) {
+        int count = GL11.glGetInteger(GL30.GL_NUM_EXTENSIONS);
+        for (int i = 0; i < count; i++) {
+            if (extension.equals(GL30.glGetStringi(GL11.GL_EXTENSIONS, i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public void finish() {
+        GL11.glFinish();
+    }
+    
+    @Override
+    public void viewport(int x, int y, int width, int height) {
+        GL11.glViewport(x, y, width, height);
+    }
+    
+    @Override
+    public void colorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+        GL11.glColorMask(red, green, blue, alpha);
+    }
+    
+    @Override
+    public void stencilMask(int mask) {
+        GL11.glStencilMask(mask);
+    }
+    
+    @Override
+    public void stencilFunc(int func, int ref, int mask) {
+        GL11.glStencilFunc(func, ref, mask);
+    }
+    
+    @Override
+    public void stencilOp(int sfail, int dpfail, int dppass) {
+        GL11.glStencilOp(sfail, dpfail, dppass);
+    }
+    
+    @Override
+    public void clearColor(float red, float green, float blue, float alpha) {
+        GL11.glClearColor(red, green, blue, alpha);
+    }
+    
+    @Override
+    public void clearStencil(int s) {
+        GL11.glClearStencil(s);
+    }
+    
+    @Override
+    public void clear(int mask) {
+        GL11.glClear(mask);
+    }
+    
+    @Override
+    public int genTexture() {
+        return GL11.glGenTextures();
+    }
+    
+    @Override
+    public void deleteTexture(int texture) {
+        GL11.glDeleteTextures(texture);
+    }
+    
+    @Override
+    public boolean isTexture(int texture) {
+        return GL11.glIsTexture(texture);
+    }
+    
+    @Override
+    public void activeTexture(int unit) {
+        GL13.glActiveTexture(unit);
+    }
+    
+    @Override
+    public void bindTexture(int texture) {
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+    }
+    
+    @Override
+    public void texImage2D(int internalFormat, int width, int height, int format, int type) {
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, internalFormat, width, height, 0, format, type, (ByteBuffer) null);
+    }
+    
+    @Override
+    public void texSubImage2D(int x, int y, int width, int height, int format, int type, ByteBuffer pixels) {
+        GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, 0, x, y, width, height, format, type, pixels);
+    }
+    
+    @Override
+    public void texParameteri(int pname, int param) {
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, pname, param);
+    }
+    
+    @Override
+    public int genFramebuffer() {
+        return GL30.glGenFramebuffers();
+    }
+    
+    @Override
+    public void deleteFramebuffer(int framebuffer) {
+        GL30.glDeleteFramebuffers(framebuffer);
+    }
+    
+    @Override
+    public boolean isFramebuffer(int framebuffer) {
+        return GL30.glIsFramebuffer(framebuffer);
+    }
+    
+    @Override
+    public void bindFramebuffer(int target, int framebuffer) {
+        GL30.glBindFramebuffer(target, framebuffer);
+    }
+    
+    @Override
+    public int checkFramebufferStatus(int target) {
+        return GL30.glCheckFramebufferStatus(target);
+    }
+    
+    @Override
+    public void framebufferTexture2D(int target, int attachment, int texture) {
+        GL30.glFramebufferTexture2D(target, attachment, GL11.GL_TEXTURE_2D, texture, 0);
+    }
+    
+    @Override
+    public void blitFramebuffer(int srcX0, int srcY0, int srcX1, int srcY1,
+                                int dstX0, int dstY0, int dstX1, int dstY1,
+                                int mask, int filter) {
+        GL30.glBlitFramebuffer(srcX0, srcY0, srcX1, srcY1, dstX0, dstY0, dstX1, dstY1, mask, filter);
+    }
+    
+    @Override
+    public void readPixels(int x, int y, int width, int height, int format, int type, ByteBuffer pixels) {
+        GL11.glReadPixels(x, y, width, height, format, type, pixels);
+    }
+    
+    @Override
+    public void readPixels(int x, int y, int width, int height, int format, int type, long offset) {
+        GL11.glReadPixels(x, y, width, height, format, type, offset);
+    }
+    
+    @Override
+    public int genRenderbuffer() {
+        return GL30.glGenRenderbuffers();
+    }
+    
+    @Override
+    public void deleteRenderbuffer(int renderbuffer) {
+        GL30.glDeleteRenderbuffers(renderbuffer);
+    }
+    
+    @Override
+    public boolean isRenderbuffer(int renderbuffer) {
+        return GL30.glIsRenderbuffer(renderbuffer);
+    }
+    
+    @Override
+    public void bindRenderbuffer(int renderbuffer) {
+        GL30.glBindRenderbuffer(GL30.GL_RENDERBUFFER, renderbuffer);
+    }
+    
+    @Override
+    public void renderbufferStorage(int internalFormat, int width, int height) {
+        GL30.glRenderbufferStorage(GL30.GL_RENDERBUFFER, internalFormat, width, height);
+    }
+    
+    @Override
+    public void framebufferRenderbuffer(int target, int attachment, int renderbuffer) {
+        GL30.glFramebufferRenderbuffer(target, attachment, GL30.GL_RENDERBUFFER, renderbuffer);
+    }
+    
+    @Override
+    public int createShader(int type) {
+        return GL20.glCreateShader(type);
+    }
+    
+    @Override
+    public void shaderSource(int shader, String source) {
+        GL20.glShaderSource(shader, source);
+    }
+    
+    @Override
+    public void compileShader(int shader) {
+        GL20.glCompileShader(shader);
+    }
+    
+    @Override
+    public int getShaderi(int shader, int pname) {
+        return GL20.glGetShaderi(shader, pname);
+    }
+    
+    @Override
+    public String getShaderInfoLog(int shader) {
+        return GL20.glGetShaderInfoLog(shader);
+    }
+    
+    @Override
+    public void deleteShader(int shader) {
+        GL20.glDeleteShader(shader);
+    }
+    
+    @Override
+    public int createProgram() {
+        return GL20.glCreateProgram();
+    }
+    
+    @Override
+    public void attachShader(int program, int shader) {
+        GL20.glAttachShader(program, shader);
+    }
+    
+    @Override
+    public void linkProgram(int program) {
+        GL20.glLinkProgram(program);
+    }
+    
+    @Override
+    public void validateProgram(int program) {
+        GL20.glValidateProgram(program);
+    }
+    
+    @Override
+    public int getProgrami(int program, int pname) {
+        return GL20.glGetProgrami(program, pname);
+    }
+    
+    @Override
+    public String getProgramInfoLog(int program) {
+        return GL20.glGetProgramInfoLog(program);
+    }
+    
+    @Override
+    public void deleteProgram(int program) {
+        GL20.glDeleteProgram(program);
+    }
+    
+    @Override
+    public void useProgram(int program) {
+        GL20.glUseProgram(program);
+    }
+    
+    @Override
+    public int getUniformLocation(int program, String name) {
+        return GL20.glGetUniformLocation(program, name);
+    }
+    
+    @Override
+    public void uniform1i(int location, int value) {
+        GL20.glUniform1i(location, value);
+    }
+    
+    @Override
+    public void uniform1f(int location, float value) {
+        GL20.glUniform1f(location, value);
+    }
+    
+    @Override
+    public void uniform2f(int location, float x, float y) {
+        GL20.glUniform2f(location, x, y);
+    }
+    
+    @Override
+    public void uniform4f(int location, float x, float y, float z, float w) {
+        GL20.glUniform4f(location, x, y, z, w);
+    }
+    
+    @Override
+    public int genVertexArray() {
+        return GL30.glGenVertexArrays();
+    }
+    
+    @Override
+    public void deleteVertexArray(int vao) {
+        GL30.glDeleteVertexArrays(vao);
+    }
+    
+    @Override
+    public void bindVertexArray(int vao) {
+        GL30.glBindVertexArray(vao);
+    }
+    
+    @Override
+    public int genBuffer() {
+        return GL15.glGenBuffers();
+    }
+    
+    @Override
+    public void deleteBuffer(int buffer) {
+        GL15.glDeleteBuffers(buffer);
+    }
+    
+    @Override
+    public void bindBuffer(int target, int buffer) {
+        GL15.glBindBuffer(target, buffer);
+    }
+    
+    @Override
+    public void bufferData(int target, float[] data, int usage) {
+        GL15.glBufferData(target, data, usage);
+    }
+    
+    @Override
+    public void bufferData(int target, long size, int usage) {
+        GL15.glBufferData(target, size, usage);
+    }
+    
+    @Override
+    public ByteBuffer mapBufferRange(int target, long offset, long length, int access) {
+        return GL30.glMapBufferRange(target, offset, length, access);
+    }
+    
+    @Override
+    public boolean unmapBuffer(int target) {
+        return GL15.glUnmapBuffer(target);
+    }
+    
+    @Override
+    public void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long offset) {
+        GL20.glVertexAttribPointer(index, size, type, normalized, stride, offset);
+    }
+    
+    @Override
+    public void enableVertexAttribArray(int index) {
+        GL20.glEnableVertexAttribArray(index);
+    }
+    
+    @Override
+    public void disableVertexAttribArray(int index) {
+        GL20.glDisableVertexAttribArray(index);
+    }
+    
+    @Override
+    public void drawArrays(int mode, int first, int count) {
+        GL11.glDrawArrays(mode, first, count);
+    }
+    
+    @Override
+    public int genQuery() {
+        return GL15.glGenQueries();
+    }
+    
+    @Override
+    public void deleteQuery(int query) {
+        GL15.glDeleteQueries(query);
+    }
+    
+    @Override
+    public void beginQuery(int target, int query) {
+        GL15.glBeginQuery(target, query);
+    }
+    
+    @Override
+    public void endQuery(int target) {
+        GL15.glEndQuery(target);
+    }
+    
+    @Override
+    public long getQueryObjectui64(int query, int pname) {
+        return GL33.glGetQueryObjectui64(query, pname);
+    }
+    
+    @Override
+    public int getQueryObjecti(int query, int pname) {
+        return GL15.glGetQueryObjecti(query, pname);
+    }
+    
+    @Override
+    public void queryCounter(int query, int target) {
+        GL33.glQueryCounter(query, target);
+    }
+    
+    @Override
+    public long fenceSync() {
+        return GL32.glFenceSync(GL32.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+    }
+    
+    @Override
+    public int getSynci(long sync, int pname) {
+        return GL32.glGetSynci(sync, pname, null);
+    }
+    
+    @Override
+    public void deleteSync(long sync) {
+        GL32.glDeleteSync(sync);
+    }
+    
+    @Override
+    public void pushDebugGroup(int id, CharSequence message) {
+        KHRDebug.glPushDebugGroup(KHRDebug.GL_DEBUG_SOURCE_APPLICATION, id, message);
+    }
+    
+    @Override
+    public void popDebugGroup() {
+        KHRDebug.glPopDebugGroup();
+    }
+}
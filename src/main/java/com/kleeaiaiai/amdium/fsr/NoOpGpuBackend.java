@@ -0,0 +1,390 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A backend without a GPU. Every command is dropped, object creation hands out
+ * fresh names and every status check succeeds, so the FSR code takes the same
+ * path it would on a healthy driver.
+ */
+public class NoOpGpuBackend implements GpuBackend {
+    // Reported for GL_MAX_TEXTURE_SIZE, matching what current desktop GPUs expose
+    private static final int MAX_TEXTURE_SIZE = 16384;
+    
+    private int nextName = 1;
+    
+    private int nextName() {
+        return nextName++;
+    }
+    
+    @Override
+    public void enable(int cap) {
+    }
+    
+    @Override
+    public void disable(int cap) {
+    }
+    
+    @Override
+    public boolean isEnabled(int cap) {
+        return false;
+    }
+    
+    @Override
+    public int getInteger(int pname) {
+        return pname == GL11.GL_MAX_TEXTURE_SIZE ? MAX_TEXTURE_SIZE : 0;
+    }
+    
+    @Override
+    public String getString(int name) {
+        return "";
+    }
+    
+    @Override
+    public int getError() {
+        return GL11.GL_NO_ERROR;
+    }
+    
+    @Override
+    public boolean isExtensionSupported(String extension) {
+        return false;
+    }
+    
+    @Override
+    public void finish() {
+    }
+    
+    @Override
+    public void viewport(int x, int y, int width, int height) {
+    }
+    
+    @Override
+    public void colorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+    }
+    
+    @Override
+    public void stencilMask(int mask) {
+    }
+    
+    @Override
+    public void stencilFunc(int func, int ref, int mask) {
+    }
+    
+    @Override
+    public void stencilOp(int sfail, int dpfail, int dppass) {
+    }
+    
+    @Override
+    public void clearColor(float red, float green, float blue, float alpha) {
+    }
+    
+    @Override
+    public void clearStencil(int s) {
+    }
+    
+    @Override
+    public void clear(int mask) {
+    }
+    
+    @Override
+    public int genTexture() {
+        return nextName();
+    }
+    
+    @Override
+    public void deleteTexture(int texture) {
+    }
+    
+    @Override
+    public boolean isTexture(int texture) {
+        return texture > 0;
+    }
+    
+    @Override
+    public void activeTexture(int unit) {
+    }
+    
+    @Override
+    public void bindTexture(int texture) {
+    }
+    
+    @Override
+    public void texImage2D(int internalFormat, int width, int height, int format, int type) {
+    }
+    
+    @Override
+    public void texParameteri(int pname, int param) {
+    }
+    
+    @Override
+    public void texSubImage2D(int x, int y, int width, int height, int format, int type, ByteBuffer pixels) {
+    }
+    
+    @Override
+    public int genFramebuffer() {
+        return nextName();
+    }
+    
+    @Override
+    public void deleteFramebuffer(int framebuffer) {
+    }
+    
+    @Override
+    public boolean isFramebuffer(int framebuffer) {
+        return framebuffer > 0;
+    }
+    
+    @Override
+    public void bindFramebuffer(int target, int framebuffer) {
+    }
+    
+    @Override
+    public int checkFramebufferStatus(int target) {
+        return GL30.GL_FRAMEBUFFER_COMPLETE;
+    }
+    
+    @Override
+    public void framebufferTexture2D(int target, int attachment, int texture) {
+    }
+    
+    @Override
+    public void blitFramebuffer(int srcX0, int srcY0, int srcX1, int srcY1,
+                                int dstX0, int dstY0, int dstX1, int dstY1,
+                                int mask, int filter) {
+    }
+    
+    @Override
+    public void readPixels(int x, int y, int width, int height, int format, int type, ByteBuffer pixels) {
+    }
+    
+    @Override
+    public void readPixels(int x, int y, int width, int height, int format, int type, long offset) {
+    }
+    
+    @Override
+    public int genRenderbuffer() {
+        return nextName();
+    }
+    
+    @Override
+    public void deleteRenderbuffer(int renderbuffer) {
+    }
+    
+    @Override
+    public boolean isRenderbuffer(int renderbuffer) {
+        return renderbuffer > 0;
+    }
+    
+    @Override
+    public void bindRenderbuffer(int renderbuffer) {
+    }
+    
+    @Override
+    public void renderbufferStorage(int internalFormat, int width, int height) {
+    }
+    
+    @Override
+    public void framebufferRenderbuffer(int target, int attachment, int renderbuffer) {
+    }
+    
+    @Override
+    public int createShader(int type) {
+        return nextName();
+    }
+    
+    @Override
+    public void shaderSource(int shader, String source) {
+    }
+    
+    @Override
+    public void compileShader(int shader) {
+    }
+    
+    @Override
+    public int getShaderi(int shader, int pname) {
+        return GL11.GL_TRUE;
+    }
+    
+    @Override
+    public String getShaderInfoLog(int shader) {
+        return "";
+    }
+    
+    @Override
+    public void deleteShader(int shader) {
+    }
+    
+    @Override
+    public int createProgram() {
+        return nextName();
+    }
+    
+    @Override
+    public void attachShader(int program, int shader) {
+    }
+    
+    @Override
+    public void linkProgram(int program) {
+    }
+    
+    @Override
+    public void validateProgram(int program) {
+    }
+    
+    @Override
+    public int getProgrami(int program, int pname) {
+        return GL11.GL_TRUE;
+    }
+    
+    @Override
+    public String getProgramInfoLog(int program) {
+        return "";
+    }
+    
+    @Override
+    public void deleteProgram(int program) {
+    }
+    
+    @Override
+    public void useProgram(int program) {
+    }
+    
+    @Override
+    public int getUniformLocation(int program, String name) {
+        return 0;
+    }
+    
+    @Override
+    public void uniform1i(int location, int value) {
+    }
+    
+    @Override
+    public void uniform1f(int location, float value) {
+    }
+    
+    @Override
+    public void uniform2f(int location, float x, float y) {
+    }
+    
+    @Override
+    public void uniform4f(int location, float x, float y, float z, float w) {
+    }
+    
+    @Override
+    public int genVertexArray() {
+        return nextName();
+    }
+    
+    @Override
+    public void deleteVertexArray(int vao) {
+    }
+    
+    @Override
+    public void bindVertexArray(int vao) {
+    }
+    
+    @Override
+    public int genBuffer() {
+        return nextName();
+    }
+    
+    @Override
+    public void deleteBuffer(int buffer) {
+    }
+    
+    @Override
+    public void bindBuffer(int target, int buffer) {
+    }
+    
+    @Override
+    public void bufferData(int target, float[] data, int usage) {
+    }
+    
+    @Override
+    public void bufferData(int target, long size, int usage) {
+    }
+    
+    @Override
+    public ByteBuffer mapBufferRange(int target, long offset, long length, int access) {
+        // Zero-filled, like a buffer nothing was ever read into
+        return ByteBuffer.allocateDirect((int) length);
+    }
+    
+    @Override
+    public boolean unmapBuffer(int target) {
+        return true;
+    }
+    
+    @Override
+    public void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long offset) {
+    }
+    
+    @Override
+    public void enableVertexAttribArray(int index) {
+    }
+    
+    @Override
+    public void disableVertexAttribArray(int index) {
+    }
+    
+    @Override
+    public void drawArrays(int mode, int first, int count) {
+    }
+    
+    @Override
+    public int genQuery() {
+        return 0;
+    }
+    
+    @Override
+    public void deleteQuery(int query) {
+    }
+    
+    @Override
+    public void beginQuery(int target, int query) {
+    }
+    
+    @Override
+    public void endQuery(int target) {
+    }
+    
+    @Override
+    public long getQueryObjectui64(int query, int pname) {
+        return 0;
+    }
+    
+    @Override
+    public int getQueryObjecti(int query, int pname) {
+        return 0;
+    }
+    
+    @Override
+    public void queryCounter(int query, int target) {
+    }
+    
+    @Override
+    public long fenceSync() {
+        return nextName();
+    }
+    
+    @Override
+    public int getSynci(long sync, int pname) {
+        return pname == GL32.GL_SYNC_STATUS ? GL32.GL_SIGNALED : 0;
+    }
+    
+    @Override
+    public void deleteSync(long sync) {
+    }
+    
+    @Override
+    public void pushDebugGroup(int id, CharSequence message) {
+    }
+    
+    @Override
+    public void popDebugGroup() {
+    }
+}
@@ -0,0 +1,145 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * How each quality mode compared against a native frame on this machine, and
+ * what it is estimated to cost. The scene's cost is taken to scale with the
+ * render resolution, so a mode's frame time is the native scene time scaled by
+ * its share of the display pixels, plus the measured upscale time.
+ *
+ * Both numbers are approximations, spelled out by {@link #describeMethod()}:
+ * each mode's input is the lower-left render-size region of the native frame,
+ * the same input processFrame upscales, not a frame the game rendered at that
+ * size, and the cost model ignores work that doesn't scale with pixels, such
+ * as vertex processing and the CPU side of the frame.
+ */
+public class QualityReport {
+    /**
+     * One quality mode's result
+     */
+    public static final class Entry {
+        private final FSRQualityMode mode;
+        private final int renderWidth;
+        private final int renderHeight;
+        private final ImageQuality.Score score;
+        private final double upscaleMs;
+        private final double estimatedFrameMs;
+        
+        Entry(FSRQualityMode mode, int renderWidth, int renderHeight, ImageQuality.Score score,
+              double upscaleMs, double estimatedFrameMs) {
+            this.mode = mode;
+            this.renderWidth = renderWidth;
+            this.renderHeight = renderHeight;
+            this.score = score;
+            this.upscaleMs = upscaleMs;
+            this.estimatedFrameMs = estimatedFrameMs;
+        }
+        
+        public FSRQualityMode getMode() {
+            return mode;
+        }
+        
+        public int getRenderWidth() {
+            return renderWidth;
+        }
+        
+        public int getRenderHeight() {
+            return renderHeight;
+        }
+        
+        public ImageQuality.Score getScore() {
+            return score;
+        }
+        
+        /**
+         * @return GPU time of the upscale pass in milliseconds, NaN if it couldn't be timed
+         */
+        public double getUpscaleMs() {
+            return upscaleMs;
+        }
+        
+        /**
+         * @return Estimated GPU time of a whole frame in this mode, NaN if the scene wasn't timed
+         */
+        public double getEstimatedFrameMs() {
+            return estimatedFrameMs;
+        }
+        
+        @Override
+        public String toString() {
+            return mode.getDisplayName() + " (" + renderWidth + "x" + renderHeight + "): " + score +
+                   String.format(", upscale %.3f ms, frame ~%.2f ms", upscaleMs, estimatedFrameMs);
+        }
+    }
+    
+    private final int displayWidth;
+    private final int displayHeight;
+    private final double sceneMs;
+    private final List<Entry> entries = new ArrayList<>();
+    
+    /**
+     * @param sceneMs GPU time of the native frame the modes are compared against, NaN if unknown
+     */
+    public QualityReport(int displayWidth, int displayHeight, double sceneMs) {
+        this.displayWidth = displayWidth;
+        this.displayHeight = displayHeight;
+        this.sceneMs = sceneMs;
+    }
+    
+    void add(FSRQualityMode mode, int renderWidth, int renderHeight, ImageQuality.Score score, double upscaleMs) {
+        double pixelShare = (double) renderWidth * renderHeight / ((double) displayWidth * displayHeight);
+        double upscale = Double.isNaN(upscaleMs) ? 0.0 : upscaleMs;
+        entries.add(new Entry(mode, renderWidth, renderHeight, score, upscaleMs, sceneMs * pixelShare + upscale));
+    }
+    
+    /**
+     * @return What the scores and frame times are based on, for the log next to the entries
+     */
+    public String describeMethod() {
+        return "Quality modes scored against the native " + displayWidth + "x" + displayHeight + " frame, each " +
+               "upscaling the frame's lower-left region at its render size as processFrame does, without the " +
+               "sky mask and depth-guided edges; frame times are " +
+               (Double.isNaN(sceneMs) ? "unknown, the scene wasn't timed" :
+                String.format("the %.2f ms scene time scaled by each mode's pixel share plus its upscale time, " +
+                              "so they leave out work that doesn't scale with resolution", sceneMs));
+    }
+    
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+    
+    /**
+     * @return GPU time of the native reference frame in milliseconds, NaN if unknown
+     */
+    public double getSceneMs() {
+        return sceneMs;
+    }
+    
+    /**
+     * The cheapest mode whose SSIM reaches the threshold. Without a scene time,
+     * the mode with the fewest render pixels counts as cheapest.
+     * @return The mode, or null if none is good enough
+     */
+    public Entry recommend(double minSsim) {
+        Entry best = null;
+        for (Entry entry : entries) {
+            if (entry.score.getSsim() < minSsim) continue;
+            if (best == null || isCheaper(entry, best)) {
+                best = entry;
+            }
+        }
+        return best;
+    }
+    
+    private static boolean isCheaper(Entry entry, Entry other) {
+        if (!Double.isNaN(entry.estimatedFrameMs) && !Double.isNaN(other.estimatedFrameMs)) {
+            return entry.estimatedFrameMs < other.estimatedFrameMs;
+        }
+        long pixels = (long) entry.renderWidth * entry.renderHeight;
+        long otherPixels = (long) other.renderWidth * other.renderHeight;
+        return pixels < otherPixels || (pixels == otherPixels && entry.upscaleMs < other.upscaleMs);
+    }
+}
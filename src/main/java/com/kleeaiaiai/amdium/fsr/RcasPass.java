@@ -0,0 +1,64 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import org.lwjgl.opengl.GL13;
+
+import java.io.IOException;
+
+/**
+ * Standalone RCAS sharpening at display resolution, shared by the upscalers
+ * that scale and sharpen in separate passes
+ */
+final class RcasPass {
+    private static final String VERTEX_SHADER = "/assets/amdium/shaders/fsr_rcas.vert";
+    private static final String FRAGMENT_SHADER = "/assets/amdium/shaders/fsr_rcas.frag";
+    
+    // fsr_rcas.frag takes sharpness in stops, 0 = strongest, 2 = none
+    private static final float MAX_STOPS = 2.0f;
+    
+    private int program;
+    private ShaderUniforms uniforms = ShaderUniforms.NONE;
+    
+    void compile(UpscalerContext context) throws IOException {
+        program = context.createProgram(VERTEX_SHADER, FRAGMENT_SHADER, "");
+        uniforms = ShaderUniforms.lookup(context.getGpu(), program);
+    }
+    
+    /**
+     * Sharpen a display-resolution texture into the bound framebuffer
+     */
+    void render(UpscalerContext context, int sourceTexture) {
+        render(context, sourceTexture, 0.0f, 0.0f, 1.0f, 1.0f);
+    }
+    
+    /**
+     * Sharpen the part of a texture at x, y with the given size, all in 0..1
+     * texture coordinates, into the bound framebuffer
+     */
+    void render(UpscalerContext context, int sourceTexture, float x, float y, float width, float height) {
+        GpuBackend gpu = context.getGpu();
+        gpu.useProgram(program);
+        
+        if (uniforms.tileRect != -1) {
+            gpu.uniform4f(uniforms.tileRect, x, y, width, height);
+        }
+        if (uniforms.sharpness != -1) {
+            gpu.uniform1f(uniforms.sharpness, (1.0f - context.getSharpness()) * MAX_STOPS);
+        }
+        
+        gpu.activeTexture(GL13.GL_TEXTURE0);
+        gpu.bindTexture(sourceTexture);
+        if (uniforms.inputTexture != -1) {
+            gpu.uniform1i(uniforms.inputTexture, 0);
+        }
+        
+        context.drawFullscreenQuad();
+    }
+    
+    void delete(GpuBackend gpu) {
+        if (program > 0) {
+            gpu.deleteProgram(program);
+            program = 0;
+        }
+        uniforms = ShaderUniforms.NONE;
+    }
+}
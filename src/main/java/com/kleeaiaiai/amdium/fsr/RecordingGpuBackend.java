@@ -0,0 +1,634 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import com.kleeaiaiai.amdium.AMDium;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records the command stream of each frame and counts the commands by kind,
+ * then forwards them to another backend (a {@link NoOpGpuBackend} by default).
+ * Redundant binds, extra state queries or an added pass show up as a changed
+ * count between two runs.
+ */
+public class RecordingGpuBackend implements GpuBackend {
+    /**
+     * What a recorded command does, for the per-frame counters
+     */
+    public enum Category {
+        BIND,
+        STATE_QUERY,
+        STATE_CHANGE,
+        CLEAR,
+        BLIT,
+        DRAW,
+        UNIFORM,
+        RESOURCE,
+        SYNC
+    }
+    
+    private static final Category[] CATEGORIES = Category.values();
+    
+    private final GpuBackend delegate;
+    
+    private List<String> frameCommands = new ArrayList<>();
+    private List<String> lastFrameCommands = new ArrayList<>();
+    private final int[] frameCounts = new int[CATEGORIES.length];
+    private final int[] lastFrameCounts = new int[CATEGORIES.length];
+    private int framesRecorded = 0;
+    
+    public RecordingGpuBackend() {
+        this(new NoOpGpuBackend());
+    }
+    
+    public RecordingGpuBackend(GpuBackend delegate) {
+        this.delegate = delegate;
+    }
+    
+    private void record(Category category, String command) {
+        frameCounts[category.ordinal()]++;
+        frameCommands.add(command);
+    }
+    
+    @Override
+    public void endFrame() {
+        delegate.endFrame();
+        
+        // Swap the buffers so recording the next frame doesn't allocate a new list
+        List<String> finished = frameCommands;
+        frameCommands = lastFrameCommands;
+        frameCommands.clear();
+        lastFrameCommands = finished;
+        System.arraycopy(frameCounts, 0, lastFrameCounts, 0, frameCounts.length);
+        Arrays.fill(frameCounts, 0);
+        framesRecorded++;
+        
+        if (AMDium.LOGGER.isDebugEnabled()) {
+            AMDium.LOGGER.debug("Frame " + framesRecorded + ": " + describeLastFrame());
+        }
+    }
+    
+    /**
+     * @return How many commands of a kind the last completed frame issued
+     */
+    public int getLastFrameCount(Category category) {
+        return lastFrameCounts[category.ordinal()];
+    }
+    
+    /**
+     * @return How many commands of a kind have been issued since the last {@link #endFrame()}
+     */
+    public int getCurrentCount(Category category) {
+        return frameCounts[category.ordinal()];
+    }
+    
+    /**
+     * @return The commands of the last completed frame, in issue order
+     */
+    public List<String> getLastFrameCommands() {
+        return Collections.unmodifiableList(lastFrameCommands);
+    }
+    
+    public int getFramesRecorded() {
+        return framesRecorded;
+    }
+    
+    /**
+     * Forget everything recorded so far, e.g. to drop the setup commands before measuring
+     */
+    public void reset() {
+        frameCommands.clear();
+        lastFrameCommands.clear();
+        Arrays.fill(frameCounts, 0);
+        Arrays.fill(lastFrameCounts, 0);
+        framesRecorded = 0;
+    }
+    
+    /**
+     * @return The last frame's counters as "bind=4 state_query=2 ..."
+     */
+    public String describeLastFrame() {
+        StringBuilder sb = new StringBuilder();
+        for (Category category : CATEGORIES) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(category.name().toLowerCase()).append('=').append(lastFrameCounts[category.ordinal()]);
+        }
+        return sb.toString();
+    }
+    
+    @Override
+    public void enable(int cap) {
+        record(Category.STATE_CHANGE, "enable");
+        delegate.enable(cap);
+    }
+    
+    @Override
+    public void disable(int cap) {
+        record(Category.STATE_CHANGE, "disable");
+        delegate.disable(cap);
+    }
+    
+    @Override
+    public boolean isEnabled(int cap) {
+        record(Category.STATE_QUERY, "isEnabled");
+        return delegate.isEnabled(cap);
+    }
+    
+    @Override
+    public int getInteger(int pname) {
+        record(Category.STATE_QUERY, "getInteger");
+        return delegate.getInteger(pname);
+    }
+    
+    @Override
+    public String getString(int name) {
+        record(Category.STATE_QUERY, "getString");
+        return delegate.getString(name);
+    }
+    
+    @Override
+    public int getError() {
+        record(Category.STATE_QUERY, "getError");
+        return delegate.getError();
+    }
+    
+    @Override
+    public boolean isExtensionSupported(String extension) {
+        record(Category.STATE_QUERY, "isExtensionSupported");
+        return delegate.isExtensionSupported(extension);
+    }
+    
+    @Override
+    public void finish() {
+        record(Category.SYNC, "finish");
+        delegate.finish();
+    }
+    
+    @Override
+    public void viewport(int x, int y, int width, int height) {
+        record(Category.STATE_CHANGE, "viewport");
+        delegate.viewport(x, y, width, height);
+    }
+    
+    @Override
+    public void colorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+        record(Category.STATE_CHANGE, "colorMask");
+        delegate.colorMask(red, green, blue, alpha);
+    }
+    
+    @Override
+    public void stencilMask(int mask) {
+        record(Category.STATE_CHANGE, "stencilMask");
+        delegate.stencilMask(mask);
+    }
+    
+    @Override
+    public void stencilFunc(int func, int ref, int mask) {
+        record(Category.STATE_CHANGE, "stencilFunc");
+        delegate.stencilFunc(func, ref, mask);
+    }
+    
+    @Override
+    public void stencilOp(int sfail, int dpfail, int dppass) {
+        record(Category.STATE_CHANGE, "stencilOp");
+        delegate.stencilOp(sfail, dpfail, dppass);
+    }
+    
+    @Override
+    public void clearColor(float red, float green, float blue, float alpha) {
+        record(Category.STATE_CHANGE, "clearColor");
+        delegate.clearColor(red, green, blue, alpha);
+    }
+    
+    @Override
+    public void clearStencil(int s) {
+        record(Category.STATE_CHANGE, "clearStencil");
+        delegate.clearStencil(s);
+    }
+    
+    @Override
+    public void clear(int mask) {
+        record(Category.CLEAR, "clear");
+        delegate.clear(mask);
+    }
+    
+    @Override
+    public int genTexture() {
+        record(Category.RESOURCE, "genTexture");
+        return delegate.genTexture();
+    }
+    
+    @Override
+    public void deleteTexture(int texture) {
+        record(Category.RESOURCE, "deleteTexture");
+        delegate.deleteTexture(texture);
+    }
+    
+    @Override
+    public boolean isTexture(int texture) {
+        record(Category.STATE_QUERY, "isTexture");
+        return delegate.isTexture(texture);
+    }
+    
+    @Override
+    public void activeTexture(int unit) {
+        record(Category.BIND, "activeTexture");
+        delegate.activeTexture(unit);
+    }
+    
+    @Override
+    public void bindTexture(int texture) {
+        record(Category.BIND, "bindTexture");
+        delegate.bindTexture(texture);
+    }
+    
+    @Override
+    public void texImage2D(int internalFormat, int width, int height, int format, int type) {
+        record(Category.RESOURCE, "texImage2D");
+        delegate.texImage2D(internalFormat, width, height, format, type);
+    }
+    
+    @Override
+    public void texParameteri(int pname, int param) {
+        record(Category.STATE_CHANGE, "texParameteri");
+        delegate.texParameteri(pname, param);
+    }
+    
+    @Override
+    public void texSubImage2D(int x, int y, int width, int height, int format, int type, ByteBuffer pixels) {
+        record(Category.RESOURCE, "texSubImage2D");
+        delegate.texSubImage2D(x, y, width, height, format, type, pixels);
+    }
+    
+    @Override
+    public int genFramebuffer() {
+        record(Category.RESOURCE, "genFramebuffer");
+        return delegate.genFramebuffer();
+    }
+    
+    @Override
+    public void deleteFramebuffer(int framebuffer) {
+        record(Category.RESOURCE, "deleteFramebuffer");
+        delegate.deleteFramebuffer(framebuffer);
+    }
+    
+    @Override
+    public boolean isFramebuffer(int framebuffer) {
+        record(Category.STATE_QUERY, "isFramebuffer");
+        return delegate.isFramebuffer(framebuffer);
+    }
+    
+    @Override
+    public void bindFramebuffer(int target, int framebuffer) {
+        record(Category.BIND, "bindFramebuffer");
+        delegate.bindFramebuffer(target, framebuffer);
+    }
+    
+    @Override
+    public int checkFramebufferStatus(int target) {
+        record(Category.STATE_QUERY, "checkFramebufferStatus");
+        return delegate.checkFramebufferStatus(target);
+    }
+    
+    @Override
+    public void framebufferTexture2D(int target, int attachment, int texture) {
+        record(Category.RESOURCE, "framebufferTexture2D");
+        delegate.framebufferTexture2D(target, attachment, texture);
+    }
+    
+    @Override
+    public void blitFramebuffer(int srcX0, int srcY0, int srcX1, int srcY1,
+                                int dstX0, int dstY0, int dstX1, int dstY1,
+                                int mask, int filter) {
+        record(Category.BLIT, "blitFramebuffer");
+        delegate.blitFramebuffer(srcX0, srcY0, srcX1, srcY1, dstX0, dstY0, dstX1, dstY1, mask, filter);
+    }
+    
+    @Override
+    public void readPixels(int x, int y, int width, int height, int format, int type, ByteBuffer pixels) {
+        // Waits for the GPU to finish writing the read framebuffer
+        record(Category.SYNC, "readPixels");
+        delegate.readPixels(x, y, width, height, format, type, pixels);
+    }
+    
+    @Override
+    public void readPixels(int x, int y, int width, int height, int format, int type, long offset) {
+        // Into a pixel buffer object, so the copy is queued rather than waited on
+        record(Category.BLIT, "readPixels");
+        delegate.readPixels(x, y, width, height, format, type, offset);
+    }
+    
+    @Override
+    public int genRenderbuffer() {
+        record(Category.RESOURCE, "genRenderbuffer");
+        return delegate.genRenderbuffer();
+    }
+    
+    @Override
+    public void deleteRenderbuffer(int renderbuffer) {
+        record(Category.RESOURCE, "deleteRenderbuffer");
+        delegate.deleteRenderbuffer(renderbuffer);
+    }
+    
+    @Override
+    public boolean isRenderbuffer(int renderbuffer) {
+        record(Category.STATE_QUERY, "isRenderbuffer");
+        return delegate.isRenderbuffer(renderbuffer);
+    }
+    
+    @Override
+    public void bindRenderbuffer(int renderbuffer) {
+        record(Category.BIND, "bindRenderbuffer");
+        delegate.bindRenderbuffer(renderbuffer);
+    }
+    
+    @Override
+    public void renderbufferStorage(int internalFormat, int width, int height) {
+        record(Category.RESOURCE, "renderbufferStorage");
+        delegate.renderbufferStorage(internalFormat, width, height);
+    }
+    
+    @Override
+    public void framebufferRenderbuffer(int target, int attachment, int renderbuffer) {
+        record(Category.RESOURCE, "framebufferRenderbuffer");
+        delegate.framebufferRenderbuffer(target, attachment, renderbuffer);
+    }
+    
+    @Override
+    public int createShader(int type) {
+        record(Category.RESOURCE, "createShader");
+        return delegate.createShader(type);
+    }
+    
+    @Override
+    public void shaderSource(int shader, String source) {
+        record(Category.RESOURCE, "shaderSource");
+        delegate.shaderSource(shader, source);
+    }
+    
+    @Override
+    public void compileShader(int shader) {
+        record(Category.RESOURCE, "compileShader");
+        delegate.compileShader(shader);
+    }
+    
+    @Override
+    public int getShaderi(int shader, int pname) {
+        record(Category.STATE_QUERY, "getShaderi");
+        return delegate.getShaderi(shader, pname);
+    }
+    
+    @Override
+    public String getShaderInfoLog(int shader) {
+        record(Category.STATE_QUERY, "getShaderInfoLog");
+        return delegate.getShaderInfoLog(shader);
+    }
+    
+    @Override
+    public void deleteShader(int shader) {
+        record(Category.RESOURCE, "deleteShader");
+        delegate.deleteShader(shader);
+    }
+    
+    @Override
+    public int createProgram() {
+        record(Category.RESOURCE, "createProgram");
+        return delegate.createProgram();
+    }
+    
+    @Override
+    public void attachShader(int program, int shader) {
+        record(Category.RESOURCE, "attachShader");
+        delegate.attachShader(program, shader);
+    }
+    
+    @Override
+    public void linkProgram(int program) {
+        record(Category.RESOURCE, "linkProgram");
+        delegate.linkProgram(program);
+    }
+    
+    @Override
+    public void validateProgram(int program) {
+        record(Category.RESOURCE, "validateProgram");
+        delegate.validateProgram(program);
+    }
+    
+    @Override
+    public int getProgrami(int program, int pname) {
+        record(Category.STATE_QUERY, "getProgrami");
+        return delegate.getProgrami(program, pname);
+    }
+    
+    @Override
+    public String getProgramInfoLog(int program) {
+        record(Category.STATE_QUERY, "getProgramInfoLog");
+        return delegate.getProgramInfoLog(program);
+    }
+    
+    @Override
+    public void deleteProgram(int program) {
+        record(Category.RESOURCE, "deleteProgram");
+        delegate.deleteProgram(program);
+    }
+    
+    @Override
+    public void useProgram(int program) {
+        record(Category.BIND, "useProgram");
+        delegate.useProgram(program);
+    }
+    
+    @Override
+    public int getUniformLocation(int program, String name) {
+        record(Category.STATE_QUERY, "getUniformLocation");
+        return delegate.getUniformLocation(program, name);
+    }
+    
+    @Override
+    public void uniform1i(int location, int value) {
+        record(Category.UNIFORM, "uniform1i");
+        delegate.uniform1i(location, value);
+    }
+    
+    @Override
+    public void uniform1f(int location, float value) {
+        record(Category.UNIFORM, "uniform1f");
+        delegate.uniform1f(location, value);
+    }
+    
+    @Override
+    public void uniform2f(int location, float x, float y) {
+        record(Category.UNIFORM, "uniform2f");
+        delegate.uniform2f(location, x, y);
+    }
+    
+    @Override
+    public void uniform4f(int location, float x, float y, float z, float w) {
+        record(Category.UNIFORM, "uniform4f");
+        delegate.uniform4f(location, x, y, z, w);
+    }
+    
+    @Override
+    public int genVertexArray() {
+        record(Category.RESOURCE, "genVertexArray");
+        return delegate.genVertexArray();
+    }
+    
+    @Override
+    public void deleteVertexArray(int vao) {
+        record(Category.RESOURCE, "deleteVertexArray");
+        delegate.deleteVertexArray(vao);
+    }
+    
+    @Override
+    public void bindVertexArray(int vao) {
+        record(Category.BIND, "bindVertexArray");
+        delegate.bindVertexArray(vao);
+    }
+    
+    @Override
+    public int genBuffer() {
+        record(Category.RESOURCE, "genBuffer");
+        return delegate.genBuffer();
+    }
+    
+    @Override
+    public void deleteBuffer(int buffer) {
+        record(Category.RESOURCE, "deleteBuffer");
+        delegate.deleteBuffer(buffer);
+    }
+    
+    @Override
+    public void bindBuffer(int target, int buffer) {
+        record(Category.BIND, "bindBuffer");
+        delegate.bindBuffer(target, buffer);
+    }
+    
+    @Override
+    public void bufferData(int target, float[] data, int usage) {
+        record(Category.RESOURCE, "bufferData");
+        delegate.bufferData(target, data, usage);
+    }
+    
+    @Override
+    public void bufferData(int target, long size, int usage) {
+        record(Category.RESOURCE, "bufferData");
+        delegate.bufferData(target, size, usage);
+    }
+    
+    @Override
+    public ByteBuffer mapBufferRange(int target, long offset, long length, int access) {
+        // Waits for the GPU when commands writing the buffer are still pending
+        record(Category.SYNC, "mapBufferRange");
+        return delegate.mapBufferRange(target, offset, length, access);
+    }
+    
+    @Override
+    public boolean unmapBuffer(int target) {
+        record(Category.RESOURCE, "unmapBuffer");
+        return delegate.unmapBuffer(target);
+    }
+    
+    @Override
+    public void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long offset) {
+        record(Category.STATE_CHANGE, "vertexAttribPointer");
+        delegate.vertexAttribPointer(index, size, type, normalized, stride, offset);
+    }
+    
+    @Override
+    public void enableVertexAttribArray(int index) {
+        record(Category.STATE_CHANGE, "enableVertexAttribArray");
+        delegate.enableVertexAttribArray(index);
+    }
+    
+    @Override
+    public void disableVertexAttribArray(int index) {
+        record(Category.STATE_CHANGE, "disableVertexAttribArray");
+        delegate.disableVertexAttribArray(index);
+    }
+    
+    @Override
+    public void drawArrays(int mode, int first, int count) {
+        record(Category.DRAW, "drawArrays");
+        delegate.drawArrays(mode, first, count);
+    }
+    
+    @Override
+    public int genQuery() {
+        record(Category.RESOURCE, "genQuery");
+        return delegate.genQuery();
+    }
+    
+    @Override
+    public void deleteQuery(int query) {
+        record(Category.RESOURCE, "deleteQuery");
+        delegate.deleteQuery(query);
+    }
+    
+    @Override
+    public void beginQuery(int target, int query) {
+        record(Category.STATE_CHANGE, "beginQuery");
+        delegate.beginQuery(target, query);
+    }
+    
+    @Override
+    public void endQuery(int target) {
+        record(Category.STATE_CHANGE, "endQuery");
+        delegate.endQuery(target);
+    }
+    
+    @Override
+    public long getQueryObjectui64(int query, int pname) {
+        // Waits for the GPU when the result isn't available yet
+        record(Category.SYNC, "getQueryObjectui64");
+        return delegate.getQueryObjectui64(query, pname);
+    }
+    
+    @Override
+    public int getQueryObjecti(int query, int pname) {
+        // Only ever asked for GL_QUERY_RESULT_AVAILABLE, which doesn't wait
+        record(Category.STATE_QUERY, "getQueryObjecti");
+        return delegate.getQueryObjecti(query, pname);
+    }
+    
+    @Override
+    public void queryCounter(int query, int target) {
+        record(Category.STATE_CHANGE, "queryCounter");
+        delegate.queryCounter(query, target);
+    }
+    
+    @Override
+    public long fenceSync() {
+        record(Category.STATE_CHANGE, "fenceSync");
+        return delegate.fenceSync();
+    }
+    
+    @Override
+    public int getSynci(long sync, int pname) {
+        record(Category.STATE_QUERY, "getSynci");
+        return delegate.getSynci(sync, pname);
+    }
+    
+    @Override
+    public void deleteSync(long sync) {
+        record(Category.RESOURCE, "deleteSync");
+        delegate.deleteSync(sync);
+    }
+    
+    @Override
+    public void pushDebugGroup(int id, CharSequence message) {
+        record(Category.STATE_CHANGE, "pushDebugGroup");
+        delegate.pushDebugGroup(id, message);
+    }
+    
+    @Override
+    public void popDebugGroup() {
+        record(Category.STATE_CHANGE, "popDebugGroup");
+        delegate.popDebugGroup();
+    }
+}
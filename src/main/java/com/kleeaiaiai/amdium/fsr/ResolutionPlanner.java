@@ -0,0 +1,69 @@
+package com.kleeaiaiai.amdium.fsr;
+
+/**
+ * The one place render sizes come from. The processor, the frame hooks and the
+ * batch tool all ask here, so a display size and scale always plan to the same
+ * render size and buffers are only rebuilt when one of those actually changes.
+ *
+ * Render sizes are rounded to the nearest multiple of 8 pixels, or 16 once they
+ * reach 1024, so the scene fills whole GPU raster tiles instead of leaving a
+ * partly covered row and column of them along the edges. The rounding moves the
+ * render size by at most half the alignment, 4 pixels or 8 from 1024 up, so the
+ * effective scale changes by up to 4 / render size: under one percent from about
+ * 400 pixels up, but around 3% for a 128 pixel target, and more for the smallest
+ * sizes, which are also kept at least 8 pixels and never above the display size.
+ */
+public final class ResolutionPlanner {
+    private static final int ALIGNMENT = 8;
+    private static final int LARGE_ALIGNMENT = 16;
+    private static final int LARGE_SIZE = 1024;
+    
+    private ResolutionPlanner() {
+    }
+    
+    /**
+     * @param displaySize Display width or height
+     * @param scale Display size over render size, e.g. 1.5 for Quality; any value works, below 1 counts as 1
+     * @return The render size, never more than the display size
+     */
+    public static int renderSize(int displaySize, float scale) {
+        if (displaySize <= ALIGNMENT) {
+            return Math.max(1, displaySize);
+        }
+        
+        float exact = displaySize / Math.max(1.0f, scale);
+        int alignment = exact >= LARGE_SIZE ? LARGE_ALIGNMENT : ALIGNMENT;
+        int aligned = Math.max(ALIGNMENT, Math.round(exact / alignment) * alignment);
+        return Math.min(aligned, displaySize);
+    }
+    
+    public static int renderWidth(int displayWidth, FSRQualityMode qualityMode) {
+        return renderSize(displayWidth, qualityMode.getScaleFactor());
+    }
+    
+    public static int renderHeight(int displayHeight, FSRQualityMode qualityMode) {
+        return renderSize(displayHeight, qualityMode.getScaleFactor());
+    }
+    
+    /**
+     * The inverse, for tools that start from frames already rendered: the
+     * display size nearest renderSize * scale that plans back to exactly the
+     * given render size. Every frame captured in game has one; for sizes this
+     * planner never produces, the plain product is returned.
+     */
+    public static int displaySize(int renderSize, float scale) {
+        scale = Math.max(1.0f, scale);
+        int nearest = Math.max(1, Math.round(renderSize * scale));
+        // Neighbouring render sizes are at most one alignment step apart
+        int reach = (int) Math.ceil(LARGE_ALIGNMENT * scale);
+        for (int offset = 0; offset <= reach; offset++) {
+            if (renderSize(nearest + offset, scale) == renderSize) {
+                return nearest + offset;
+            }
+            if (nearest - offset >= 1 && renderSize(nearest - offset, scale) == renderSize) {
+                return nearest - offset;
+            }
+        }
+        return nearest;
+    }
+}
@@ -0,0 +1,78 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import org.lwjgl.opengl.GL30;
+
+/**
+ * The arithmetic precision the FSR shaders are compiled with. The shaders do
+ * their color math in a {@code half} type that is plain float unless
+ * AMDIUM_FP16 is defined; the fp16 variants need GLSL 4.50 and one of the
+ * extensions that provide float16_t, which both spell the types the same way.
+ */
+public enum ShaderPrecision {
+    FP32("fp32", null),
+    FP16_AMD("fp16", "GL_AMD_gpu_shader_half_float"),
+    FP16_NV("fp16", "GL_NV_gpu_shader5");
+    
+    private final String displayName;
+    private final String extension;
+    
+    ShaderPrecision(String displayName, String extension) {
+        this.displayName = displayName;
+        this.extension = extension;
+    }
+    
+    /**
+     * Pick the best precision the current context supports
+     */
+    public static ShaderPrecision detect(GpuBackend gpu) {
+        int major = gpu.getInteger(GL30.GL_MAJOR_VERSION);
+        int minor = gpu.getInteger(GL30.GL_MINOR_VERSION);
+        if (major < 4 || (major == 4 && minor < 5)) {
+            return FP32;
+        }
+        
+        if (gpu.isExtensionSupported(FP16_AMD.extension)) {
+            return FP16_AMD;
+        }
+        if (gpu.isExtensionSupported(FP16_NV.extension)) {
+            return FP16_NV;
+        }
+        return FP32;
+    }
+    
+    public boolean isHalf() {
+        return extension != null;
+    }
+    
+    /**
+     * @return The GL extension the fp16 types come from, or null for fp32
+     */
+    public String getExtension() {
+        return extension;
+    }
+    
+    /**
+     * Rewrite a shader's #version directive for this precision; fp32 sources are left alone
+     */
+    public String apply(String source) {
+        if (extension == null) {
+            return source;
+        }
+        
+        String header = "#version 450 core\n#extension " + extension + " : require\n#define AMDIUM_FP16\n";
+        int versionStart = source.indexOf("#version");
+        if (versionStart < 0) {
+            return header + source;
+        }
+        int lineEnd = source.indexOf('\n', versionStart);
+        if (lineEnd < 0) {
+            return source.substring(0, versionStart) + header;
+        }
+        return source.substring(0, versionStart) + header + source.substring(lineEnd + 1);
+    }
+    
+    @Override
+    public String toString() {
+        return extension != null ? displayName + " (" + extension + ")" : displayName;
+    }
+}
@@ -0,0 +1,91 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import com.kleeaiaiai.amdium.AMDium;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Watches the shader development directory and flags edits to shader sources.
+ * The watch runs on its own daemon thread; the render thread only polls
+ * {@link #consumeChange()}, so a burst of saves from an editor turns into a
+ * single reload on the next frame.
+ */
+public class ShaderSourceWatcher {
+    private final Path directory;
+    private final AtomicBoolean changed = new AtomicBoolean(false);
+    private WatchService watchService;
+    private Thread thread;
+    
+    public ShaderSourceWatcher(Path directory) {
+        this.directory = directory;
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    public void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService,
+                           StandardWatchEventKinds.ENTRY_CREATE,
+                           StandardWatchEventKinds.ENTRY_MODIFY);
+        
+        thread = new Thread(this::watch, "AMDium shader watcher");
+        thread.setDaemon(true);
+        thread.start();
+        AMDium.LOGGER.info("Watching " + directory + " for shader changes");
+    }
+    
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (context instanceof Path && isShaderSource((Path) context)) {
+                        changed.set(true);
+                    }
+                }
+                if (!key.reset()) {
+                    AMDium.LOGGER.warn("Shader directory " + directory + " is no longer accessible, stopped watching");
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Closed by stop()
+        }
+    }
+    
+    private static boolean isShaderSource(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".frag") || name.endsWith(".vert") || name.endsWith(".glsl");
+    }
+    
+    /**
+     * @return True once after any shader source in the directory changed
+     */
+    public boolean consumeChange() {
+        return changed.get() && changed.getAndSet(false);
+    }
+    
+    public void stop() {
+        try {
+            if (watchService != null) {
+                watchService.close();
+            }
+        } catch (IOException e) {
+            AMDium.LOGGER.error("Error closing shader watcher", e);
+        } finally {
+            watchService = null;
+            thread = null;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.kleeaiaiai.amdium.fsr;
+
+/**
+ * Uniform locations of one shader program, -1 for uniforms it doesn't have.
+ * Looked up once when the program is linked so frames never query them.
+ */
+final class ShaderUniforms {
+    static final ShaderUniforms NONE = new ShaderUniforms();
+    
+    int inputSize = -1;
+    int outputSize = -1;
+    int inputTexture = -1;
+    int sharpness = -1;
+    int depthTexture = -1;
+    int depthRange = -1;
+    int tileRect = -1;
+    
+    static ShaderUniforms lookup(GpuBackend gpu, int program) {
+        ShaderUniforms uniforms = new ShaderUniforms();
+        uniforms.inputSize = gpu.getUniformLocation(program, "inputSize");
+        uniforms.outputSize = gpu.getUniformLocation(program, "outputSize");
+        uniforms.inputTexture = gpu.getUniformLocation(program, "inputTexture");
+        uniforms.sharpness = gpu.getUniformLocation(program, "sharpness");
+        uniforms.depthTexture = gpu.getUniformLocation(program, "depthTexture");
+        uniforms.depthRange = gpu.getUniformLocation(program, "depthRange");
+        uniforms.tileRect = gpu.getUniformLocation(program, "tileRect");
+        return uniforms;
+    }
+}
@@ -0,0 +1,396 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * EASU followed by RCAS on the CPU, following fsr_easu.frag and fsr_rcas.frag
+ * step by step (fp32 variant), for when there is no GL context or the GPU path
+ * is off. Images are RGBA8 in GL row order (bottom row first), the layout
+ * readPixels produces. The frame is cut into tiles that run on a fork-join
+ * pool; EASU finishes the whole frame before RCAS starts, since RCAS reads
+ * neighbouring pixels across tile borders.
+ *
+ * Not thread-safe: the float planes between the passes are reused across calls.
+ */
+public final class SoftwareUpscaler {
+    private static final int TILE_SIZE = 64;
+    
+    // fsr_easu.frag constants
+    private static final float EASU_EDGE_THRESHOLD = 0.1f;
+    private static final float EASU_EDGE_POWER = 1.5f;
+    private static final float EASU_BLOCK_BIAS = 0.8f;
+    private static final float EASU_SHARPNESS = 0.5f;
+    private static final float MC_EDGE_SNAP = 1.0f / 16.0f;
+    private static final float MC_EDGE_BOOST = 2.0f;
+    private static final float MC_BLOCK_SCALE = 16.0f;
+    private static final float PI = 3.14159265359f;
+    private static final float LANCZOS_WINDOW = 2.0f;
+    
+    // fsr_rcas.frag constants
+    private static final float FSR_RCAS_LIMIT = 0.25f - (1.0f / 16.0f);
+    private static final float FSR_RCAS_DENOISE = 0.05f;
+    private static final float FSR_RCAS_CONTRAST_BOOST = 1.2f;
+    private static final float MC_BLOCK_EDGE_BOOST = 1.5f;
+    
+    // Offsets of the 3x3 neighbourhood, in the shader's (y+1)*3 + (x+1) order
+    private static final int[] TAP_X = {-1, 0, 1, -1, 0, 1, -1, 0, 1};
+    private static final int[] TAP_Y = {-1, -1, -1, 0, 0, 0, 1, 1, 1};
+    
+    // RcasPass hands the shader sharpness in stops, 0 = strongest, 2 = none
+    private static final float MAX_STOPS = 2.0f;
+    
+    private final ForkJoinPool pool;
+    
+    // Planar RGBA + luma of the input's texel corners, and planar RGBA of EASU's output
+    private float[][] corners = new float[5][0];
+    private float[][] upscaled = new float[4][0];
+    
+    public SoftwareUpscaler() {
+        this(ForkJoinPool.commonPool());
+    }
+    
+    public SoftwareUpscaler(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+    
+    /**
+     * Upscale a frame; the buffers are accessed with absolute gets and puts, so
+     * their positions and limits are left alone
+     * @param sharpness 0 to 1, as in the config
+     */
+    public void upscale(ByteBuffer source, int sourceWidth, int sourceHeight,
+                        ByteBuffer target, int targetWidth, int targetHeight, float sharpness) {
+        if (sourceWidth <= 0 || sourceHeight <= 0 || targetWidth <= 0 || targetHeight <= 0) {
+            throw new IllegalArgumentException("Invalid dimensions: " + sourceWidth + "x" + sourceHeight +
+                                               " -> " + targetWidth + "x" + targetHeight);
+        }
+        if (source.capacity() < sourceWidth * sourceHeight * 4 || target.capacity() < targetWidth * targetHeight * 4) {
+            throw new IllegalArgumentException("Image buffers are smaller than their RGBA dimensions");
+        }
+        
+        corners = ensureCapacity(corners, (sourceWidth + 1) * (sourceHeight + 1));
+        upscaled = ensureCapacity(upscaled, targetWidth * targetHeight);
+        float stops = (1.0f - Math.max(0.0f, Math.min(1.0f, sharpness))) * MAX_STOPS;
+        
+        float[][] in = corners;
+        float[][] mid = upscaled;
+        runTiled(sourceWidth + 1, sourceHeight + 1, (x0, y0, x1, y1) ->
+            buildCorners(source, in, sourceWidth, sourceHeight, x0, y0, x1, y1));
+        runTiled(targetWidth, targetHeight, (x0, y0, x1, y1) ->
+            easu(in, sourceWidth, sourceHeight, mid, targetWidth, targetHeight, x0, y0, x1, y1));
+        runTiled(targetWidth, targetHeight, (x0, y0, x1, y1) ->
+            rcas(mid, targetWidth, targetHeight, target, stops, x0, y0, x1, y1));
+    }
+    
+    private static float[][] ensureCapacity(float[][] planes, int pixels) {
+        if (planes[0].length >= pixels) {
+            return planes;
+        }
+        float[][] resized = new float[planes.length][];
+        for (int i = 0; i < planes.length; i++) {
+            resized[i] = new float[pixels];
+        }
+        return resized;
+    }
+    
+    /**
+     * Work on one rectangle of the image, x1 and y1 exclusive
+     */
+    private interface TileKernel {
+        void run(int x0, int y0, int x1, int y1);
+    }
+    
+    private void runTiled(int width, int height, TileKernel kernel) {
+        int columns = (width + TILE_SIZE - 1) / TILE_SIZE;
+        int rows = (height + TILE_SIZE - 1) / TILE_SIZE;
+        pool.invoke(new TileRange(kernel, width, height, columns, 0, columns * rows));
+    }
+    
+    /**
+     * A run of tiles, split in half until single tiles are left
+     */
+    private static final class TileRange extends RecursiveAction {
+        private final TileKernel kernel;
+        private final int width;
+        private final int height;
+        private final int columns;
+        private final int first;
+        private final int last;
+        
+        TileRange(TileKernel kernel, int width, int height, int columns, int first, int last) {
+            this.kernel = kernel;
+            this.width = width;
+            this.height = height;
+            this.columns = columns;
+            this.first = first;
+            this.last = last;
+        }
+        
+        @Override
+        protected void compute() {
+            if (last - first > 1) {
+                int middle = (first + last) >>> 1;
+                invokeAll(new TileRange(kernel, width, height, columns, first, middle),
+                          new TileRange(kernel, width, height, columns, middle, last));
+                return;
+            }
+            int x0 = (first % columns) * TILE_SIZE;
+            int y0 = (first / columns) * TILE_SIZE;
+            kernel.run(x0, y0, Math.min(x0 + TILE_SIZE, width), Math.min(y0 + TILE_SIZE, height));
+        }
+    }
+    
+    /**
+     * EASU only ever samples at texel corners (texelPos is floored, offsets are
+     * whole texels), where GL_LINEAR with GL_CLAMP_TO_EDGE returns the mean of
+     * the 2x2 texels around the corner. So every corner is filtered once up
+     * front, with its luma, into planes of (width + 1) x (height + 1).
+     */
+    private static void buildCorners(ByteBuffer source, float[][] corners, int width, int height,
+                                     int x0, int y0, int x1, int y1) {
+        int stride = width + 1;
+        for (int y = y0; y < y1; y++) {
+            int rowA = Math.max(y - 1, 0) * width;
+            int rowB = Math.min(y, height - 1) * width;
+            for (int x = x0; x < x1; x++) {
+                int columnA = Math.max(x - 1, 0);
+                int columnB = Math.min(x, width - 1);
+                int p00 = (rowA + columnA) * 4;
+                int p10 = (rowA + columnB) * 4;
+                int p01 = (rowB + columnA) * 4;
+                int p11 = (rowB + columnB) * 4;
+                int i = y * stride + x;
+                for (int c = 0; c < 4; c++) {
+                    int sum = (source.get(p00 + c) & 0xFF) + (source.get(p10 + c) & 0xFF) +
+                              (source.get(p01 + c) & 0xFF) + (source.get(p11 + c) & 0xFF);
+                    corners[c][i] = sum / (4.0f * 255.0f);
+                }
+                corners[4][i] = corners[0][i] * 0.2f + corners[1][i] * 0.7f + corners[2][i] * 0.1f;
+            }
+        }
+    }
+    
+    private static void easu(float[][] corners, int inWidth, int inHeight, float[][] out, int outWidth, int outHeight,
+                             int x0, int y0, int x1, int y1) {
+        int stride = inWidth + 1;
+        int[] taps = new int[9];
+        float[] weights = new float[9];
+        float[] luma = corners[4];
+        
+        // The input position only depends on the column for x and the row for y
+        int columns = x1 - x0;
+        int[] cornerXs = new int[columns];
+        float[] fractXs = new float[columns];
+        float[] gridEdgeXs = new float[columns];
+        for (int ox = x0; ox < x1; ox++) {
+            float scaledX = ((ox + 0.5f) / outWidth + 0.5f / inWidth) * inWidth;
+            int cornerX = (int) Math.floor(scaledX);
+            float gridX = fract(cornerX / MC_BLOCK_SCALE);
+            cornerXs[ox - x0] = cornerX;
+            fractXs[ox - x0] = scaledX - cornerX;
+            gridEdgeXs[ox - x0] = Math.min(gridX, 1.0f - gridX);
+        }
+        
+        for (int oy = y0; oy < y1; oy++) {
+            float scaledY = ((oy + 0.5f) / outHeight + 0.5f / inHeight) * inHeight;
+            int cornerY = (int) Math.floor(scaledY);
+            float gridY = fract(cornerY / MC_BLOCK_SCALE);
+            float gridEdgeY = Math.min(gridY, 1.0f - gridY);
+            
+            for (int ox = x0; ox < x1; ox++) {
+                int cornerX = cornerXs[ox - x0];
+                float fractX = fractXs[ox - x0];
+                float fractY = scaledY - cornerY;
+                
+                // DetectBlockGrid
+                float blockEdge = Math.min(gridEdgeXs[ox - x0], gridEdgeY) <= MC_EDGE_SNAP ? 1.0f : 0.0f;
+                if (blockEdge > 0.0f) {
+                    fractX = Math.round(fractX / MC_EDGE_SNAP) * MC_EDGE_SNAP;
+                    fractY = Math.round(fractY / MC_EDGE_SNAP) * MC_EDGE_SNAP;
+                }
+                
+                // The gradient and the filter read the same nine corners
+                for (int i = 0; i < 9; i++) {
+                    int x = clamp(cornerX + TAP_X[i], 0, inWidth);
+                    int y = clamp(cornerY + TAP_Y[i], 0, inHeight);
+                    taps[i] = y * stride + x;
+                }
+                
+                // ComputeBlockEdgeGradient
+                float gx = (luma[taps[0]] - luma[taps[2]]) * 0.5f + (luma[taps[3]] - luma[taps[5]]) + (luma[taps[6]] - luma[taps[8]]) * 0.5f;
+                float gy = (luma[taps[0]] - luma[taps[6]]) * 0.5f + (luma[taps[1]] - luma[taps[7]]) + (luma[taps[2]] - luma[taps[8]]) * 0.5f;
+                float blockEdgeFactor = smoothstep(0.1f, 0.3f, Math.max(Math.abs(gx), Math.abs(gy))) * MC_EDGE_BOOST;
+                gx *= blockEdgeFactor;
+                gy *= blockEdgeFactor;
+                
+                float gradientMagnitude = (float) Math.sqrt(gx * gx + gy * gy);
+                float edgeFactor = smoothstep(EASU_EDGE_THRESHOLD, 1.0f, gradientMagnitude);
+                float edgeDirX = gradientMagnitude > 0.001f ? gx / gradientMagnitude : 0.0f;
+                float edgeDirY = gradientMagnitude > 0.001f ? gy / gradientMagnitude : 1.0f;
+                float perpDirX = -edgeDirY;
+                float perpDirY = edgeDirX;
+                
+                float weightSum = 0.0f;
+                for (int i = 0; i < 9; i++) {
+                    float distX = TAP_X[i] - fractX;
+                    float distY = TAP_Y[i] - fractY;
+                    float distance = (float) Math.sqrt(distX * distX + distY * distY);
+                    float weight = fastLanczos(distance);
+                    
+                    if (edgeFactor > 0.0f) {
+                        // normalize(0) is undefined in GLSL; a tap right on the sample point has no direction
+                        float edgeAlignment = distance > 0.0f ? Math.abs((distX * perpDirX + distY * perpDirY) / distance) : 0.0f;
+                        weight *= mix(1.0f, 2.0f - edgeAlignment, edgeFactor * EASU_EDGE_POWER);
+                    }
+                    if (blockEdge > 0.0f && (TAP_X[i] == 0 || TAP_Y[i] == 0)) {
+                        weight *= 1.2f;
+                    }
+                    
+                    weights[i] = weight;
+                    weightSum += weight;
+                }
+                if (weightSum > 0.0f) {
+                    for (int i = 0; i < 9; i++) {
+                        weights[i] /= weightSum;
+                    }
+                }
+                
+                float centerMix = edgeFactor > 0.0f && blockEdge > 0.0f ? edgeFactor * EASU_SHARPNESS * blockEdge : 0.0f;
+                int o = oy * outWidth + ox;
+                for (int c = 0; c < 4; c++) {
+                    float[] plane = corners[c];
+                    float color = 0.0f;
+                    for (int i = 0; i < 9; i++) {
+                        color += plane[taps[i]] * weights[i];
+                    }
+                    out[c][o] = mix(color, plane[taps[4]], centerMix);
+                }
+            }
+        }
+    }
+    
+    private static void rcas(float[][] in, int width, int height, ByteBuffer target, float stops,
+                             int x0, int y0, int x1, int y1) {
+        float[] r = in[0];
+        float[] g = in[1];
+        float[] b = in[2];
+        float[] a = in[3];
+        float baseSharpening = fastExp2(-stops) * FSR_RCAS_CONTRAST_BOOST;
+        
+        for (int y = y0; y < y1; y++) {
+            // The shader samples texel centers, where linear filtering returns the texel itself
+            int row = y * width;
+            int rowN = Math.min(y + 1, height - 1) * width;
+            int rowS = Math.max(y - 1, 0) * width;
+            for (int x = x0; x < x1; x++) {
+                int e = row + x;
+                int n = rowN + x;
+                int s = rowS + x;
+                int w = row + Math.max(x - 1, 0);
+                int o = row + Math.min(x + 1, width - 1);
+                
+                float lE = rcasLuma(r[e], g[e], b[e]);
+                float lN = rcasLuma(r[n], g[n], b[n]);
+                float lS = rcasLuma(r[s], g[s], b[s]);
+                float lW = rcasLuma(r[w], g[w], b[w]);
+                float lO = rcasLuma(r[o], g[o], b[o]);
+                
+                float lMin = Math.min(lE, Math.min(Math.min(lN, lS), Math.min(lW, lO)));
+                float lMax = Math.max(lE, Math.max(Math.max(lN, lS), Math.max(lW, lO)));
+                float lVar = lMax - lMin;
+                
+                // DetectBlockEdge
+                float vEdge = Math.abs(lN - lS) / Math.max(Math.abs(lW - lO), 0.001f);
+                float hEdge = Math.abs(lW - lO) / Math.max(Math.abs(lN - lS), 0.001f);
+                float edgeFactor = Math.max(vEdge, hEdge) > 4.0f ? MC_BLOCK_EDGE_BOOST : 1.0f;
+                
+                float sharpeningAmount = baseSharpening * edgeFactor;
+                sharpeningAmount *= 1.0f - smoothstep(0.0f, FSR_RCAS_LIMIT, lVar);
+                
+                float denoise = lVar + FSR_RCAS_DENOISE;
+                float wN = 1.0f - Math.abs(lE - lN) / denoise;
+                float wS = 1.0f - Math.abs(lE - lS) / denoise;
+                float wW = 1.0f - Math.abs(lE - lW) / denoise;
+                float wO = 1.0f - Math.abs(lE - lO) / denoise;
+                float wSum = wN + wS + wW + wO;
+                if (wSum > 0.0f) {
+                    float wNorm = 1.0f / wSum;
+                    wN *= wNorm;
+                    wS *= wNorm;
+                    wW *= wNorm;
+                    wO *= wNorm;
+                }
+                
+                float sharpenedR = r[e] + sharpeningAmount * ((r[e] - r[n]) * wN + (r[e] - r[s]) * wS + (r[e] - r[w]) * wW + (r[e] - r[o]) * wO);
+                float sharpenedG = g[e] + sharpeningAmount * ((g[e] - g[n]) * wN + (g[e] - g[s]) * wS + (g[e] - g[w]) * wW + (g[e] - g[o]) * wO);
+                float sharpenedB = b[e] + sharpeningAmount * ((b[e] - b[n]) * wN + (b[e] - b[s]) * wS + (b[e] - b[w]) * wW + (b[e] - b[o]) * wO);
+                
+                // Pull the result back by a luma ratio if it rings past the neighbourhood
+                float sharpenedLuma = rcasLuma(sharpenedR, sharpenedG, sharpenedB);
+                if (sharpenedLuma < lMin || sharpenedLuma > lMax) {
+                    float ratio = Math.max(0.0f, Math.min(2.0f, lE / Math.max(sharpenedLuma, 0.001f)));
+                    sharpenedR *= ratio;
+                    sharpenedG *= ratio;
+                    sharpenedB *= ratio;
+                }
+                
+                int p = e * 4;
+                target.put(p, toUnorm8(sharpenedR));
+                target.put(p + 1, toUnorm8(sharpenedG));
+                target.put(p + 2, toUnorm8(sharpenedB));
+                target.put(p + 3, toUnorm8(a[e]));
+            }
+        }
+    }
+    
+    private static float fastLanczos(float x) {
+        float ax = Math.abs(x);
+        if (ax < 0.001f) return 1.0f;
+        if (ax >= LANCZOS_WINDOW) return 0.0f;
+        
+        float xpi = x * PI;
+        float sinc = fastSin(0.5f + x * 0.5f) / xpi;
+        float lanc = sinc * fastSin(0.5f + x / LANCZOS_WINDOW * 0.5f) * LANCZOS_WINDOW;
+        return mix(lanc, ax > 0.5f ? 0.0f : 1.0f, EASU_BLOCK_BIAS);
+    }
+    
+    private static float fastSin(float x) {
+        float y = (x * 2.0f) - 1.0f;
+        return -0.02f * y * (y * y - 1.0f) * (9.0f * y * y - 5.0f);
+    }
+    
+    private static float fastExp2(float x) {
+        x = 1.0f + x * 0.6931471805599453f;
+        x *= x;
+        x *= x;
+        return x;
+    }
+    
+    private static float rcasLuma(float r, float g, float b) {
+        return g * 0.7f + r * 0.2f + b * 0.1f;
+    }
+    
+    private static float smoothstep(float edge0, float edge1, float x) {
+        float t = Math.max(0.0f, Math.min(1.0f, (x - edge0) / (edge1 - edge0)));
+        return t * t * (3.0f - 2.0f * t);
+    }
+    
+    private static float mix(float x, float y, float a) {
+        return x + (y - x) * a;
+    }
+    
+    private static float fract(float x) {
+        return x - (float) Math.floor(x);
+    }
+    
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+    
+    // Float to UNORM8 the way the final blit converts: clamp, then round to nearest
+    private static byte toUnorm8(float value) {
+        return (byte) Math.round(Math.max(0.0f, Math.min(1.0f, value)) * 255.0f);
+    }
+}
@@ -0,0 +1,59 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import java.io.IOException;
+
+/**
+ * An upscaling algorithm {@link FSRProcessor} can run. The processor owns the
+ * render targets, the sky mask and the final copy to the screen; an upscaler
+ * owns its shader programs and turns the low-resolution input into the
+ * display-resolution output.
+ * Implementations are registered with {@link FSRProcessor#registerUpscaler}
+ * and created through their factory whenever the processor needs a fresh set
+ * of programs, e.g. after a shader reload.
+ */
+public interface Upscaler {
+    String getDisplayName();
+    
+    /**
+     * @return True if {@link #render} needs the display-resolution intermediate target
+     */
+    default boolean needsIntermediateTarget() {
+        return false;
+    }
+    
+    /**
+     * @return True if {@link #render} needs a target at display width and render
+     *         height, for the first pass of a separable filter
+     */
+    default boolean needsHorizontalTarget() {
+        return false;
+    }
+    
+    /**
+     * Compile and link the programs. Called on the render thread before the first
+     * frame; a failure leaves the previous upscaler in use.
+     */
+    void compile(UpscalerContext context) throws IOException;
+    
+    /**
+     * @return True if {@link #render} honours the context's tile, so outputs
+     *         larger than the maximum texture size can be upscaled in pieces
+     */
+    default boolean supportsTiles() {
+        return false;
+    }
+    
+    /**
+     * Upscale one frame, or the context's tile of it. Called with the output
+     * framebuffer bound and the viewport at tile size (the display size unless
+     * tiled), and must leave both that way. Runs every frame, so it must not
+     * allocate.
+     * @return False if the frame couldn't be rendered
+     */
+    boolean render(UpscalerContext context);
+    
+    /**
+     * Delete the programs
+     */
+    void delete(GpuBackend gpu);
+}
@@ -0,0 +1,102 @@
+package com.kleeaiaiai.amdium.fsr;
+
+import java.io.IOException;
+
+/**
+ * What {@link FSRProcessor} exposes to an {@link Upscaler}: the GPU, its render
+ * targets and the current frame parameters
+ */
+public interface UpscalerContext {
+    GpuBackend getGpu();
+    
+    /**
+     * Compile a program from shader resources, honouring the shader dev directory
+     * @param defines Lines of #define directives injected after #version, or an empty string
+     */
+    int createProgram(String vertexPath, String fragmentPath, String defines) throws IOException;
+    
+    /**
+     * Draw the shared fullscreen quad with the current program
+     */
+    void drawFullscreenQuad();
+    
+    /**
+     * @return The render-resolution scene copy, as framebuffer and as texture
+     */
+    int getInputFramebuffer();
+    
+    int getInputTexture();
+    
+    /**
+     * @return The scene depth at render resolution, or 0 if this frame didn't capture any
+     */
+    int getDepthTexture();
+    
+    /**
+     * @return The display-resolution intermediate target, 0 unless the upscaler asked for it
+     */
+    int getIntermediateFramebuffer();
+    
+    int getIntermediateTexture();
+    
+    /**
+     * @return Allocated size of the intermediate target: the display, or the
+     *         largest tile plus its apron when the output goes in tiles
+     */
+    int getIntermediateWidth();
+    
+    int getIntermediateHeight();
+    
+    /**
+     * @return The display width by render height target, 0 unless the upscaler asked for it
+     */
+    int getHorizontalFramebuffer();
+    
+    int getHorizontalTexture();
+    
+    int getOutputFramebuffer();
+    
+    int getRenderWidth();
+    
+    int getRenderHeight();
+    
+    int getDisplayWidth();
+    
+    int getDisplayHeight();
+    
+    /**
+     * @return The part of the display this frame's output framebuffer holds, in
+     *         display pixels. That is the whole display unless the output is too
+     *         large for one texture; then the processor renders it a tile at a
+     *         time, and only upscalers that handle tiles are used.
+     */
+    int getTileX();
+    
+    int getTileY();
+    
+    int getTileWidth();
+    
+    int getTileHeight();
+    
+    /**
+     * @return Pixels the intermediate target has around the tile on every side,
+     *         so passes that read neighbours see the same pixels as untiled; 0 when not tiled
+     */
+    int getTileApron();
+    
+    /**
+     * @return Sharpening strength from 0 (none) to 1 (strongest)
+     */
+    float getSharpness();
+    
+    float getDepthNear();
+    
+    float getDepthFar();
+    
+    boolean isDepthGuidedEdges();
+    
+    /**
+     * @return True if EASU should reconstruct luma only, with bilinear chroma
+     */
+    boolean isLumaEasu();
+}
@@ -0,0 +1,61 @@
+package com.kleeaiaiai.amdium.mixin;
+
+import com.kleeaiaiai.amdium.AMDium;
+import com.kleeaiaiai.amdium.fsr.FSRProcessor;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.Framebuffer;
+import net.minecraft.client.util.ScreenshotRecorder;
+import net.minecraft.text.ClickEvent;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.io.File;
+import java.util.function.Consumer;
+
+@Mixin(ScreenshotRecorder.class)
+public class ScreenshotRecorderMixin {
+    @Shadow
+    private static File getScreenshotFilename(File directory) {
+        throw new AssertionError();
+    }
+    
+    // Vanilla reads the main framebuffer back synchronously. While FSR runs, save the frame
+    // that is presented instead, read back through pixel buffers without the stall.
+    @Inject(method = "saveScreenshot(Ljava/io/File;Ljava/lang/String;Lnet/minecraft/client/gl/Framebuffer;Ljava/util/function/Consumer;)V",
+            at = @At("HEAD"), cancellable = true)
+    private static void onSaveScreenshot(File gameDirectory, String fileName, Framebuffer framebuffer,
+                                         Consumer<Text> messageReceiver, CallbackInfo ci) {
+        MinecraftClient client = MinecraftClient.getInstance();
+        AMDium amdium = AMDium.getInstance();
+        // Panoramas and other mods' captures pass their own framebuffers
+        if (!client.isOnThread() || framebuffer != client.getFramebuffer() || !amdium.isFSREnabled()) return;
+        
+        FSRProcessor fsrProcessor = amdium.getFSRProcessor();
+        if (fsrProcessor == null) return;
+        
+        File directory = new File(gameDirectory, ScreenshotRecorder.SCREENSHOTS_DIRECTORY);
+        directory.mkdir();
+        File file = fileName == null ? getScreenshotFilename(directory) : new File(directory, fileName);
+        
+        boolean requested = fsrProcessor.requestCapture(file.toPath(), (path, error) -> {
+            Text message;
+            if (error == null) {
+                Text name = Text.literal(file.getName()).formatted(Formatting.UNDERLINE)
+                    .styled(style -> style.withClickEvent(new ClickEvent(ClickEvent.Action.OPEN_FILE, file.getAbsolutePath())));
+                message = Text.translatable("screenshot.success", name);
+            } else {
+                AMDium.LOGGER.warn("Couldn't save screenshot", error);
+                message = Text.translatable("screenshot.failure", error.getMessage());
+            }
+            client.execute(() -> messageReceiver.accept(message));
+        });
+        if (requested) {
+            ci.cancel();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.kleeaiaiai.amdium.mixin;
+
+import com.kleeaiaiai.amdium.AMDium;
+import com.kleeaiaiai.amdium.fsr.FSRProcessor;
+import net.minecraft.client.util.Window;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(Window.class)
+public class WindowMixin {
+    // The back buffer is complete here, HUD and all, so screenshots get what the player sees
+    @Inject(method = "swapBuffers", at = @At("HEAD"))
+    private void onSwapBuffers(CallbackInfo ci) {
+        AMDium amdium = AMDium.getInstance();
+        if (amdium == null || !amdium.isFSREnabled()) return;
+        
+        FSRProcessor fsrProcessor = amdium.getFSRProcessor();
+        if (fsrProcessor == null) return;
+        
+        try {
+            Window window = (Window) (Object) this;
+            fsrProcessor.capturePresentedFrame(window.getFramebufferWidth(), window.getFramebufferHeight());
+        } catch (Exception e) {
+            AMDium.LOGGER.error("Error starting the screenshot readback", e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.kleeaiaiai.amdium.mixin;
+
+import com.kleeaiaiai.amdium.AMDium;
+import com.kleeaiaiai.amdium.fsr.FSRProcessor;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.gl.Framebuffer;
+import net.minecraft.client.render.Camera;
+import net.minecraft.client.render.GameRenderer;
+import net.minecraft.client.render.LightmapTextureManager;
+import net.minecraft.client.render.WorldRenderer;
+import net.minecraft.client.util.math.MatrixStack;
+import org.joml.Matrix4f;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(WorldRenderer.class)
+public class WorldRendererMixin {
+    // Last point the main framebuffer holds the scene's depth: GameRenderer clears
+    // it right after this returns, to draw the hand and then the HUD on top
+    @Inject(method = "render", at = @At("RETURN"))
+    private void onRenderWorldEnd(MatrixStack matrices, float tickDelta, long limitTime, boolean renderBlockOutline,
+                                  Camera camera, GameRenderer gameRenderer, LightmapTextureManager lightmapTextureManager,
+                                  Matrix4f projectionMatrix, CallbackInfo ci) {
+        AMDium amdium = AMDium.getInstance();
+        if (!amdium.isFSREnabled()) return;
+        
+        FSRProcessor fsrProcessor = amdium.getFSRProcessor();
+        if (fsrProcessor == null) return;
+        
+        try {
+            Framebuffer main = MinecraftClient.getInstance().getFramebuffer();
+            fsrProcessor.captureSceneDepth(main.fbo, gameRenderer.getFarPlaneDistance());
+            main.beginWrite(false);
+        } catch (Exception e) {
+            AMDium.LOGGER.error("Error capturing scene depth", e);
+        }
+    }
+}
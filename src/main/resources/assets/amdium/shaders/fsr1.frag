@@ -9,6 +9,18 @@ uniform vec2 inputSize;
 uniform vec2 outputSize;
 uniform float sharpness; // 0.0 to 1.0, with 0.8 being default
 
+// Half precision where the driver supports it. FSRProcessor defines AMDIUM_FP16
+// together with the matching #extension; texture coordinates always stay fp32.
+#ifdef AMDIUM_FP16
+#define half float16_t
+#define half3 f16vec3
+#define half4 f16vec4
+#else
+#define half float
+#define half3 vec3
+#define half4 vec4
+#endif
+
 // FSR constants from AMD's implementation
 const float FSR_RCAS_LIMIT = 0.25;
 const float FSR_EASU_CONTRAST_BOOST = 1.0;
@@ -22,6 +34,16 @@ const float MC_EDGE_BOOST = 1.5;         // Boost edge detection for Minecraft's
 const float MC_CORNER_BOOST = 2.0;       // Extra boost for corners (where blocks meet)
 const float MC_SATURATION_WEIGHT = 0.3;  // Weight for saturation in edge detection
 
+#ifdef AMDIUM_DEPTH_EDGES
+uniform sampler2D depthTexture;
+uniform vec2 depthRange; // x = near plane, y = far plane
+
+// Depth-guided edge constants
+const float MC_DEPTH_EDGE_THRESHOLD = 0.02;  // Relative distance jump where a silhouette starts
+const float MC_DEPTH_EDGE_FULL = 0.1;        // Relative distance jump treated as a hard silhouette
+const float MC_TEXTURE_DETAIL_WEIGHT = 0.15; // Color edges inside a surface still count a little
+#endif
+
 // Optimized directional sampling weights
 const vec2[8] FSR_EASU_WEIGHTS = vec2[8](
     vec2(-1.0, -1.0), vec2(0.0, -1.0), vec2(1.0, -1.0),
@@ -30,23 +52,23 @@ const vec2[8] FSR_EASU_WEIGHTS = vec2[8](
 );
 
 // Helper functions
-float RGBToLuma(vec3 color) {
-    return dot(color, vec3(0.2126, 0.7152, 0.0722));
+half RGBToLuma(half3 color) {
+    return dot(color, half3(0.2126, 0.7152, 0.0722));
 }
 
 // Calculate color saturation - useful for detecting Minecraft textures
-float Saturation(vec3 color) {
-    float minChannel = min(min(color.r, color.g), color.b);
-    float maxChannel = max(max(color.r, color.g), color.b);
-    return maxChannel > 0.0 ? (maxChannel - minChannel) / maxChannel : 0.0;
+half Saturation(half3 color) {
+    half minChannel = min(min(color.r, color.g), color.b);
+    half maxChannel = max(max(color.r, color.g), color.b);
+    return maxChannel > half(0.0) ? (maxChannel - minChannel) / maxChannel : half(0.0);
 }
 
 vec4 LoadInput(vec2 pos) {
     return texture(inputTexture, clamp(pos / inputSize, vec2(0.0), vec2(1.0)));
 }
 
-vec3 FsrEasuSample(vec2 pos, vec2 dir) {
-    return LoadInput(pos + dir).rgb;
+half3 FsrEasuSample(vec2 pos, vec2 dir) {
+    return half3(LoadInput(pos + dir).rgb);
 }
 
 float CalcEdgeAttenuation(float edge, float luma) {
@@ -54,37 +76,127 @@ float CalcEdgeAttenuation(float edge, float luma) {
     return mix(1.0, edgePower, FSR_EASU_EDGE_SLOPE * luma);
 }
 
+#ifdef AMDIUM_DEPTH_EDGES
+// Convert hardware depth back to view distance so jumps are comparable near and far
+float LoadLinearDepth(vec2 pos) {
+    float depth = texture(depthTexture, clamp(pos / inputSize, vec2(0.0), vec2(1.0))).r;
+    float z = depth * 2.0 - 1.0;
+    return (2.0 * depthRange.x * depthRange.y) / (depthRange.y + depthRange.x - z * (depthRange.y - depthRange.x));
+}
+
+// Geometric discontinuity between two surfaces, 0 inside a surface and 1 on a silhouette
+float DetectDepthEdge(float centerDepth, float neighborDepth) {
+    float relativeJump = abs(centerDepth - neighborDepth) / max(min(centerDepth, neighborDepth), 0.0001);
+    return smoothstep(MC_DEPTH_EDGE_THRESHOLD, MC_DEPTH_EDGE_FULL, relativeJump);
+}
+#endif
+
+#ifdef AMDIUM_LUMA_EASU
+// YCoCg split: edges are reconstructed on Y only, Co/Cg come from the bilinear center tap
+half3 RGBToYCoCg(half3 color) {
+    return half3(dot(color, half3(0.25, 0.5, 0.25)),
+                 dot(color, half3(0.5, 0.0, -0.5)),
+                 dot(color, half3(-0.25, 0.5, -0.25)));
+}
+
+half YCoCgLuma(half3 color) {
+    return dot(color, half3(0.25, 0.5, 0.25));
+}
+
+half3 YCoCgToRGB(half3 ycocg) {
+    half base = ycocg.x - ycocg.z;
+    return half3(base + ycocg.y, ycocg.x + ycocg.z, base - ycocg.y);
+}
+#endif
+
 // Minecraft-optimized edge detection
-float DetectMinecraftEdge(vec3 center, vec3 neighbor) {
-    float lumaDiff = abs(RGBToLuma(center) - RGBToLuma(neighbor));
-    float satDiff = abs(Saturation(center) - Saturation(neighbor));
+half DetectMinecraftEdge(half3 center, half3 neighbor) {
+    half lumaDiff = abs(RGBToLuma(center) - RGBToLuma(neighbor));
+    half satDiff = abs(Saturation(center) - Saturation(neighbor));
     
     // Combine luma and saturation differences for better Minecraft edge detection
-    return lumaDiff + satDiff * MC_SATURATION_WEIGHT;
+    return lumaDiff + satDiff * half(MC_SATURATION_WEIGHT);
 }
 
+#ifdef AMDIUM_LUMA_EASU
+// Luma-only EASU: same edge-directed weights as below, but every tap contributes
+// one scalar instead of RGB and saturation, and chroma is upsampled bilinearly
+half3 ApplyEASU(vec2 pos) {
+    half3 center = RGBToYCoCg(half3(LoadInput(pos).rgb));
+    half lumaSum = center.x;
+    half weightSum = half(1.0);
+    
+    half maxEdgeStrength = half(0.0);
+    vec2 primaryEdgeDir = vec2(0.0);
+    
+#ifdef AMDIUM_DEPTH_EDGES
+    float centerDepth = LoadLinearDepth(pos);
+#endif
+    
+    for (int i = 0; i < 8; i++) {
+        half sampleLuma = YCoCgLuma(FsrEasuSample(pos, FSR_EASU_WEIGHTS[i]));
+        
+#ifdef AMDIUM_DEPTH_EDGES
+        half edgeStrength = half(DetectDepthEdge(centerDepth, LoadLinearDepth(pos + FSR_EASU_WEIGHTS[i]))) +
+                            abs(center.x - sampleLuma) * half(MC_TEXTURE_DETAIL_WEIGHT);
+#else
+        half edgeStrength = abs(center.x - sampleLuma);
+#endif
+        
+        // Boost corners (diagonal directions)
+        if (i == 0 || i == 2 || i == 5 || i == 7) {
+            edgeStrength *= half(MC_CORNER_BOOST);
+        }
+        
+        if (edgeStrength > maxEdgeStrength) {
+            maxEdgeStrength = edgeStrength;
+            primaryEdgeDir = FSR_EASU_WEIGHTS[i];
+        }
+        
+        half weight = max(half(1.0) - edgeStrength * half(MC_EDGE_BOOST), half(0.1));
+        lumaSum += sampleLuma * weight;
+        weightSum += weight;
+    }
+    
+    if (maxEdgeStrength > half(MC_EDGE_THRESHOLD)) {
+        vec2 perpDir = vec2(-primaryEdgeDir.y, primaryEdgeDir.x);
+        half edge1 = YCoCgLuma(FsrEasuSample(pos, perpDir));
+        half edge2 = YCoCgLuma(FsrEasuSample(pos, -perpDir));
+        
+        half edgeWeight = half(2.0) * smoothstep(half(MC_EDGE_THRESHOLD), half(0.2), maxEdgeStrength);
+        lumaSum += (edge1 + edge2) * edgeWeight;
+        weightSum += edgeWeight * half(2.0);
+    }
+    
+    return YCoCgToRGB(half3(lumaSum / weightSum, center.yz));
+}
+#else
 // Edge-Adaptive Spatial Upsampling (EASU) optimized for Minecraft
-vec3 ApplyEASU(vec2 pos) {
-    vec4 center = LoadInput(pos);
-    vec3 colorSum = center.rgb;
-    float weightSum = 1.0;
-    
-    float centerLuma = RGBToLuma(center.rgb);
-    float centerSat = Saturation(center.rgb);
-    float maxLuma = centerLuma;
-    float minLuma = centerLuma;
+half3 ApplyEASU(vec2 pos) {
+    half3 center = half3(LoadInput(pos).rgb);
+    half3 colorSum = center;
+    half weightSum = half(1.0);
+    
+    half centerLuma = RGBToLuma(center);
+    half centerSat = Saturation(center);
+    half maxLuma = centerLuma;
+    half minLuma = centerLuma;
     vec2 maxLumaPos = vec2(0.0);
     vec2 minLumaPos = vec2(0.0);
     
     // Track potential block edges
-    float maxEdgeStrength = 0.0;
+    half maxEdgeStrength = half(0.0);
     vec2 primaryEdgeDir = vec2(0.0);
     
+#ifdef AMDIUM_DEPTH_EDGES
+    float centerDepth = LoadLinearDepth(pos);
+#endif
+    
     // Edge detection and directional sampling
     for (int i = 0; i < 8; i++) {
         vec2 samplePos = pos + FSR_EASU_WEIGHTS[i];
-        vec3 sampleColor = FsrEasuSample(pos, FSR_EASU_WEIGHTS[i]);
-        float sampleLuma = RGBToLuma(sampleColor);
+        half3 sampleColor = FsrEasuSample(pos, FSR_EASU_WEIGHTS[i]);
+        half sampleLuma = RGBToLuma(sampleColor);
         
         // Track min/max luma for contrast preservation
         if (sampleLuma > maxLuma) {
@@ -96,12 +208,18 @@ vec3 ApplyEASU(vec2 pos) {
             minLumaPos = FSR_EASU_WEIGHTS[i];
         }
         
+#ifdef AMDIUM_DEPTH_EDGES
+        // Silhouettes come from depth; texture detail is treated as surface interior
+        half edgeStrength = half(DetectDepthEdge(centerDepth, LoadLinearDepth(samplePos))) +
+                            DetectMinecraftEdge(center, sampleColor) * half(MC_TEXTURE_DETAIL_WEIGHT);
+#else
         // Minecraft-optimized edge detection
-        float edgeStrength = DetectMinecraftEdge(center.rgb, sampleColor);
+        half edgeStrength = DetectMinecraftEdge(center, sampleColor);
+#endif
         
         // Boost corners (diagonal directions)
         if (i == 0 || i == 2 || i == 5 || i == 7) {
-            edgeStrength *= MC_CORNER_BOOST;
+            edgeStrength *= half(MC_CORNER_BOOST);
         }
         
         // Track strongest edge direction
@@ -111,40 +229,41 @@ vec3 ApplyEASU(vec2 pos) {
         }
         
         // Calculate adaptive weight based on edge detection
-        float weight = 1.0 - edgeStrength * MC_EDGE_BOOST;
-        weight = max(weight, 0.1); // Ensure some contribution from all samples
+        half weight = half(1.0) - edgeStrength * half(MC_EDGE_BOOST);
+        weight = max(weight, half(0.1)); // Ensure some contribution from all samples
         
         colorSum += sampleColor * weight;
         weightSum += weight;
     }
     
     // Apply additional sampling along detected primary edge
-    if (maxEdgeStrength > MC_EDGE_THRESHOLD) {
+    if (maxEdgeStrength > half(MC_EDGE_THRESHOLD)) {
         // Sample perpendicular to the edge for better preservation
         vec2 perpDir = vec2(-primaryEdgeDir.y, primaryEdgeDir.x);
-        vec3 edge1 = FsrEasuSample(pos, perpDir);
-        vec3 edge2 = FsrEasuSample(pos, -perpDir);
+        half3 edge1 = FsrEasuSample(pos, perpDir);
+        half3 edge2 = FsrEasuSample(pos, -perpDir);
         
         // Add edge samples with high weight to preserve block edges
-        float edgeWeight = 2.0 * smoothstep(MC_EDGE_THRESHOLD, 0.2, maxEdgeStrength);
+        half edgeWeight = half(2.0) * smoothstep(half(MC_EDGE_THRESHOLD), half(0.2), maxEdgeStrength);
         colorSum += (edge1 + edge2) * edgeWeight;
-        weightSum += edgeWeight * 2.0;
+        weightSum += edgeWeight * half(2.0);
     }
     
     return colorSum / weightSum;
 }
+#endif
 
 // Robust Contrast Adaptive Sharpening (RCAS) optimized for Minecraft
-vec3 ApplyRCAS(vec3 color, vec2 pos) {
-    float centerLuma = RGBToLuma(color);
-    vec3 sharpened = color;
+half3 ApplyRCAS(half3 color, vec2 pos) {
+    half centerLuma = RGBToLuma(color);
+    half3 sharpened = color;
     
-    float lumaMin = centerLuma;
-    float lumaMax = centerLuma;
+    half lumaMin = centerLuma;
+    half lumaMax = centerLuma;
     
     // Track edge directions for Minecraft's blocky style
-    float horizontalEdge = 0.0;
-    float verticalEdge = 0.0;
+    half horizontalEdge = half(0.0);
+    half verticalEdge = half(0.0);
     
     // Sample neighbors for contrast-adaptive sharpening
     for (int i = 0; i < 4; i++) {
@@ -157,50 +276,50 @@ vec3 ApplyRCAS(vec3 color, vec2 pos) {
         
         offset /= inputSize;
         
-        vec3 neighborColor = LoadInput(pos + offset).rgb;
-        float neighborLuma = RGBToLuma(neighborColor);
+        half3 neighborColor = half3(LoadInput(pos + offset).rgb);
+        half neighborLuma = RGBToLuma(neighborColor);
         
         // Track min/max for contrast preservation
         lumaMin = min(lumaMin, neighborLuma);
         lumaMax = max(lumaMax, neighborLuma);
         
         // Detect horizontal and vertical edges (common in Minecraft)
-        float edgeDiff = abs(centerLuma - neighborLuma);
+        half edgeDiff = abs(centerLuma - neighborLuma);
         if (i < 2) verticalEdge += edgeDiff;
         else horizontalEdge += edgeDiff;
     }
     
     // Calculate local contrast and apply sharpening
-    float lumaRange = lumaMax - lumaMin;
+    half lumaRange = lumaMax - lumaMin;
     
     // Boost sharpening along detected block edges
-    float edgeAlignment = max(horizontalEdge, verticalEdge);
-    float blockEdgeBoost = 1.0 + smoothstep(MC_EDGE_THRESHOLD, 0.2, edgeAlignment);
+    half edgeAlignment = max(horizontalEdge, verticalEdge);
+    half blockEdgeBoost = half(1.0) + smoothstep(half(MC_EDGE_THRESHOLD), half(0.2), edgeAlignment);
     
-    float sharpenStrength = min(lumaRange / FSR_RCAS_LIMIT, 1.0) * sharpness * blockEdgeBoost;
+    half sharpenStrength = min(lumaRange / half(FSR_RCAS_LIMIT), half(1.0)) * half(sharpness) * blockEdgeBoost;
     
     // Apply directional sharpening based on edge detection
-    if (horizontalEdge > verticalEdge * 1.5) {
+    if (horizontalEdge > verticalEdge * half(1.5)) {
         // Horizontal edge - sharpen vertically
-        vec3 north = LoadInput(pos + vec2(0, -1) / inputSize).rgb;
-        vec3 south = LoadInput(pos + vec2(0, 1) / inputSize).rgb;
-        sharpened = mix(color, color * 2.0 - (north + south) * 0.5, sharpenStrength * 0.5);
+        half3 north = half3(LoadInput(pos + vec2(0, -1) / inputSize).rgb);
+        half3 south = half3(LoadInput(pos + vec2(0, 1) / inputSize).rgb);
+        sharpened = mix(color, color * half(2.0) - (north + south) * half(0.5), sharpenStrength * half(0.5));
     } 
-    else if (verticalEdge > horizontalEdge * 1.5) {
+    else if (verticalEdge > horizontalEdge * half(1.5)) {
         // Vertical edge - sharpen horizontally
-        vec3 west = LoadInput(pos + vec2(-1, 0) / inputSize).rgb;
-        vec3 east = LoadInput(pos + vec2(1, 0) / inputSize).rgb;
-        sharpened = mix(color, color * 2.0 - (west + east) * 0.5, sharpenStrength * 0.5);
+        half3 west = half3(LoadInput(pos + vec2(-1, 0) / inputSize).rgb);
+        half3 east = half3(LoadInput(pos + vec2(1, 0) / inputSize).rgb);
+        sharpened = mix(color, color * half(2.0) - (west + east) * half(0.5), sharpenStrength * half(0.5));
     }
     else {
         // No strong directional edge - apply uniform sharpening
         sharpened = mix(color, 
-                        color * (1.0 + sharpenStrength),
-                        smoothstep(0.0, FSR_EASU_EDGE_THRESHOLD, lumaRange));
+                        color * (half(1.0) + sharpenStrength),
+                        smoothstep(half(0.0), half(FSR_EASU_EDGE_THRESHOLD), lumaRange));
     }
     
     // Ensure we don't exceed the local contrast range
-    float finalLuma = RGBToLuma(sharpened);
+    half finalLuma = RGBToLuma(sharpened);
     if (finalLuma > lumaMax) {
         sharpened *= lumaMax / finalLuma;
     } else if (finalLuma < lumaMin) {
@@ -219,12 +338,12 @@ void main() {
     pos += subpixelOffset;
     
     // Apply EASU upscaling optimized for Minecraft
-    vec3 upscaledColor = ApplyEASU(pos);
+    half3 upscaledColor = ApplyEASU(pos);
     
     // Apply RCAS sharpening optimized for Minecraft
-    vec3 finalColor = ApplyRCAS(upscaledColor, pos);
+    half3 finalColor = ApplyRCAS(upscaledColor, pos);
     
     // Preserve alpha from original texture
     float alpha = LoadInput(pos).a;
-    FragColor = vec4(finalColor, alpha);
+    FragColor = vec4(vec3(finalColor), alpha);
 } 
\ No newline at end of file
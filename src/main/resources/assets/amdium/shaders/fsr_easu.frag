@@ -6,6 +6,21 @@ out vec4 FragColor;
 uniform sampler2D inputTexture;
 uniform vec2 inputSize;
 uniform vec2 outputSize;
+// Part of the input this draw covers, as offset and size in 0..1; less than
+// the whole image when the output is upscaled in tiles
+uniform vec4 tileRect = vec4(0.0, 0.0, 1.0, 1.0);
+
+// Half precision where the driver supports it. FSRProcessor defines AMDIUM_FP16
+// together with the matching #extension; texture coordinates always stay fp32.
+#ifdef AMDIUM_FP16
+#define half float16_t
+#define half3 f16vec3
+#define half4 f16vec4
+#else
+#define half float
+#define half3 vec3
+#define half4 vec4
+#endif
 
 // Enhanced EASU constants for better performance
 const float EASU_EDGE_THRESHOLD = 0.1;
@@ -44,9 +59,9 @@ float FastLanczos(float x) {
 }
 
 // Fast luminance calculation
-float FastLuma(vec3 color) {
+half FastLuma(half3 color) {
     // Weighted toward green for better perception
-    return dot(color, vec3(0.2, 0.7, 0.1));
+    return dot(color, half3(0.2, 0.7, 0.1));
 }
 
 // Optimized gradient detection tailored for Minecraft's block edges
@@ -54,19 +69,19 @@ vec2 ComputeBlockEdgeGradient(vec2 uv) {
     vec2 texelSize = 1.0 / inputSize;
     
     // Sample brightness at grid points
-    float c0 = FastLuma(texture(inputTexture, uv + vec2(-texelSize.x, -texelSize.y)).rgb);
-    float c1 = FastLuma(texture(inputTexture, uv + vec2(0.0, -texelSize.y)).rgb);
-    float c2 = FastLuma(texture(inputTexture, uv + vec2(texelSize.x, -texelSize.y)).rgb);
-    float c3 = FastLuma(texture(inputTexture, uv + vec2(-texelSize.x, 0.0)).rgb);
-    float c4 = FastLuma(texture(inputTexture, uv).rgb);
-    float c5 = FastLuma(texture(inputTexture, uv + vec2(texelSize.x, 0.0)).rgb);
-    float c6 = FastLuma(texture(inputTexture, uv + vec2(-texelSize.x, texelSize.y)).rgb);
-    float c7 = FastLuma(texture(inputTexture, uv + vec2(0.0, texelSize.y)).rgb);
-    float c8 = FastLuma(texture(inputTexture, uv + vec2(texelSize.x, texelSize.y)).rgb);
+    half c0 = FastLuma(half3(texture(inputTexture, uv + vec2(-texelSize.x, -texelSize.y)).rgb));
+    half c1 = FastLuma(half3(texture(inputTexture, uv + vec2(0.0, -texelSize.y)).rgb));
+    half c2 = FastLuma(half3(texture(inputTexture, uv + vec2(texelSize.x, -texelSize.y)).rgb));
+    half c3 = FastLuma(half3(texture(inputTexture, uv + vec2(-texelSize.x, 0.0)).rgb));
+    half c4 = FastLuma(half3(texture(inputTexture, uv).rgb));
+    half c5 = FastLuma(half3(texture(inputTexture, uv + vec2(texelSize.x, 0.0)).rgb));
+    half c6 = FastLuma(half3(texture(inputTexture, uv + vec2(-texelSize.x, texelSize.y)).rgb));
+    half c7 = FastLuma(half3(texture(inputTexture, uv + vec2(0.0, texelSize.y)).rgb));
+    half c8 = FastLuma(half3(texture(inputTexture, uv + vec2(texelSize.x, texelSize.y)).rgb));
     
     // Calculate gradients with higher weight on direct neighbors
-    float gx = (c0 - c2) * 0.5 + (c3 - c5) + (c6 - c8) * 0.5;
-    float gy = (c0 - c6) * 0.5 + (c1 - c7) + (c2 - c8) * 0.5;
+    float gx = float((c0 - c2) * half(0.5) + (c3 - c5) + (c6 - c8) * half(0.5));
+    float gy = float((c0 - c6) * half(0.5) + (c1 - c7) + (c2 - c8) * half(0.5));
     
     // Accentuate block edges (common in Minecraft)
     float edginess = max(abs(gx), abs(gy));
@@ -91,10 +106,9 @@ float DetectBlockGrid(vec2 pos) {
 void main() {
     // Calculate relative position from output to input
     vec2 inputTexelSize = 1.0 / inputSize;
-    float scaleRatio = inputSize.x / outputSize.x;
     
-    // Calculate position in input texture space
-    vec2 inputPos = texCoord * outputSize / inputSize;
+    // Both textures span the same 0..1 range, so the output position is the input position
+    vec2 inputPos = tileRect.xy + texCoord * tileRect.zw;
     
     // Apply half-pixel offset for correct texel center alignment
     inputPos += 0.5 * inputTexelSize;
@@ -123,7 +137,7 @@ void main() {
     vec2 perpDir = vec2(-edgeDir.y, edgeDir.x); // Perpendicular direction
     
     // Sample fewer points for better performance - 3x3 optimized pattern
-    vec4 samples[9];
+    half4 samples[9];
     float weights[9];
     float weightSum = 0.0;
     
@@ -137,7 +151,7 @@ void main() {
             
             // Sample position in texture coordinates
             vec2 samplePos = texelPos + (offset * inputTexelSize);
-            samples[idx] = texture(inputTexture, samplePos);
+            samples[idx] = half4(texture(inputTexture, samplePos));
             
             // Apply Lanczos filtering with directional bias
             float lanczosWeight = FastLanczos(length(sampleDist));
@@ -172,17 +186,17 @@ void main() {
     }
     
     // Apply weighted samples
-    vec4 color = vec4(0.0);
+    half4 color = half4(0.0);
     for (int i = 0; i < 9; i++) {
-        color += samples[i] * weights[i];
+        color += samples[i] * half(weights[i]);
     }
     
     // Enhance edges for Minecraft's crisp look
     if (edgeFactor > 0.0 && blockEdge > 0.0) {
         // Center sample with higher weight for edge preservation
-        vec4 centerSample = samples[4]; // Center sample
-        color = mix(color, centerSample, edgeFactor * EASU_SHARPNESS * blockEdge);
+        half4 centerSample = samples[4]; // Center sample
+        color = mix(color, centerSample, half(edgeFactor * EASU_SHARPNESS * blockEdge));
     }
     
-    FragColor = color;
+    FragColor = vec4(color);
 } 
\ No newline at end of file
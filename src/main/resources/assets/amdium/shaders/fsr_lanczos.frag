@@ -0,0 +1,53 @@
+#version 330 core
+
+in vec2 texCoord;
+out vec4 FragColor;
+
+uniform sampler2D inputTexture;
+uniform vec2 inputSize; // Size of inputTexture in texels
+
+// One axis of a separable Lanczos-2 upscale: the horizontal pass runs at
+// display width and render height, the vertical pass at display resolution,
+// so each output pixel costs 4 taps per pass instead of 16 for a 2D kernel
+#ifdef AMDIUM_LANCZOS_VERTICAL
+const vec2 AXIS = vec2(0.0, 1.0);
+#else
+const vec2 AXIS = vec2(1.0, 0.0);
+#endif
+
+const float PI = 3.14159265;
+
+float Lanczos2(float x) {
+    x = abs(x);
+    if (x < 1e-5) return 1.0;
+    if (x >= 2.0) return 0.0;
+    float px = PI * x;
+    return 2.0 * sin(px) * sin(px * 0.5) / (px * px);
+}
+
+void main() {
+    // Source position along the filter axis, in texels, relative to the texel left of it
+    float size = dot(inputSize, AXIS);
+    float pos = dot(texCoord, AXIS) * size - 0.5;
+    float base = floor(pos);
+    float f = pos - base;
+    
+    // Sample at texel centers, so the hardware filter returns exact texels
+    vec2 baseCoord = texCoord * (vec2(1.0) - AXIS) + AXIS * ((base + 0.5) / size);
+    vec2 texelStep = AXIS / size;
+    vec3 c0 = texture(inputTexture, baseCoord - texelStep).rgb;
+    vec3 c1 = texture(inputTexture, baseCoord).rgb;
+    vec3 c2 = texture(inputTexture, baseCoord + texelStep).rgb;
+    vec3 c3 = texture(inputTexture, baseCoord + 2.0 * texelStep).rgb;
+    
+    float w0 = Lanczos2(f + 1.0);
+    float w1 = Lanczos2(f);
+    float w2 = Lanczos2(f - 1.0);
+    float w3 = Lanczos2(f - 2.0);
+    vec3 color = (c0 * w0 + c1 * w1 + c2 * w2 + c3 * w3) / (w0 + w1 + w2 + w3);
+    
+    // Clamp to the two nearest texels so hard block edges don't ring
+    color = clamp(color, min(c1, c2), max(c1, c2));
+    
+    FragColor = vec4(color, 1.0);
+}
\ No newline at end of file
@@ -5,6 +5,21 @@ out vec4 FragColor;
 
 uniform sampler2D inputTexture;
 uniform float sharpness; // 0.0 to 2.0 scale, 0.0 = max sharpening, 2.0 = no sharpening
+// Part of the input this draw covers, as offset and size in 0..1; a tile
+// without its apron when the output is upscaled in tiles
+uniform vec4 tileRect = vec4(0.0, 0.0, 1.0, 1.0);
+
+// Half precision where the driver supports it. FSRProcessor defines AMDIUM_FP16
+// together with the matching #extension; texture coordinates always stay fp32.
+#ifdef AMDIUM_FP16
+#define half float16_t
+#define half3 f16vec3
+#define half4 f16vec4
+#else
+#define half float
+#define half3 vec3
+#define half4 vec4
+#endif
 
 // Enhanced RCAS constants
 const float FSR_RCAS_LIMIT = 0.25 - (1.0/16.0); // More accurate limit from AMD implementation
@@ -26,73 +41,75 @@ float FastExp2(float x) {
 }
 
 // Optimized minimal luma calculation
-float FastLuma(vec3 color) {
+half FastLuma(half3 color) {
     // Green-focused luma for faster calculation (matches Minecraft's green emphasis)
-    return color.g * 0.7 + color.r * 0.2 + color.b * 0.1;
+    return color.g * half(0.7) + color.r * half(0.2) + color.b * half(0.1);
 }
 
 // Check if we're on a likely block edge (for Minecraft optimization)
-float DetectBlockEdge(float c, float n, float s, float e, float w) {
+half DetectBlockEdge(half c, half n, half s, half e, half w) {
     // Calculate normalized differences that indicate block boundaries
-    float vEdge = abs(n - s) / max(abs(e - w), 0.001);
-    float hEdge = abs(e - w) / max(abs(n - s), 0.001);
+    half vEdge = abs(n - s) / max(abs(e - w), half(0.001));
+    half hEdge = abs(e - w) / max(abs(n - s), half(0.001));
     
     // Higher values indicate stronger edge alignment with Minecraft's grid
-    return max(vEdge, hEdge) > 4.0 ? MC_BLOCK_EDGE_BOOST : 1.0;
+    return max(vEdge, hEdge) > half(4.0) ? half(MC_BLOCK_EDGE_BOOST) : half(1.0);
 }
 
 void main() {
     // Optimized for better texture cache utilization
     vec2 texelSize = 1.0 / textureSize(inputTexture, 0);
+    vec2 uv = tileRect.xy + texCoord * tileRect.zw;
     
     // Calculate pixel-perfect position for Minecraft's grid
-    vec2 pixelPos = floor(texCoord / texelSize);
+    vec2 pixelPos = floor(uv / texelSize);
     vec2 pixelCenter = (pixelPos + 0.5) * texelSize;
-    vec2 subPixelOffset = texCoord - pixelCenter;
+    vec2 subPixelOffset = uv - pixelCenter;
     
     // Snap to Minecraft texture boundaries for better alignment
     subPixelOffset = round(subPixelOffset / MC_PIXEL_BOUNDARY_SNAP) * MC_PIXEL_BOUNDARY_SNAP;
     
     // Optimized spatial sampling
-    vec3 e = texture(inputTexture, texCoord).rgb; // Center (already cached)
-    vec3 n = texture(inputTexture, texCoord + vec2(0.0, texelSize.y)).rgb;
-    vec3 s = texture(inputTexture, texCoord - vec2(0.0, texelSize.y)).rgb;
-    vec3 w = texture(inputTexture, texCoord - vec2(texelSize.x, 0.0)).rgb;
-    vec3 o = texture(inputTexture, texCoord + vec2(texelSize.x, 0.0)).rgb;
+    half3 e = half3(texture(inputTexture, uv).rgb); // Center (already cached)
+    half3 n = half3(texture(inputTexture, uv + vec2(0.0, texelSize.y)).rgb);
+    half3 s = half3(texture(inputTexture, uv - vec2(0.0, texelSize.y)).rgb);
+    half3 w = half3(texture(inputTexture, uv - vec2(texelSize.x, 0.0)).rgb);
+    half3 o = half3(texture(inputTexture, uv + vec2(texelSize.x, 0.0)).rgb);
     
     // Fast luma calculation focusing on green channel (important for Minecraft's foliage)
-    float lE = FastLuma(e);
-    float lN = FastLuma(n);
-    float lS = FastLuma(s);
-    float lW = FastLuma(w);
-    float lO = FastLuma(o);
+    half lE = FastLuma(e);
+    half lN = FastLuma(n);
+    half lS = FastLuma(s);
+    half lW = FastLuma(w);
+    half lO = FastLuma(o);
     
     // Min and max of cross pattern (faster than full neighborhood)
-    float lMin = min(lE, min(min(lN, lS), min(lW, lO)));
-    float lMax = max(lE, max(max(lN, lS), max(lW, lO)));
+    half lMin = min(lE, min(min(lN, lS), min(lW, lO)));
+    half lMax = max(lE, max(max(lN, lS), max(lW, lO)));
     
     // Calculate local variance for sharpening adaptation
-    float lVar = lMax - lMin;
+    half lVar = lMax - lMin;
     
     // Detect if we're on a Minecraft block edge for enhanced edge treatment
-    float edgeFactor = DetectBlockEdge(lE, lN, lS, lW, lO);
+    half edgeFactor = DetectBlockEdge(lE, lN, lS, lW, lO);
     
     // Convert from stops to linear sharpening factor (AMD's approach)
-    float sharpeningAmount = FastExp2(-sharpness) * FSR_RCAS_CONTRAST_BOOST * edgeFactor;
+    half sharpeningAmount = half(FastExp2(-sharpness) * FSR_RCAS_CONTRAST_BOOST) * edgeFactor;
     
     // Apply local variance limiting to prevent oversharpening
-    sharpeningAmount *= 1.0 - smoothstep(0.0, FSR_RCAS_LIMIT, lVar);
+    sharpeningAmount *= half(1.0) - smoothstep(half(0.0), half(FSR_RCAS_LIMIT), lVar);
     
     // Calculate weights with optimized noise handling (faster than original)
-    float wN = 1.0 - abs(lE - lN) / (lVar + FSR_RCAS_DENOISE);
-    float wS = 1.0 - abs(lE - lS) / (lVar + FSR_RCAS_DENOISE);
-    float wW = 1.0 - abs(lE - lW) / (lVar + FSR_RCAS_DENOISE);
-    float wO = 1.0 - abs(lE - lO) / (lVar + FSR_RCAS_DENOISE);
+    half denoise = lVar + half(FSR_RCAS_DENOISE);
+    half wN = half(1.0) - abs(lE - lN) / denoise;
+    half wS = half(1.0) - abs(lE - lS) / denoise;
+    half wW = half(1.0) - abs(lE - lW) / denoise;
+    half wO = half(1.0) - abs(lE - lO) / denoise;
     
     // Normalize weights (all at once for GPU efficiency)
-    float wSum = wN + wS + wW + wO;
-    if (wSum > 0.0) {
-        float wNorm = 1.0 / wSum;
+    half wSum = wN + wS + wW + wO;
+    if (wSum > half(0.0)) {
+        half wNorm = half(1.0) / wSum;
         wN *= wNorm;
         wS *= wNorm;
         wW *= wNorm;
@@ -100,7 +117,7 @@ void main() {
     }
     
     // Apply sharpening with fewer instructions
-    vec3 sharpened = e + sharpeningAmount * (
+    half3 sharpened = e + sharpeningAmount * (
         (e - n) * wN +
         (e - s) * wS +
         (e - w) * wW +
@@ -108,13 +125,13 @@ void main() {
     );
     
     // Fast clamp to prevent ringing artifacts
-    float sharpenedLuma = FastLuma(sharpened);
+    half sharpenedLuma = FastLuma(sharpened);
     if (sharpenedLuma < lMin || sharpenedLuma > lMax) {
         // Simple ratio preservation to avoid color shifts
-        float ratio = clamp(lE / max(sharpenedLuma, 0.001), 0.0, 2.0);
+        half ratio = clamp(lE / max(sharpenedLuma, half(0.001)), half(0.0), half(2.0));
         sharpened *= ratio;
     }
     
     // Preserve alpha from original texture
-    FragColor = vec4(sharpened, texture(inputTexture, texCoord).a);
+    FragColor = vec4(vec3(sharpened), texture(inputTexture, uv).a);
 } 
\ No newline at end of file
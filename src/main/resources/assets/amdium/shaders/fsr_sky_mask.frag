@@ -0,0 +1,16 @@
+#version 330 core
+
+in vec2 texCoord;
+
+uniform sampler2D depthTexture;
+
+// Minecraft clears depth to the far plane and draws the sky without depth writes,
+// so anything still at the far plane after the world pass is sky
+const float SKY_DEPTH = 0.99999;
+
+void main() {
+    // Geometry pixels keep stencil 0 and go through EASU/RCAS
+    if (texture(depthTexture, texCoord).r < SKY_DEPTH) {
+        discard;
+    }
+}